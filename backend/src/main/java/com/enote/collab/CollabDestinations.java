@@ -0,0 +1,51 @@
+package com.enote.collab;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 协作编辑的 STOMP 目的地
+ * 客户端订阅 /topic/notes/{id} 接收广播、订阅 /app/notes/{id}/snapshot 读取快照，
+ * 向 /app/notes/{id}/ops 与 /app/notes/{id}/presence 发送编辑和光标位置；错误发送到 /user/queue/errors
+ */
+public final class CollabDestinations {
+
+    public static final String TOPIC_PREFIX = "/topic/notes/";
+    public static final String ERRORS = "/queue/errors";
+
+    private static final Pattern TOPIC = Pattern.compile("/topic/notes/(\\d{1,18})");
+    private static final Pattern APP = Pattern.compile("/app/notes/(\\d{1,18})/(snapshot|ops|presence)");
+
+    private CollabDestinations() {
+    }
+
+    public static String topic(Long noteId) {
+        return TOPIC_PREFIX + noteId;
+    }
+
+    /**
+     * 广播主题对应的笔记ID，不是笔记广播主题时返回 null
+     */
+    public static Long topicNoteId(String destination) {
+        return noteId(TOPIC, destination);
+    }
+
+    /**
+     * 应用目的地对应的笔记ID，不是协作应用目的地时返回 null
+     */
+    public static Long appNoteId(String destination) {
+        return noteId(APP, destination);
+    }
+
+    public static boolean isErrorQueue(String destination) {
+        return ("/user" + ERRORS).equals(destination);
+    }
+
+    private static Long noteId(Pattern pattern, String destination) {
+        if (destination == null) {
+            return null;
+        }
+        Matcher matcher = pattern.matcher(destination);
+        return matcher.matches() ? Long.valueOf(matcher.group(1)) : null;
+    }
+}
@@ -0,0 +1,42 @@
+package com.enote.collab;
+
+import com.enote.service.CollaborationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+/**
+ * 根据 STOMP 订阅与断开事件维护协作会话的成员
+ * 订阅事件在入站拦截器授权通过后才会发布
+ */
+@Component
+@RequiredArgsConstructor
+public class CollabSessionEventListener {
+
+    private final CollaborationService collaborationService;
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        Long noteId = CollabDestinations.topicNoteId(accessor.getDestination());
+        if (noteId != null) {
+            collaborationService.join(noteId, accessor.getSessionId(), accessor.getSubscriptionId(),
+                    StompAuthChannelInterceptor.userOf(event.getUser()));
+        }
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        collaborationService.leave(accessor.getSessionId(), accessor.getSubscriptionId());
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        collaborationService.disconnect(event.getSessionId());
+    }
+}
@@ -0,0 +1,121 @@
+package com.enote.collab;
+
+import com.enote.security.AuthenticatedUser;
+import com.enote.security.NotePermissionEvaluator;
+import com.enote.security.TokenBlacklistService;
+import com.enote.security.TokenHashes;
+import com.enote.security.VerifiedToken;
+import com.enote.security.VerifiedTokenCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+import java.util.Map;
+
+/**
+ * STOMP 入站消息的认证与授权
+ * 浏览器无法在 WebSocket 握手时携带 Authorization 头，令牌在 CONNECT 帧中校验；
+ * 订阅笔记需要读权限，客户端只能向 /app 目的地发送消息，令牌过期或注销后拒绝后续消息
+ */
+@Component
+@RequiredArgsConstructor
+public class StompAuthChannelInterceptor implements ChannelInterceptor {
+
+    private static final String TOKEN_HASH = "collab.tokenHash";
+    private static final String EXPIRES_AT = "collab.expiresAt";
+
+    private final TokenBlacklistService tokenBlacklistService;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final UserDetailsService userDetailsService;
+    private final NotePermissionEvaluator permissionEvaluator;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
+        StompCommand command = accessor.getCommand();
+        if (command == StompCommand.CONNECT) {
+            authenticate(accessor);
+        } else if (command == StompCommand.SUBSCRIBE) {
+            checkToken(accessor);
+            authorizeSubscribe(accessor);
+        } else if (command == StompCommand.SEND) {
+            checkToken(accessor);
+            if (CollabDestinations.appNoteId(accessor.getDestination()) == null) {
+                throw new IllegalStateException("Destination not allowed: " + accessor.getDestination());
+            }
+        }
+        return message;
+    }
+
+    private void authenticate(StompHeaderAccessor accessor) {
+        String header = accessor.getFirstNativeHeader("Authorization");
+        if (header == null || !header.startsWith("Bearer ")) {
+            throw new IllegalStateException("Missing bearer token");
+        }
+        String jwt = header.substring(7);
+        String tokenHash = TokenHashes.sha256Hex(jwt);
+        if (tokenBlacklistService.isBlacklisted(tokenHash)) {
+            throw new IllegalStateException("Token is invalid or has been logged out");
+        }
+        VerifiedToken verified = verifiedTokenCache.verify(tokenHash, jwt);
+        if (verified == null) {
+            throw new IllegalStateException("Token is invalid or expired");
+        }
+        UserDetails userDetails = userDetailsService.loadUserByUsername(verified.username());
+        accessor.setUser(new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
+        Map<String, Object> attributes = accessor.getSessionAttributes();
+        if (attributes != null) {
+            attributes.put(TOKEN_HASH, tokenHash);
+            attributes.put(EXPIRES_AT, verified.expiresAt());
+        }
+    }
+
+    // 连接可能比令牌存活更久，每条消息重新检查有效期与注销状态（均为内存判断）
+    private void checkToken(StompHeaderAccessor accessor) {
+        Map<String, Object> attributes = accessor.getSessionAttributes();
+        if (attributes == null || !(attributes.get(TOKEN_HASH) instanceof String tokenHash)
+                || !(attributes.get(EXPIRES_AT) instanceof Long expiresAt)) {
+            throw new IllegalStateException("Not authenticated");
+        }
+        if (System.currentTimeMillis() >= expiresAt || tokenBlacklistService.isBlacklisted(tokenHash)) {
+            throw new IllegalStateException("Token is invalid or expired");
+        }
+    }
+
+    private void authorizeSubscribe(StompHeaderAccessor accessor) {
+        String destination = accessor.getDestination();
+        if (CollabDestinations.isErrorQueue(destination)) {
+            return;
+        }
+        Long noteId = CollabDestinations.topicNoteId(destination);
+        if (noteId == null) {
+            noteId = CollabDestinations.appNoteId(destination);
+        }
+        if (noteId == null) {
+            throw new IllegalStateException("Destination not allowed: " + destination);
+        }
+        if (!permissionEvaluator.canRead(noteId, userOf(accessor.getUser()).getId())) {
+            throw new IllegalStateException("You don't have permission to access this note");
+        }
+    }
+
+    public static AuthenticatedUser userOf(Principal principal) {
+        if (principal instanceof UsernamePasswordAuthenticationToken authentication
+                && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user;
+        }
+        throw new IllegalStateException("用户未登录");
+    }
+}
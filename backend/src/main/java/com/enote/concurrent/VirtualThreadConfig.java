@@ -0,0 +1,104 @@
+package com.enote.concurrent;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * 虚拟线程运行模式（profile: virtual-threads，需要 Java 21）
+ * Tomcat 请求处理和应用异步任务改为每个任务一个虚拟线程；数据源外包一层与连接池同样大小的信号量，
+ * 使请求线程数不再受平台线程池限制的同时，访问数据库的并发仍由连接池大小决定
+ */
+@Slf4j
+@Configuration
+@Profile("virtual-threads")
+public class VirtualThreadConfig {
+
+    private static final int HIKARI_DEFAULT_POOL_SIZE = 10;
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(VirtualThreads.newPerTaskExecutor("http-vt-"));
+    }
+
+    /**
+     * 替换 Spring Boot 默认的 applicationTaskExecutor（MVC 异步请求、@Async 使用）
+     */
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(VirtualThreads.newPerTaskExecutor("task-vt-"));
+    }
+
+    @Bean
+    public static BeanPostProcessor dataSourceBulkheadPostProcessor(
+            @Value("${virtual-threads.db-bulkhead.permits:0}") int permits,
+            @Value("${virtual-threads.db-bulkhead.acquire-timeout-ms:30000}") long acquireTimeoutMillis) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof BulkheadDataSource) {
+                    return bean;
+                }
+                int size = permits > 0 ? permits : poolSize(dataSource);
+                int carriers = VirtualThreads.carrierParallelism();
+                // MySQL 驱动在 synchronized 块内做网络 I/O，持有连接的虚拟线程可能固定载体线程
+                if (size > carriers) {
+                    log.warn("Database bulkhead allows {} concurrent connections but only {} carrier threads; "
+                            + "JDBC calls pinned inside synchronized blocks may stall other virtual threads, "
+                            + "consider -Djdk.virtualThreadScheduler.parallelism={}", size, carriers, size);
+                }
+                log.info("Database bulkhead enabled for '{}' with {} permits", beanName, size);
+                return new BulkheadDataSource(dataSource, size, acquireTimeoutMillis);
+            }
+        };
+    }
+
+    /**
+     * 数据库隔舱的可用许可与排队线程数（enote.db.bulkhead.*），与 hikaricp.connections.acquire 对照查看等待发生在哪一层
+     */
+    @Bean
+    public MeterBinder dataSourceBulkheadMetrics(ObjectProvider<DataSource> dataSources) {
+        return registry -> dataSources.orderedStream()
+                .filter(BulkheadDataSource.class::isInstance)
+                .map(BulkheadDataSource.class::cast)
+                .forEach(bulkhead -> {
+                    Gauge.builder("enote.db.bulkhead.available", bulkhead, BulkheadDataSource::getAvailablePermits)
+                            .description("Database bulkhead permits available").register(registry);
+                    Gauge.builder("enote.db.bulkhead.waiting", bulkhead, BulkheadDataSource::getQueueLength)
+                            .description("Threads waiting for a database bulkhead permit").register(registry);
+                    Gauge.builder("enote.db.bulkhead.max", bulkhead, BulkheadDataSource::getMaxPermits)
+                            .description("Database bulkhead size").register(registry);
+                });
+    }
+
+    private static int poolSize(DataSource dataSource) {
+        try {
+            // 数据源可能已被其他代理包装（如 SQL 分析），按 JDBC unwrap 取得连接池
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                // 未配置时 HikariCP 在连接池启动时才取默认值 10
+                int size = dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+                return size > 0 ? size : HIKARI_DEFAULT_POOL_SIZE;
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to inspect data source " + dataSource.getClass().getName(), e);
+        }
+        throw new IllegalStateException("Set virtual-threads.db-bulkhead.permits for data source "
+                + dataSource.getClass().getName());
+    }
+}
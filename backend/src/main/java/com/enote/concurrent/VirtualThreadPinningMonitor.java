@@ -0,0 +1,134 @@
+package com.enote.concurrent;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * 虚拟线程固定（pinning）诊断
+ * 通过 JFR 事件流监听 jdk.VirtualThreadPinned：虚拟线程在 synchronized 块或本地方法中阻塞超过阈值时，
+ * 每个调用位置首次出现打印一次调用栈，之后只计数并定期汇总，用于找出 JDBC 路径上固定载体线程的位置
+ */
+@Slf4j
+@Component
+@Profile("virtual-threads")
+@ConditionalOnProperty(name = "virtual-threads.pinning.enabled", havingValue = "true", matchIfMissing = true)
+public class VirtualThreadPinningMonitor {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int MAX_FRAMES = 12;
+    private static final int MAX_SITES = 1000;
+    private static final int REPORT_TOP = 10;
+
+    private final Duration threshold;
+    private final Map<String, Site> sites = new ConcurrentHashMap<>();
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(@Value("${virtual-threads.pinning.threshold-ms:20}") long thresholdMillis) {
+        this.threshold = Duration.ofMillis(thresholdMillis);
+    }
+
+    @PostConstruct
+    public void start() {
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+        log.info("Virtual thread pinning monitor started, threshold {} ms", threshold.toMillis());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    /**
+     * 定期汇总各调用位置的固定次数与累计时长，汇总后清零
+     */
+    @Scheduled(fixedDelayString = "${virtual-threads.pinning.report-interval-ms:300000}",
+               initialDelayString = "${virtual-threads.pinning.report-interval-ms:300000}")
+    public void report() {
+        List<Map.Entry<String, Site>> top = sites.entrySet().stream()
+                .filter(e -> e.getValue().count.sum() > 0)
+                .sorted(Comparator.comparingLong((Map.Entry<String, Site> e) -> e.getValue().nanos.sum()).reversed())
+                .limit(REPORT_TOP)
+                .collect(Collectors.toList());
+        if (top.isEmpty()) {
+            return;
+        }
+        StringBuilder summary = new StringBuilder("Virtual thread pinning summary:");
+        for (Map.Entry<String, Site> entry : top) {
+            Site site = entry.getValue();
+            summary.append("\n  ").append(site.count.sumThenReset()).append(" times, ")
+                    .append(Duration.ofNanos(site.nanos.sumThenReset()).toMillis()).append(" ms total at ")
+                    .append(entry.getKey());
+        }
+        log.warn(summary.toString());
+    }
+
+    private void onPinned(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        List<RecordedFrame> frames = stackTrace != null ? stackTrace.getFrames() : List.of();
+        String key = frames.stream().filter(RecordedFrame::isJavaFrame).limit(1)
+                .map(VirtualThreadPinningMonitor::describe).findFirst().orElse("<unknown>")
+                + " <- " + firstApplicationFrame(frames);
+
+        Site site = sites.get(key);
+        if (site == null) {
+            if (sites.size() >= MAX_SITES) {
+                return;
+            }
+            Site created = new Site();
+            site = sites.putIfAbsent(key, created);
+            if (site == null) {
+                site = created;
+                log.warn("Virtual thread pinned for {} ms:\n{}", event.getDuration().toMillis(), format(frames));
+            }
+        }
+        site.count.increment();
+        site.nanos.add(event.getDuration().toNanos());
+    }
+
+    private static String firstApplicationFrame(List<RecordedFrame> frames) {
+        return frames.stream()
+                .filter(frame -> frame.isJavaFrame() && frame.getMethod().getType().getName().startsWith("com.enote."))
+                .map(VirtualThreadPinningMonitor::describe)
+                .findFirst()
+                .orElse("<no application frame>");
+    }
+
+    private static String format(List<RecordedFrame> frames) {
+        return frames.stream().limit(MAX_FRAMES)
+                .map(frame -> "    at " + describe(frame))
+                .collect(Collectors.joining("\n"));
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                + ":" + frame.getLineNumber();
+    }
+
+    private static final class Site {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+    }
+}
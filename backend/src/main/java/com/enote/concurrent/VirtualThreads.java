@@ -0,0 +1,57 @@
+package com.enote.concurrent;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 虚拟线程工具
+ * 项目以 Java 17 编译，虚拟线程 API（Java 21）通过反射调用；在更低版本的运行时上启用时直接失败
+ */
+public final class VirtualThreads {
+
+    private static final int REQUIRED_FEATURE = 21;
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isSupported() {
+        return Runtime.version().feature() >= REQUIRED_FEATURE;
+    }
+
+    /**
+     * 每个任务一个虚拟线程的执行器，线程名为 prefix 加递增序号
+     * @throws IllegalStateException 运行时不支持虚拟线程
+     */
+    public static ExecutorService newPerTaskExecutor(String prefix) {
+        if (!isSupported()) {
+            throw new IllegalStateException("Virtual threads require Java " + REQUIRED_FEATURE
+                    + " or newer, running on " + Runtime.version());
+        }
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+            ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, factory);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to create virtual thread executor", e);
+        }
+    }
+
+    /**
+     * 虚拟线程调度器的载体线程数，与 JDK 的默认值保持一致
+     */
+    public static int carrierParallelism() {
+        String configured = System.getProperty("jdk.virtualThreadScheduler.parallelism");
+        if (configured != null) {
+            try {
+                return Integer.parseInt(configured.trim());
+            } catch (NumberFormatException ignored) {
+                // 非法值由 JDK 自行处理，这里退回默认值
+            }
+        }
+        return Runtime.getRuntime().availableProcessors();
+    }
+}
@@ -0,0 +1,209 @@
+package com.enote.controller;
+
+import com.enote.dto.AttachmentResponse;
+import com.enote.dto.AttachmentUploadRequest;
+import com.enote.dto.AttachmentUploadResponse;
+import com.enote.exception.UnsupportedMediaTypeException;
+import com.enote.service.AttachmentService;
+import com.enote.service.NoteETags;
+import com.enote.service.ThumbnailService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+
+@RestController
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")  // 允许跨域访问
+public class AttachmentController {
+
+    static final String UPLOAD_OFFSET = "Upload-Offset";
+
+    // Tomcat NIO 连接器的 sendfile 请求属性：设置后由容器通过 FileChannel.transferTo 直接写入 socket
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final String IMMUTABLE_CACHE = "private, max-age=31536000, immutable";
+
+    private final AttachmentService attachmentService;
+    private final ThumbnailService thumbnailService;
+
+    @GetMapping("/notes/{noteId}/attachments")
+    public ResponseEntity<List<AttachmentResponse>> getAttachments(@PathVariable Long noteId) {
+        return ResponseEntity.ok(attachmentService.getAttachments(noteId));
+    }
+
+    /**
+     * 一次性上传（受 multipart 大小限制），更大的文件使用分块上传
+     */
+    @PostMapping(value = "/notes/{noteId}/attachments", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<AttachmentResponse> upload(@PathVariable Long noteId,
+                                                     @RequestParam("file") MultipartFile file) throws IOException {
+        return ResponseEntity.ok(attachmentService.upload(noteId, file));
+    }
+
+    /**
+     * 创建分块上传会话，之后通过 PATCH 从 Upload-Offset 处续传
+     */
+    @PostMapping("/notes/{noteId}/attachments/uploads")
+    public ResponseEntity<AttachmentUploadResponse> createUpload(
+            @PathVariable Long noteId, @Valid @RequestBody AttachmentUploadRequest request) throws IOException {
+        return ResponseEntity.ok(attachmentService.createUpload(noteId, request));
+    }
+
+    /**
+     * 查询已接收的字节数，断线后从该偏移续传
+     */
+    @GetMapping("/attachments/uploads/{uploadId}")
+    public ResponseEntity<AttachmentUploadResponse> getUpload(@PathVariable String uploadId) throws IOException {
+        AttachmentUploadResponse upload = attachmentService.getUpload(uploadId);
+        return ResponseEntity.ok()
+                .header(UPLOAD_OFFSET, String.valueOf(upload.getOffset()))
+                .body(upload);
+    }
+
+    /**
+     * 追加一块数据，请求体为原始字节流，按流写入暂存区
+     */
+    @PatchMapping("/attachments/uploads/{uploadId}")
+    public ResponseEntity<AttachmentUploadResponse> appendUpload(
+            @PathVariable String uploadId, @RequestHeader(UPLOAD_OFFSET) long offset,
+            InputStream body) throws IOException {
+        AttachmentUploadResponse upload = attachmentService.appendUpload(uploadId, offset, body);
+        return ResponseEntity.ok()
+                .header(UPLOAD_OFFSET, String.valueOf(upload.getOffset()))
+                .body(upload);
+    }
+
+    @PostMapping("/attachments/uploads/{uploadId}/complete")
+    public ResponseEntity<AttachmentResponse> completeUpload(@PathVariable String uploadId) throws IOException {
+        return ResponseEntity.ok(attachmentService.completeUpload(uploadId));
+    }
+
+    @DeleteMapping("/attachments/uploads/{uploadId}")
+    public ResponseEntity<Void> abortUpload(@PathVariable String uploadId) throws IOException {
+        attachmentService.abortUpload(uploadId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/attachments/{id}")
+    public ResponseEntity<Void> deleteAttachment(@PathVariable Long id) {
+        attachmentService.deleteAttachment(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * 下载附件，支持单区间 Range 请求；内容按摘要寻址不可变，摘要即强 ETag
+     * 本地存储且容器支持时交给 sendfile 零拷贝输出，否则通过 FileChannel.transferTo 写出
+     */
+    @GetMapping("/attachments/{id}")
+    public void download(@PathVariable Long id, HttpServletRequest request,
+                         HttpServletResponse response) throws IOException {
+        AttachmentService.Content content = attachmentService.getContent(id);
+        String etag = "\"" + content.hash() + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, IMMUTABLE_CACHE);
+
+        if (NoteETags.matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long length = content.size();
+        long start = 0;
+        long end = length - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && (ifRange == null || ifRange.equals(etag))) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(range);
+                // 多区间请求按完整内容返回（RFC 9110 允许忽略 Range）
+                if (ranges.size() == 1) {
+                    start = ranges.get(0).getRangeStart(length);
+                    end = ranges.get(0).getRangeEnd(length);
+                }
+            } catch (IllegalArgumentException e) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (ranges.size() == 1) {
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        long count = end - start + 1;
+        response.setContentType(content.fileType() != null ? content.fileType() : MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(content.fileName(), StandardCharsets.UTF_8).build().toString());
+        response.setContentLengthLong(count);
+        if (count <= 0) {
+            return;
+        }
+
+        Optional<Path> path = attachmentService.localPath(content);
+        if (path.isPresent() && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, path.get().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        attachmentService.transferTo(content, start, count, Channels.newChannel(response.getOutputStream()));
+    }
+
+    /**
+     * 图片附件的缩略图，size 为期望的长边像素，按配置档位取整；缩略图由原图内容决定，可长期缓存
+     */
+    @GetMapping("/attachments/{id}/thumbnail")
+    public void thumbnail(@PathVariable Long id, @RequestParam(defaultValue = "512") int size,
+                          HttpServletRequest request, HttpServletResponse response) throws IOException {
+        AttachmentService.Content content = attachmentService.getContent(id);
+        if (!thumbnailService.supports(content.fileType())) {
+            throw new UnsupportedMediaTypeException("Attachment is not an image");
+        }
+        int variant = thumbnailService.normalizeSize(size);
+        String etag = "\"" + content.hash() + "-" + variant + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, IMMUTABLE_CACHE);
+        if (NoteETags.matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        ThumbnailService.Thumbnail thumbnail = thumbnailService.getThumbnail(content.hash(), variant);
+        response.setContentType(thumbnail.contentType());
+        response.setContentLengthLong(thumbnail.size());
+        Files.copy(thumbnail.path(), response.getOutputStream());
+    }
+
+    // 缩略图队列已满或生成超时：返回 503，客户端稍后重试
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<String> handleThumbnailBusy(RejectedExecutionException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "2")
+                .body("Thumbnail is being generated, retry later");
+    }
+}
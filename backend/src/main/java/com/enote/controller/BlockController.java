@@ -0,0 +1,34 @@
+package com.enote.controller;
+
+import com.enote.dto.BlockPatchRequest;
+import com.enote.dto.BlockPatchResponse;
+import com.enote.dto.BlockResponse;
+import com.enote.service.BlockService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/notes/{noteId}/blocks")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")  // 允许跨域访问
+public class BlockController {
+
+    private final BlockService blockService;
+
+    @GetMapping
+    public ResponseEntity<List<BlockResponse>> getBlocks(@PathVariable Long noteId) {
+        return ResponseEntity.ok(blockService.getBlocks(noteId));
+    }
+
+    /**
+     * 增量保存：insert/update/move/delete 操作只写入涉及的区块
+     */
+    @PatchMapping
+    public ResponseEntity<BlockPatchResponse> patchBlocks(@PathVariable Long noteId,
+                                                          @RequestBody BlockPatchRequest request) {
+        return ResponseEntity.ok(blockService.applyPatch(noteId, request));
+    }
+}
@@ -0,0 +1,60 @@
+package com.enote.controller;
+
+import com.enote.collab.CollabDestinations;
+import com.enote.collab.StompAuthChannelInterceptor;
+import com.enote.dto.CollabEvent;
+import com.enote.dto.CollabOpsMessage;
+import com.enote.dto.CollabPresenceMessage;
+import com.enote.dto.CollabSnapshot;
+import com.enote.service.CollaborationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.annotation.SendToUser;
+import org.springframework.messaging.simp.annotation.SubscribeMapping;
+import org.springframework.stereotype.Controller;
+
+import java.security.Principal;
+
+/**
+ * 协作编辑的 STOMP 消息入口，目的地约定见 {@link CollabDestinations}
+ * 客户端先订阅 /topic/notes/{id} 加入会话，再订阅 /app/notes/{id}/snapshot 读取快照
+ */
+@Controller
+@RequiredArgsConstructor
+public class CollaborationController {
+
+    private final CollaborationService collaborationService;
+
+    @SubscribeMapping("/notes/{noteId}/snapshot")
+    public CollabSnapshot snapshot(@DestinationVariable Long noteId) {
+        return collaborationService.snapshot(noteId);
+    }
+
+    @MessageMapping("/notes/{noteId}/ops")
+    public void applyOperations(@DestinationVariable Long noteId, @Payload CollabOpsMessage message,
+                                @Header(SimpMessageHeaderAccessor.SESSION_ID_HEADER) String connectionId,
+                                Principal principal) {
+        collaborationService.applyOperations(noteId, connectionId,
+                StompAuthChannelInterceptor.userOf(principal), message);
+    }
+
+    @MessageMapping("/notes/{noteId}/presence")
+    public void updatePresence(@DestinationVariable Long noteId, @Payload CollabPresenceMessage message,
+                               @Header(SimpMessageHeaderAccessor.SESSION_ID_HEADER) String connectionId) {
+        collaborationService.updatePresence(noteId, connectionId, message.getActiveBlockId());
+    }
+
+    @MessageExceptionHandler
+    @SendToUser(destinations = CollabDestinations.ERRORS, broadcast = false)
+    public CollabEvent handleError(RuntimeException e) {
+        return CollabEvent.builder()
+                .type(CollabEvent.Type.ERROR)
+                .message(e.getMessage())
+                .build();
+    }
+}
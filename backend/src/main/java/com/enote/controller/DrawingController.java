@@ -0,0 +1,126 @@
+package com.enote.controller;
+
+import com.enote.drawing.DrawingSvg;
+import com.enote.dto.DrawingRequest;
+import com.enote.dto.DrawingResponse;
+import com.enote.dto.DrawingStrokesRequest;
+import com.enote.dto.DrawingStrokesResponse;
+import com.enote.service.DrawingService;
+import com.enote.service.NoteETags;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")  // 允许跨域访问
+public class DrawingController {
+
+    private static final String SVG_CONTENT_TYPE = "image/svg+xml";
+    // SVG 可以内嵌脚本，直接打开时禁止执行脚本和加载外部资源
+    private static final String SVG_CONTENT_SECURITY_POLICY = "default-src 'none'; style-src 'unsafe-inline'";
+
+    private final DrawingService drawingService;
+
+    @GetMapping("/notes/{noteId}/drawings")
+    public ResponseEntity<List<DrawingResponse>> getDrawings(@PathVariable Long noteId) {
+        return ResponseEntity.ok(drawingService.getDrawings(noteId));
+    }
+
+    @PostMapping("/notes/{noteId}/drawings")
+    public ResponseEntity<DrawingResponse> createDrawing(@PathVariable Long noteId,
+                                                         @Valid @RequestBody DrawingRequest request) {
+        return ResponseEntity.ok(drawingService.createDrawing(noteId, request));
+    }
+
+    @GetMapping("/drawings/{id}")
+    public ResponseEntity<DrawingResponse> getDrawing(@PathVariable Long id) {
+        return ResponseEntity.ok(drawingService.getDrawing(id));
+    }
+
+    @PutMapping("/drawings/{id}")
+    public ResponseEntity<DrawingResponse> replaceDrawing(@PathVariable Long id,
+                                                          @Valid @RequestBody DrawingRequest request) {
+        return ResponseEntity.ok(drawingService.replaceDrawing(id, request));
+    }
+
+    @DeleteMapping("/drawings/{id}")
+    public ResponseEntity<Void> deleteDrawing(@PathVariable Long id) {
+        drawingService.deleteDrawing(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * 追加笔画，只上传新增的笔画，不重新提交整篇文档
+     */
+    @PostMapping("/drawings/{id}/strokes")
+    public ResponseEntity<DrawingResponse> appendStrokes(@PathVariable Long id,
+                                                         @Valid @RequestBody DrawingStrokesRequest request) {
+        return ResponseEntity.ok(drawingService.appendStrokes(id, request));
+    }
+
+    /**
+     * 增量拉取序号大于 after 的笔画，resync 为 true 时需重新读取整篇 SVG
+     */
+    @GetMapping("/drawings/{id}/strokes")
+    public ResponseEntity<DrawingStrokesResponse> getStrokes(@PathVariable Long id,
+                                                             @RequestParam(defaultValue = "0") long after) {
+        return ResponseEntity.ok(drawingService.getStrokes(id, after));
+    }
+
+    /**
+     * 整篇 SVG，以最新笔画序号作为 ETag；没有未合并的笔画且客户端接受 gzip 时直接返回存储的压缩数据
+     */
+    @GetMapping("/drawings/{id}/svg")
+    public ResponseEntity<byte[]> getSvg(@PathVariable Long id,
+                                         @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                         @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        String etag = NoteETags.of(id, drawingService.getDrawing(id).getLastSeq());
+        if (NoteETags.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+
+        DrawingService.Svg svg = drawingService.getSvg(id);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(NoteETags.of(id, svg.lastSeq()))
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .header(HttpHeaders.CONTENT_TYPE, SVG_CONTENT_TYPE)
+                .header("Content-Security-Policy", SVG_CONTENT_SECURITY_POLICY);
+        if (!svg.gzipped()) {
+            return response.body(svg.data());
+        }
+        if (acceptsGzip(acceptEncoding)) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(svg.data());
+        }
+        return response.body(DrawingSvg.gunzip(svg.data()).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String candidate : acceptEncoding.split(",")) {
+            String[] parts = candidate.trim().split(";");
+            if (!parts[0].trim().equalsIgnoreCase("gzip")) {
+                continue;
+            }
+            // gzip;q=0 表示明确拒绝
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=") && param.substring(2).trim().matches("0(\\.0*)?")) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+}
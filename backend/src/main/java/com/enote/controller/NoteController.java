@@ -1,30 +1,91 @@
 package com.enote.controller;
 
+import com.enote.dto.CursorPage;
+import com.enote.dto.NoteDraftResponse;
 import com.enote.dto.NoteRequest;
 import com.enote.dto.NoteResponse;
+import com.enote.dto.NoteSearchResponse;
+import com.enote.dto.NoteSummaryResponse;
+import com.enote.service.NoteDraftService;
+import com.enote.service.NoteETags;
+import com.enote.service.NoteSearchService;
 import com.enote.service.NoteService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.function.Function;
+import java.util.function.Supplier;
+
 @RestController
 @RequestMapping("/notes")
 @RequiredArgsConstructor
 @CrossOrigin(origins = "*")  // 允许跨域访问
 public class NoteController {
 
+    private static final String VIEW_FULL = "full";
+    private static final String VIEW_SUMMARY = "summary";
+
     private final NoteService noteService;
+    private final NoteSearchService noteSearchService;
+    private final NoteDraftService noteDraftService;
 
     @PostMapping
     public ResponseEntity<NoteResponse> createNote(@RequestBody NoteRequest request) {
         return ResponseEntity.ok(noteService.createNote(request));
     }
 
+    /**
+     * 携带 If-Match 时只在版本一致时更新，否则返回 412
+     */
     @PutMapping("/{id}")
-    public ResponseEntity<NoteResponse> updateNote(@PathVariable Long id, @RequestBody NoteRequest request) {
-        return ResponseEntity.ok(noteService.updateNote(id, request));
+    public ResponseEntity<NoteResponse> updateNote(
+            @PathVariable Long id, @RequestBody NoteRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion = ifMatch != null ? NoteETags.expectedVersion(ifMatch, id) : null;
+        NoteResponse note = noteService.updateNote(id, request, expectedVersion);
+        return ResponseEntity.ok().eTag(NoteETags.of(note)).body(note);
+    }
+
+    /**
+     * 自动保存：草稿写入服务端日志后返回 202，连续的草稿合并后在空闲或超过最长延迟时写回；
+     * If-Match 只在开始新草稿时校验
+     */
+    @PutMapping("/{id}/draft")
+    public ResponseEntity<NoteDraftResponse> saveDraft(
+            @PathVariable Long id, @RequestBody NoteRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion = ifMatch != null ? NoteETags.expectedVersion(ifMatch, id) : null;
+        return ResponseEntity.accepted().body(noteDraftService.saveDraft(id, request, expectedVersion));
+    }
+
+    /**
+     * 取回尚未写回的草稿，写回冲突时用于恢复内容
+     */
+    @GetMapping("/{id}/draft")
+    public ResponseEntity<NoteDraftResponse> getDraft(@PathVariable Long id) {
+        return ResponseEntity.ok(noteDraftService.getDraft(id));
+    }
+
+    /**
+     * 立即写回草稿并返回最新笔记；草稿与笔记的新版本冲突时返回 412
+     */
+    @PostMapping("/{id}/draft/commit")
+    public ResponseEntity<NoteResponse> commitDraft(@PathVariable Long id) {
+        noteDraftService.commitDraft(id);
+        NoteResponse note = noteService.getNoteById(id);
+        return ResponseEntity.ok().eTag(NoteETags.of(note)).body(note);
+    }
+
+    @DeleteMapping("/{id}/draft")
+    public ResponseEntity<Void> discardDraft(@PathVariable Long id) {
+        noteDraftService.discardDraft(id);
+        return ResponseEntity.noContent().build();
     }
 
     @DeleteMapping("/{id}")
@@ -33,25 +94,121 @@ public class NoteController {
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * 携带 If-None-Match 时先只查询版本号和引用的分类、标签，未变化则返回 304 而不读取正文；
+     * 读取前先写回缓冲中的自动保存草稿
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<NoteResponse> getNoteById(@PathVariable Long id) {
-        return ResponseEntity.ok(noteService.getNoteById(id));
+    public ResponseEntity<NoteResponse> getNoteById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        noteDraftService.flushPending(id);
+        if (ifNoneMatch != null) {
+            String etag = noteService.getNoteETag(id);
+            if (NoteETags.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+        }
+        NoteResponse note = noteService.getNoteById(id);
+        return ResponseEntity.ok().eTag(NoteETags.of(note)).body(note);
     }
 
+    /**
+     * 列表接口支持 view=summary，仅返回标题、摘要等轻量字段
+     */
     @GetMapping
-    public ResponseEntity<Page<NoteResponse>> getNotes(Pageable pageable) {
-        return ResponseEntity.ok(noteService.getNotes(pageable));
+    public ResponseEntity<?> getNotes(
+            @RequestParam(defaultValue = VIEW_FULL) String view, Pageable pageable,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return listResponse(view, ifNoneMatch,
+                withReferences -> noteService.getNotesVersionTag(pageable, withReferences),
+                () -> noteService.getNoteSummaries(pageable),
+                () -> noteService.getNotes(pageable));
+    }
+
+    /**
+     * 游标分页接口，适用于无限滚动；cursor 取自上一页响应的 nextCursor
+     */
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPage<NoteSummaryResponse>> scrollNotes(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        return ResponseEntity.ok(noteService.scrollNotes(cursor, size, withTotal));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<Page<NoteSearchResponse>> searchNotes(@RequestParam("q") String query, Pageable pageable) {
+        return ResponseEntity.ok(noteSearchService.search(query, pageable));
     }
 
     @GetMapping("/category/{categoryId}")
-    public ResponseEntity<Page<NoteResponse>> getNotesByCategory(
-            @PathVariable Long categoryId, Pageable pageable) {
-        return ResponseEntity.ok(noteService.getNotesByCategory(categoryId, pageable));
+    public ResponseEntity<?> getNotesByCategory(
+            @PathVariable Long categoryId,
+            @RequestParam(defaultValue = VIEW_FULL) String view, Pageable pageable,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return listResponse(view, ifNoneMatch,
+                withReferences -> noteService.getNotesByCategoryVersionTag(categoryId, pageable, withReferences),
+                () -> noteService.getNoteSummariesByCategory(categoryId, pageable),
+                () -> noteService.getNotesByCategory(categoryId, pageable));
+    }
+
+    @GetMapping("/category/{categoryId}/scroll")
+    public ResponseEntity<CursorPage<NoteSummaryResponse>> scrollNotesByCategory(
+            @PathVariable Long categoryId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        return ResponseEntity.ok(noteService.scrollNotesByCategory(categoryId, cursor, size, withTotal));
     }
 
     @GetMapping("/tag/{tagId}")
-    public ResponseEntity<Page<NoteResponse>> getNotesByTag(
-            @PathVariable Long tagId, Pageable pageable) {
-        return ResponseEntity.ok(noteService.getNotesByTag(tagId, pageable));
+    public ResponseEntity<?> getNotesByTag(
+            @PathVariable Long tagId,
+            @RequestParam(defaultValue = VIEW_FULL) String view, Pageable pageable,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return listResponse(view, ifNoneMatch,
+                withReferences -> noteService.getNotesByTagVersionTag(tagId, pageable, withReferences),
+                () -> noteService.getNoteSummariesByTag(tagId, pageable),
+                () -> noteService.getNotesByTag(tagId, pageable));
+    }
+
+    @GetMapping("/tag/{tagId}/scroll")
+    public ResponseEntity<CursorPage<NoteSummaryResponse>> scrollNotesByTag(
+            @PathVariable Long tagId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        return ResponseEntity.ok(noteService.scrollNotesByTag(tagId, cursor, size, withTotal));
+    }
+
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleConcurrentUpdate(ObjectOptimisticLockingFailureException e) {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body("Note has been modified");
+    }
+
+    /**
+     * 列表页的条件请求：携带 If-None-Match 时先用版本查询计算 ETag，未变化则返回 304；
+     * 完整表示内嵌分类名和标签名，其 ETag 同时计入引用签名
+     */
+    private ResponseEntity<?> listResponse(String view, String ifNoneMatch, Function<Boolean, String> versionTag,
+                                           Supplier<Page<NoteSummaryResponse>> summaries,
+                                           Supplier<Page<NoteResponse>> notes) {
+        String normalizedView = VIEW_SUMMARY.equals(view) ? VIEW_SUMMARY : VIEW_FULL;
+        if (ifNoneMatch != null) {
+            String etag = NoteETags.ofPage(normalizedView, versionTag.apply(VIEW_FULL.equals(normalizedView)));
+            if (NoteETags.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+        }
+        if (VIEW_SUMMARY.equals(normalizedView)) {
+            Page<NoteSummaryResponse> page = summaries.get();
+            String token = NoteETags.pageToken(page, NoteSummaryResponse::getId, NoteSummaryResponse::getVersion);
+            return ResponseEntity.ok().eTag(NoteETags.ofPage(normalizedView, token)).body(page);
+        }
+        Page<NoteResponse> page = notes.get();
+        String token = NoteETags.pageToken(page, NoteResponse::getId, NoteResponse::getVersion,
+                NoteETags::references);
+        return ResponseEntity.ok().eTag(NoteETags.ofPage(normalizedView, token)).body(page);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,35 @@
+package com.enote.controller;
+
+import com.enote.dto.NoteRevisionDiffResponse;
+import com.enote.dto.NoteRevisionResponse;
+import com.enote.service.NoteRevisionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/notes/{noteId}/revisions")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")  // 允许跨域访问
+public class NoteRevisionController {
+
+    private final NoteRevisionService noteRevisionService;
+
+    @GetMapping
+    public ResponseEntity<List<NoteRevisionResponse>> getRevisions(@PathVariable Long noteId) {
+        return ResponseEntity.ok(noteRevisionService.getRevisions(noteId));
+    }
+
+    @GetMapping("/{revision}")
+    public ResponseEntity<NoteRevisionResponse> getRevision(@PathVariable Long noteId, @PathVariable Integer revision) {
+        return ResponseEntity.ok(noteRevisionService.getRevision(noteId, revision));
+    }
+
+    @GetMapping("/diff")
+    public ResponseEntity<NoteRevisionDiffResponse> diff(@PathVariable Long noteId,
+                                                         @RequestParam Integer from, @RequestParam Integer to) {
+        return ResponseEntity.ok(noteRevisionService.diff(noteId, from, to));
+    }
+}
@@ -0,0 +1,48 @@
+package com.enote.controller;
+
+import com.enote.dto.NoteShareRequest;
+import com.enote.dto.NoteShareResponse;
+import com.enote.dto.SharedNoteResponse;
+import com.enote.service.NoteShareService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/notes")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")  // 允许跨域访问
+public class NoteShareController {
+
+    private final NoteShareService noteShareService;
+
+    /**
+     * 共享给当前用户的笔记
+     */
+    @GetMapping("/shared")
+    public ResponseEntity<Page<SharedNoteResponse>> getSharedWithMe(Pageable pageable) {
+        return ResponseEntity.ok(noteShareService.getSharedWithMe(pageable));
+    }
+
+    @GetMapping("/{noteId}/shares")
+    public ResponseEntity<List<NoteShareResponse>> getShares(@PathVariable Long noteId) {
+        return ResponseEntity.ok(noteShareService.getShares(noteId));
+    }
+
+    @PutMapping("/{noteId}/shares")
+    public ResponseEntity<NoteShareResponse> share(@PathVariable Long noteId,
+                                                   @Valid @RequestBody NoteShareRequest request) {
+        return ResponseEntity.ok(noteShareService.share(noteId, request));
+    }
+
+    @DeleteMapping("/{noteId}/shares/{userId}")
+    public ResponseEntity<Void> revoke(@PathVariable Long noteId, @PathVariable Long userId) {
+        noteShareService.revoke(noteId, userId);
+        return ResponseEntity.noContent().build();
+    }
+}
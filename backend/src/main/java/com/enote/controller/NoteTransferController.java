@@ -0,0 +1,42 @@
+package com.enote.controller;
+
+import com.enote.dto.NoteImportResult;
+import com.enote.service.NoteTransferService;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/notes")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")  // 允许跨域访问
+public class NoteTransferController {
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final NoteTransferService noteTransferService;
+
+    /**
+     * 导出当前用户的全部笔记，边查询边写出，不在内存中缓存结果
+     */
+    @GetMapping("/export")
+    public void exportNotes(HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"notes.ndjson\"");
+        noteTransferService.exportNotes(response.getOutputStream());
+    }
+
+    /**
+     * 导入 NDJSON 格式的笔记，请求体按行流式解析
+     */
+    @PostMapping("/import")
+    public ResponseEntity<NoteImportResult> importNotes(InputStream body) throws IOException {
+        return ResponseEntity.ok(noteTransferService.importNotes(body));
+    }
+}
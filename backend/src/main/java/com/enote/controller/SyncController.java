@@ -0,0 +1,25 @@
+package com.enote.controller;
+
+import com.enote.dto.SyncResponse;
+import com.enote.service.SyncService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/sync")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")  // 允许跨域访问
+public class SyncController {
+
+    private final SyncService syncService;
+
+    /**
+     * 拉取游标之后的变更；首次同步 since 传 0，之后传上次响应中的 cursor
+     */
+    @GetMapping
+    public ResponseEntity<SyncResponse> pull(@RequestParam(defaultValue = "0") long since,
+                                             @RequestParam(defaultValue = "500") int limit) {
+        return ResponseEntity.ok(syncService.pull(since, limit));
+    }
+}
@@ -0,0 +1,111 @@
+package com.enote.drawing;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 绘图 SVG 渲染
+ * 每条笔画渲染为一个 path 元素，id 为 "s" + 序号；追加的笔画插入到文档末尾的 &lt;/svg&gt; 之前
+ */
+public final class DrawingSvg {
+
+    private static final String CLOSING_TAG = "</svg>";
+
+    private DrawingSvg() {
+    }
+
+    public static String empty(int width, int height) {
+        return "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"" + width + "\" height=\"" + height
+                + "\" viewBox=\"0 0 " + width + " " + height + "\">" + CLOSING_TAG;
+    }
+
+    /**
+     * 渲染连续序号的一组笔画
+     * @param strokes 笔画
+     * @param firstSeq 第一条笔画的序号
+     */
+    public static String render(List<StrokeCodec.Stroke> strokes, long firstSeq) {
+        StringBuilder svg = new StringBuilder();
+        long seq = firstSeq;
+        for (StrokeCodec.Stroke stroke : strokes) {
+            appendPath(svg, stroke, seq++);
+        }
+        return svg.toString();
+    }
+
+    public static String append(String document, String paths) {
+        if (paths.isEmpty()) {
+            return document;
+        }
+        int end = document.lastIndexOf(CLOSING_TAG);
+        if (end < 0) {
+            return document + paths;
+        }
+        return document.substring(0, end) + paths + document.substring(end);
+    }
+
+    public static byte[] gzip(String document) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.max(64, document.length() / 4));
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(document.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static String gunzip(byte[] data) {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Corrupt drawing snapshot", e);
+        }
+    }
+
+    private static void appendPath(StringBuilder svg, StrokeCodec.Stroke stroke, long seq) {
+        float[] points = stroke.points();
+        svg.append("<path id=\"s").append(seq).append("\" d=\"");
+        for (int i = 0; i + 1 < points.length; i += 2) {
+            svg.append(i == 0 ? 'M' : 'L');
+            appendCoordinate(svg, points[i]);
+            svg.append(' ');
+            appendCoordinate(svg, points[i + 1]);
+        }
+        // 单点笔画补一段零长度线段，配合圆形线帽渲染为圆点
+        if (points.length == 2) {
+            svg.append("l0 0");
+        }
+        int argb = stroke.argb();
+        svg.append("\" fill=\"none\" stroke=\"#")
+                .append(String.format("%06x", argb & 0xFFFFFF)).append('"');
+        int alpha = argb >>> 24;
+        if (alpha != 0xFF) {
+            svg.append(" stroke-opacity=\"").append(String.format(Locale.ROOT, "%.3f", alpha / 255.0)).append('"');
+        }
+        svg.append(" stroke-width=\"").append(stroke.width())
+                .append("\" stroke-linecap=\"round\" stroke-linejoin=\"round\"/>");
+    }
+
+    // 坐标已按 1/10 像素量化，输出一位小数，整数省略小数部分
+    private static void appendCoordinate(StringBuilder svg, float value) {
+        int scaled = Math.round(value * StrokeCodec.COORDINATE_SCALE);
+        if (scaled < 0) {
+            svg.append('-');
+            scaled = -scaled;
+        }
+        svg.append(scaled / StrokeCodec.COORDINATE_SCALE);
+        int fraction = scaled % StrokeCodec.COORDINATE_SCALE;
+        if (fraction != 0) {
+            svg.append('.').append(fraction);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.enote.drawing;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 笔画二进制编解码
+ * 一次追加的若干笔画编码为一段：颜色为 4 字节 ARGB，线宽按 1/100 像素、坐标按 1/10 像素量化，
+ * 坐标以相邻点差值的 zigzag 变长整数存储；编码结果较大时整段再经 Deflate 压缩
+ */
+public final class StrokeCodec {
+
+    private static final int FORMAT_RAW = 0;
+    private static final int FORMAT_DEFLATE = 1;
+    // 较短的段压缩收益很小，直接保存原始编码
+    private static final int DEFLATE_THRESHOLD = 512;
+
+    static final int COORDINATE_SCALE = 10;
+    static final int WIDTH_SCALE = 100;
+
+    private StrokeCodec() {
+    }
+
+    /**
+     * 单条笔画
+     * @param argb 颜色
+     * @param width 线宽
+     * @param points 依次排列的 x, y 坐标
+     */
+    public record Stroke(int argb, float width, float[] points) {
+    }
+
+    public static byte[] encode(List<Stroke> strokes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeVarint(out, strokes.size());
+        for (Stroke stroke : strokes) {
+            int argb = stroke.argb();
+            out.write(argb >>> 24);
+            out.write(argb >>> 16);
+            out.write(argb >>> 8);
+            out.write(argb);
+            writeVarint(out, Math.round(stroke.width() * WIDTH_SCALE));
+            float[] points = stroke.points();
+            writeVarint(out, points.length / 2);
+            int x = 0;
+            int y = 0;
+            for (int i = 0; i + 1 < points.length; i += 2) {
+                int qx = Math.round(points[i] * COORDINATE_SCALE);
+                int qy = Math.round(points[i + 1] * COORDINATE_SCALE);
+                writeVarint(out, zigzag(qx - x));
+                writeVarint(out, zigzag(qy - y));
+                x = qx;
+                y = qy;
+            }
+        }
+        byte[] raw = out.toByteArray();
+        if (raw.length >= DEFLATE_THRESHOLD) {
+            byte[] compressed = deflate(raw);
+            if (compressed.length < raw.length) {
+                return withFormat(FORMAT_DEFLATE, compressed);
+            }
+        }
+        return withFormat(FORMAT_RAW, raw);
+    }
+
+    public static List<Stroke> decode(byte[] data) {
+        if (data.length == 0) {
+            throw new IllegalArgumentException("Corrupt stroke data: empty");
+        }
+        byte[] body = Arrays.copyOfRange(data, 1, data.length);
+        if (data[0] == FORMAT_DEFLATE) {
+            body = inflate(body);
+        } else if (data[0] != FORMAT_RAW) {
+            throw new IllegalArgumentException("Corrupt stroke data: unknown format " + data[0]);
+        }
+
+        int[] pos = {0};
+        int count = readVarint(body, pos);
+        List<Stroke> strokes = new ArrayList<>(count);
+        for (int s = 0; s < count; s++) {
+            int argb = (body[pos[0]] & 0xFF) << 24 | (body[pos[0] + 1] & 0xFF) << 16
+                    | (body[pos[0] + 2] & 0xFF) << 8 | (body[pos[0] + 3] & 0xFF);
+            pos[0] += 4;
+            float width = (float) readVarint(body, pos) / WIDTH_SCALE;
+            int pointCount = readVarint(body, pos);
+            float[] points = new float[pointCount * 2];
+            int x = 0;
+            int y = 0;
+            for (int i = 0; i < points.length; i += 2) {
+                x += unzigzag(readVarint(body, pos));
+                y += unzigzag(readVarint(body, pos));
+                points[i] = (float) x / COORDINATE_SCALE;
+                points[i + 1] = (float) y / COORDINATE_SCALE;
+            }
+            strokes.add(new Stroke(argb, width, points));
+        }
+        return strokes;
+    }
+
+    private static byte[] withFormat(int format, byte[] body) {
+        byte[] data = new byte[body.length + 1];
+        data[0] = (byte) format;
+        System.arraycopy(body, 0, data, 1, body.length);
+        return data;
+    }
+
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarint(byte[] data, int[] pos) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data[pos[0]++];
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 2));
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(buffer);
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] data) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 3);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0 && !inflater.finished() && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalArgumentException("Corrupt stroke data: truncated");
+                }
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Corrupt stroke data", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
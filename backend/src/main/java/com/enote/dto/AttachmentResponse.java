@@ -0,0 +1,22 @@
+package com.enote.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttachmentResponse {
+    private Long id;
+    private Long noteId;
+    private String fileName;
+    private String fileType;
+    private Integer fileSize;
+    private String sha256;
+    private LocalDateTime uploadedAt;
+}
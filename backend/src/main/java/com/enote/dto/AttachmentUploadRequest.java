@@ -0,0 +1,29 @@
+package com.enote.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 创建分块上传的请求，需预先声明文件总大小
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttachmentUploadRequest {
+
+    @NotBlank(message = "文件名不能为空")
+    @Size(max = 255, message = "文件名长度不能超过255个字符")
+    private String fileName;
+
+    @Size(max = 50, message = "文件类型长度不能超过50个字符")
+    private String fileType;
+
+    @NotNull(message = "文件大小不能为空")
+    @PositiveOrZero(message = "文件大小不能为负数")
+    private Long size;
+}
@@ -0,0 +1,20 @@
+package com.enote.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 分块上传的进度；offset 为服务端已接收的字节数，客户端从该位置续传
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttachmentUploadResponse {
+    private String uploadId;
+    private Long noteId;
+    private long offset;
+    private long size;
+}
@@ -0,0 +1,55 @@
+package com.enote.dto;
+
+import com.enote.entity.Block;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 区块增量编辑请求
+ * 操作按顺序在同一事务中执行，任一操作失败则整体回滚
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BlockPatchRequest {
+
+    @Builder.Default
+    private List<Operation> ops = new ArrayList<>();
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Operation {
+        private OperationType op;
+
+        /**
+         * 被更新/移动/删除的区块ID
+         */
+        private Long id;
+
+        /**
+         * 插入/移动的目标位置：放在该区块之后；与 afterRef 均为空时放在最前
+         */
+        private Long afterId;
+
+        /**
+         * 插入操作的客户端临时标识，后续操作可通过 afterRef 引用本次新插入的区块
+         */
+        private String ref;
+        private String afterRef;
+
+        private Block.BlockType blockType;
+        private String content;
+    }
+
+    public enum OperationType {
+        INSERT, UPDATE, MOVE, DELETE
+    }
+}
@@ -0,0 +1,24 @@
+package com.enote.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 区块增量编辑结果
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BlockPatchResponse {
+    /**
+     * 与请求中的操作一一对应的区块ID（插入操作为新区块的ID）
+     */
+    private List<Long> blockIds;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,21 @@
+package com.enote.dto;
+
+import com.enote.entity.Block;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BlockResponse {
+    private Long id;
+    private Block.BlockType blockType;
+    private String content;
+    private Integer orderNum;
+    private LocalDateTime updatedAt;
+}
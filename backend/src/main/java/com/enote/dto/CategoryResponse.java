@@ -22,4 +22,5 @@ public class CategoryResponse {
     private String description;
     private LocalDateTime createdAt;
     private String createdBy; // 创建者用户名
+    private Integer noteCount; // 未删除的笔记数
 }
\ No newline at end of file
@@ -0,0 +1,57 @@
+package com.enote.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 协作编辑中服务端推送的事件
+ * OPS 为已按会话顺序应用的操作，发送方通过 connectionId 与 seq 确认自己的操作；
+ * PRESENCE 为当前在线的协作者；RESYNC 要求客户端重新读取快照；ERROR 只发送给出错的连接
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CollabEvent {
+
+    private Type type;
+    private Long version;
+    private Long userId;
+    private String connectionId;
+    private Long seq;
+    private List<BlockPatchRequest.Operation> ops;
+
+    /**
+     * 与 ops 一一对应的区块ID（插入操作为新区块的ID）
+     */
+    private List<Long> blockIds;
+
+    /**
+     * 更新的区块在发送方的 baseVersion 之后已被其他连接修改，本次按后写入者生效
+     */
+    private Boolean conflict;
+
+    private List<Participant> participants;
+    private String message;
+
+    public enum Type {
+        OPS, PRESENCE, RESYNC, ERROR
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Participant {
+        private String connectionId;
+        private Long userId;
+        private String username;
+        private boolean canEdit;
+        private Long activeBlockId;
+    }
+}
@@ -0,0 +1,21 @@
+package com.enote.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 协作编辑中客户端发送的一组区块操作
+ * seq 在同一连接内从 1 开始连续递增，服务端按 seq 顺序应用；baseVersion 为客户端发出时已知的会话版本
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CollabOpsMessage {
+    private Long seq;
+    private Long baseVersion;
+    private List<BlockPatchRequest.Operation> ops = new ArrayList<>();
+}
@@ -0,0 +1,15 @@
+package com.enote.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 协作编辑中客户端上报的光标位置
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CollabPresenceMessage {
+    private Long activeBlockId;
+}
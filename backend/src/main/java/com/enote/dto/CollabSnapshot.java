@@ -0,0 +1,21 @@
+package com.enote.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 加入协作时的笔记快照，包含尚未写入数据库的编辑；之后的变更按 version 顺序通过 OPS 事件推送
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CollabSnapshot {
+    private Long version;
+    private List<BlockResponse> blocks;
+    private List<CollabEvent.Participant> participants;
+}
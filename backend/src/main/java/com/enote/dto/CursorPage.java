@@ -0,0 +1,23 @@
+package com.enote.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 游标分页响应
+ * 下一页通过 nextCursor 获取；totalElements 仅在请求 withTotal=true 时返回
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> items;
+    private String nextCursor;
+    private boolean hasMore;
+    private Long totalElements;
+}
@@ -0,0 +1,29 @@
+package com.enote.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 创建或整体替换绘图；svg 为空时创建空白画布，之后通过追加笔画增量绘制
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DrawingRequest {
+
+    @NotNull(message = "画布宽度不能为空")
+    @Positive(message = "画布宽度必须大于0")
+    @Max(value = 100000, message = "画布宽度不能超过100000")
+    private Integer width;
+
+    @NotNull(message = "画布高度不能为空")
+    @Positive(message = "画布高度必须大于0")
+    @Max(value = 100000, message = "画布高度不能超过100000")
+    private Integer height;
+
+    private String svg;
+}
@@ -0,0 +1,26 @@
+package com.enote.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 绘图元数据，不包含文档内容；lastSeq 为最新笔画序号，客户端据此增量拉取
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DrawingResponse {
+    private Long id;
+    private Long noteId;
+    private Integer width;
+    private Integer height;
+    private Integer strokeCount;
+    private Long lastSeq;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,46 @@
+package com.enote.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 追加笔画请求，只携带新增的笔画
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DrawingStrokesRequest {
+
+    @Valid
+    @NotEmpty(message = "笔画不能为空")
+    private List<Stroke> strokes = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Stroke {
+
+        @NotNull(message = "颜色不能为空")
+        @Pattern(regexp = "#[0-9a-fA-F]{6}([0-9a-fA-F]{2})?", message = "颜色格式应为 #RRGGBB 或 #RRGGBBAA")
+        private String color;
+
+        @NotNull(message = "线宽不能为空")
+        @Positive(message = "线宽必须大于0")
+        private Float width;
+
+        /**
+         * 依次排列的 x, y 坐标
+         */
+        @NotEmpty(message = "笔画坐标不能为空")
+        private float[] points;
+    }
+}
@@ -0,0 +1,34 @@
+package com.enote.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 增量笔画；resync 为 true 表示请求的起点已合并进快照，客户端需要重新读取整篇 SVG
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DrawingStrokesResponse {
+    private Long lastSeq;
+    private boolean resync;
+
+    @Builder.Default
+    private List<StrokeDTO> strokes = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StrokeDTO {
+        private Long seq;
+        private String color;
+        private Float width;
+        private float[] points;
+    }
+}
@@ -0,0 +1,29 @@
+package com.enote.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 自动保存草稿的确认
+ * 返回时草稿已写入本地日志；baseVersion 为草稿将覆盖的笔记版本（为空表示不校验版本），
+ * conflict 为 true 表示回写时笔记已被其他写入修改，草稿保留待客户端处理
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class NoteDraftResponse {
+    private Long noteId;
+    private Long seq;
+    private Long baseVersion;
+    private Boolean conflict;
+    private LocalDateTime updatedAt;
+    private String title;     // 仅在获取草稿时返回
+    private String content;   // 仅在获取草稿时返回
+}
@@ -0,0 +1,32 @@
+package com.enote.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 笔记批量导入结果
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NoteImportResult {
+    private int imported;
+    private int failed;
+    @Builder.Default
+    private List<RecordError> errors = new ArrayList<>(); // 最多返回前 1000 条错误
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RecordError {
+        private long line;
+        private String message;
+    }
+}
@@ -21,6 +21,7 @@ public class NoteResponse {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private String createdBy;
+    private Long version;
 
     @Data
     @Builder
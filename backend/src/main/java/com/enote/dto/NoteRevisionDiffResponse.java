@@ -0,0 +1,38 @@
+package com.enote.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 两个修订版本之间的逐行差异
+ * 较长的未变化片段折叠为一条 SKIP，只保留变更前后的若干行上下文
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NoteRevisionDiffResponse {
+    private Integer from;
+    private Integer to;
+    private String fromTitle;
+    private String toTitle;
+    private List<DiffLine> lines;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DiffLine {
+        private DiffType type;
+        private String text;
+        private Integer skipped;  // SKIP 行折叠的行数
+    }
+
+    public enum DiffType {
+        EQUAL, INSERT, DELETE, SKIP
+    }
+}
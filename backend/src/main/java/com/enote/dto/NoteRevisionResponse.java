@@ -0,0 +1,23 @@
+package com.enote.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NoteRevisionResponse {
+    private Integer revision;
+    private String title;
+    private String content;       // 仅在获取单个版本时返回
+    private Integer contentLength;
+    private Integer storedSize;   // 压缩后实际占用的字节数
+    private Boolean snapshot;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
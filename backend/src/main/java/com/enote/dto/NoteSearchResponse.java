@@ -0,0 +1,23 @@
+package com.enote.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 笔记全文检索结果
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NoteSearchResponse {
+    private Long id;
+    private String title;
+    private String snippet; // 带 <em> 高亮的内容摘要
+    private Double score;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,23 @@
+package com.enote.dto;
+
+import com.enote.entity.UserNotePermission;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 共享笔记请求，已共享给该用户时更新权限
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NoteShareRequest {
+
+    @NotBlank(message = "用户名不能为空")
+    private String username;
+
+    @NotNull(message = "权限不能为空")
+    private UserNotePermission.PermissionType permission;
+}
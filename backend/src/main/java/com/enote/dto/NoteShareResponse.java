@@ -0,0 +1,22 @@
+package com.enote.dto;
+
+import com.enote.entity.UserNotePermission;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NoteShareResponse {
+    private Long noteId;
+    private Long userId;
+    private String username;
+    private UserNotePermission.PermissionType permission;
+    private LocalDateTime grantedAt;
+    private String grantedBy;
+}
@@ -0,0 +1,30 @@
+package com.enote.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * 笔记摘要响应
+ * 列表接口的轻量视图，完整正文通过 GET /notes/{id} 获取
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NoteSummaryResponse {
+    private Long id;
+    private String title;
+    private String excerpt;
+    private Integer contentLength;
+    private Long categoryId;
+    private Set<Long> tagIds;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private Long version;
+    private String etag;
+}
@@ -0,0 +1,27 @@
+package com.enote.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 笔记导入导出记录
+ * NDJSON 中的一行；分类和标签以名称表示，导入时按名称匹配，不存在则自动创建
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NoteTransferRecord {
+    private Long id;
+    private String title;
+    private String content;
+    private String category;
+    private List<String> tags;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
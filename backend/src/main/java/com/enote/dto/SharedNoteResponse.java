@@ -0,0 +1,29 @@
+package com.enote.dto;
+
+import com.enote.entity.UserNotePermission;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 共享给当前用户的笔记摘要；分类与标签属于所有者，不返回
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SharedNoteResponse {
+    private Long id;
+    private String title;
+    private String excerpt;
+    private Integer contentLength;
+    private LocalDateTime updatedAt;
+    private Long version;
+    private String etag;
+    private String owner;
+    private UserNotePermission.PermissionType permission;
+    private LocalDateTime sharedAt;
+}
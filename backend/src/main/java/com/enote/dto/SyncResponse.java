@@ -0,0 +1,63 @@
+package com.enote.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 增量同步响应
+ * 只包含游标之后变更过的实体；删除的实体只返回ID。客户端保存 cursor，hasMore 为 true 时继续拉取
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncResponse {
+    private long cursor;
+    private boolean hasMore;
+    private List<NoteDTO> notes;
+    private List<CategoryDTO> categories;
+    private List<TagDTO> tags;
+    private List<Long> deletedNoteIds;
+    private List<Long> deletedCategoryIds;
+    private List<Long> deletedTagIds;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class NoteDTO {
+        private Long id;
+        private Long version;
+        private String title;
+        private String content;
+        private Long categoryId;
+        private Set<Long> tagIds;
+        private LocalDateTime createdAt;
+        private LocalDateTime updatedAt;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CategoryDTO {
+        private Long id;
+        private String name;
+        private String description;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TagDTO {
+        private Long id;
+        private String name;
+    }
+}
@@ -3,13 +3,17 @@ package com.enote.entity;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "attachments")
+@Table(name = "attachments", indexes = {
+    @Index(name = "idx_attachment_note", columnList = "note_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -22,6 +26,7 @@ public class Attachment {
     @Column(name = "file_name", nullable = false, length = 255)
     private String fileName;
 
+    // 内容的 SHA-256，即内容寻址存储中的键
     @Column(name = "file_path", nullable = false, length = 255)
     private String filePath;
 
@@ -31,6 +36,8 @@ public class Attachment {
     @Column(name = "file_size")
     private Integer fileSize;
 
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "note_id", nullable = false)
     private Note note;
@@ -0,0 +1,39 @@
+package com.enote.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 附件内容的引用计数
+ * 以内容的 SHA-256 为主键，相同文件无论被多少笔记或用户上传都只存储一份；
+ * 计数归零超过宽限期后由定时任务删除存储中的内容
+ */
+@Entity
+@Table(name = "attachment_blobs", indexes = {
+    @Index(name = "idx_blob_ref_updated", columnList = "ref_count, updated_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttachmentBlob {
+
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    @Column(nullable = false)
+    private Long size;
+
+    @Column(name = "ref_count", nullable = false)
+    private Integer refCount;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,49 @@
+package com.enote.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * 进行中的分块上传
+ * ID 同时是存储暂存区的ID；已接收的字节数以暂存区大小为准，长时间无进展的上传由定时任务清理
+ */
+@Entity
+@Table(name = "attachment_uploads", indexes = {
+    @Index(name = "idx_upload_updated", columnList = "updated_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttachmentUpload {
+
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "note_id", nullable = false)
+    private Long noteId;
+
+    @Column(name = "file_name", nullable = false, length = 255)
+    private String fileName;
+
+    @Column(name = "file_type", length = 50)
+    private String fileType;
+
+    @Column(name = "total_size", nullable = false)
+    private Long totalSize;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -3,14 +3,18 @@ package com.enote.entity;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "blocks")
+@Table(name = "blocks", indexes = {
+    @Index(name = "idx_note_order", columnList = "note_id, order_num")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -22,11 +26,14 @@ public class Block {
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "note_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Note note;
 
     @Column(columnDefinition = "TEXT")
     private String content;
 
+    // 排序键之间预留间隔，插入和移动只需改写当前区块，间隔耗尽时才整体重排
     @Column(name = "order_num", nullable = false)
     private Integer orderNum;
 
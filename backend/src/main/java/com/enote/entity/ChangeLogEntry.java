@@ -0,0 +1,52 @@
+package com.enote.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 增量同步变更记录
+ * 每个实体只保留一行，记录其最后一次变更的序号；删除以 deleted=true 的墓碑形式保留
+ */
+@Entity
+@Table(name = "change_log", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"user_id", "entity_type", "entity_id"}, name = "uk_change_entity")
+}, indexes = {
+    @Index(name = "idx_change_user_seq", columnList = "user_id, seq")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeLogEntry {
+
+    public enum EntityType {
+        NOTE, CATEGORY, TAG
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false, length = 16)
+    private EntityType entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    // 用户级单调递增的变更序号，即客户端持有的同步游标
+    @Column(nullable = false)
+    private Long seq;
+
+    @Column(nullable = false)
+    private Boolean deleted;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+}
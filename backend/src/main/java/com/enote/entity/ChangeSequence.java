@@ -0,0 +1,25 @@
+package com.enote.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 用户的变更序号计数器
+ * 分配序号时对该行加锁直到事务提交，同一用户的写事务按序号顺序提交，客户端游标不会跳过未提交的变更
+ */
+@Entity
+@Table(name = "change_sequences")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeSequence {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false)
+    private Long seq;
+}
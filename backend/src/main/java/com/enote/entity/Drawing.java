@@ -3,11 +3,19 @@ package com.enote.entity;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
 
+/**
+ * 绘图
+ * 文档由 gzip 压缩的 SVG 快照加上 drawing_stroke_segments 中尚未合并的笔画段组成；
+ * 序号不超过 snapshotSeq 的笔画已合并进快照，lastSeq 为已分配的最大笔画序号
+ */
 @Entity
 @Table(name = "drawings")
 @Data
@@ -19,14 +27,41 @@ public class Drawing {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "note_id", nullable = false)
     private Note note;
 
+    // 旧版整篇保存的 SVG 文本；首次替换或合并时迁入快照，之后保持为空串
+    @ToString.Exclude
     @Column(name = "svg_data", nullable = false, columnDefinition = "TEXT")
-    private String svgData;
+    private String svgData = "";
+
+    @ToString.Exclude
+    @Column(name = "svg_snapshot", columnDefinition = "MEDIUMBLOB")
+    private byte[] snapshot;
+
+    @ColumnDefault("0")
+    @Column(name = "snapshot_seq", nullable = false)
+    private Long snapshotSeq = 0L;
+
+    @ColumnDefault("0")
+    @Column(name = "last_seq", nullable = false)
+    private Long lastSeq = 0L;
+
+    @ColumnDefault("0")
+    @Column(name = "stroke_count", nullable = false)
+    private Integer strokeCount = 0;
+
+    private Integer width;
+
+    private Integer height;
 
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
-}
\ No newline at end of file
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
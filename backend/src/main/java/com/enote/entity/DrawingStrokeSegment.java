@@ -0,0 +1,43 @@
+package com.enote.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * 绘图笔画段
+ * 一次追加请求中的笔画编码为一段，序号为 firstSeq 到 lastSeq；合并进快照后删除
+ */
+@Entity
+@Table(name = "drawing_stroke_segments", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_stroke_segment", columnNames = {"drawing_id", "first_seq"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DrawingStrokeSegment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "drawing_id", nullable = false)
+    private Long drawingId;
+
+    @Column(name = "first_seq", nullable = false)
+    private Long firstSeq;
+
+    @Column(name = "last_seq", nullable = false)
+    private Long lastSeq;
+
+    @ToString.Exclude
+    @Column(nullable = false, columnDefinition = "MEDIUMBLOB")
+    private byte[] data;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
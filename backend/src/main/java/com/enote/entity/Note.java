@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -13,24 +14,41 @@ import java.util.Set;
 
 @Entity
 @Table(name = "notes", indexes = {
-    @Index(name = "idx_user_category", columnList = "user_id, category_id"),
-    @Index(name = "idx_title", columnList = "title")
+    @Index(name = "idx_user_category_deleted", columnList = "user_id, category_id, is_deleted"),
+    @Index(name = "idx_title", columnList = "title"),
+    @Index(name = "idx_user_deleted_updated", columnList = "user_id, is_deleted, updated_at, id"),
+    @Index(name = "idx_category_updated", columnList = "category_id, updated_at, id")
 })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Note {
 
+    public static final int EXCERPT_LENGTH = 200;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // 乐观锁版本号，同时作为 ETag；历史数据加列时默认为 0
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     @Column(nullable = false, length = 255)
     private String title;
 
     @Column(columnDefinition = "TEXT")
     private String content;
 
+    // 摘要与正文长度在写入正文时同步计算，列表接口无需读取 content
+    @Column(length = EXCERPT_LENGTH)
+    private String excerpt;
+
+    @Column(name = "content_length")
+    private Integer contentLength;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id")
     private Category category;
@@ -50,6 +68,10 @@ public class Note {
     @Column(name = "is_deleted")
     private Boolean isDeleted = false;
 
+    // 通过区块接口编辑后为 true：content 暂未与区块同步，由后台任务合并回写
+    @Column(name = "content_stale")
+    private Boolean contentStale = false;
+
     @OneToMany(mappedBy = "note", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<Attachment> attachments = new HashSet<>();
 
@@ -66,4 +88,40 @@ public class Note {
         inverseJoinColumns = @JoinColumn(name = "tag_id")
     )
     private Set<Tag> tags = new HashSet<>();
+
+    public void setContent(String content) {
+        this.content = content;
+        this.excerpt = excerptOf(content);
+        this.contentLength = content != null ? content.length() : 0;
+    }
+
+    /**
+     * 计算正文摘要：折叠空白后截取前 EXCERPT_LENGTH 个字符
+     * @param content 正文
+     * @return 摘要，正文为空时返回 null
+     */
+    public static String excerptOf(String content) {
+        if (content == null) {
+            return null;
+        }
+        StringBuilder excerpt = new StringBuilder(EXCERPT_LENGTH);
+        boolean pendingSpace = false;
+        for (int i = 0; i < content.length() && excerpt.length() < EXCERPT_LENGTH; i++) {
+            char c = content.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = excerpt.length() > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                excerpt.append(' ');
+                pendingSpace = false;
+            }
+            excerpt.append(c);
+        }
+        int end = Math.min(excerpt.length(), EXCERPT_LENGTH);
+        if (end > 0 && Character.isHighSurrogate(excerpt.charAt(end - 1))) {
+            end--;
+        }
+        return end == 0 ? null : excerpt.substring(0, end);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,70 @@
+package com.enote.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * 笔记修订版本
+ * 快照保存压缩后的完整正文；差量保存相对于 baseRevision 快照的压缩差量，
+ * 因此任一版本最多读取一个快照加一个差量即可还原
+ */
+@Entity
+@Table(name = "note_revisions", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_note_revision", columnNames = {"note_id", "revision_number"})
+}, indexes = {
+    @Index(name = "idx_revision_created", columnList = "created_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NoteRevision {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "note_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Note note;
+
+    @Column(name = "revision_number", nullable = false)
+    private Integer revisionNumber;
+
+    // 快照为自身编号，差量为其基准快照的编号
+    @Column(name = "base_revision", nullable = false)
+    private Integer baseRevision;
+
+    @Column(nullable = false)
+    private Boolean snapshot;
+
+    @Column(nullable = false, length = 255)
+    private String title;
+
+    @Column(name = "content_length")
+    private Integer contentLength;
+
+    @Column(name = "stored_size")
+    private Integer storedSize;
+
+    @Column(nullable = false, columnDefinition = "MEDIUMBLOB")
+    @ToString.Exclude
+    private byte[] data;
+
+    // 已按保留策略处理过的旧版本，定时任务不再重复扫描
+    @Column(nullable = false)
+    private Boolean compacted = false;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -1,16 +1,22 @@
 package com.enote.entity;
 
+import com.enote.security.UserCacheEvictionListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user")
 @Table(name = "users")
+@EntityListeners(UserCacheEvictionListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
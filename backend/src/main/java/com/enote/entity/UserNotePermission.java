@@ -3,14 +3,24 @@ package com.enote.entity;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
 
+/**
+ * 笔记共享授权
+ * 唯一键 (user_id, note_id) 同时服务于按用户加载授权集合；"共享给我"列表按 (user_id, granted_at) 排序分页，
+ * 笔记的授权列表按 note_id 查询
+ */
 @Entity
 @Table(name = "user_note_permissions", uniqueConstraints = {
     @UniqueConstraint(columnNames = {"user_id", "note_id"}, name = "uk_user_note")
+}, indexes = {
+    @Index(name = "idx_permission_user_granted", columnList = "user_id, granted_at"),
+    @Index(name = "idx_permission_note", columnList = "note_id")
 })
 @Data
 @NoArgsConstructor
@@ -21,10 +31,14 @@ public class UserNotePermission {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "note_id", nullable = false)
     private Note note;
@@ -37,6 +51,8 @@ public class UserNotePermission {
     @Column(name = "granted_at", updatable = false)
     private LocalDateTime grantedAt;
 
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "granted_by", nullable = false)
     private User grantedBy;
@@ -44,4 +60,4 @@ public class UserNotePermission {
     public enum PermissionType {
         READ, EDIT
     }
-}
\ No newline at end of file
+}
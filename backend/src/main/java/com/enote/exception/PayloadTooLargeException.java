@@ -0,0 +1,15 @@
+package com.enote.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 写入的数据超出声明大小或附件大小上限，对应 HTTP 413
+ */
+@ResponseStatus(HttpStatus.PAYLOAD_TOO_LARGE)
+public class PayloadTooLargeException extends RuntimeException {
+
+    public PayloadTooLargeException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,15 @@
+package com.enote.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 条件请求的前置条件不成立（如 If-Match 与当前版本不一致），对应 HTTP 412
+ */
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class PreconditionFailedException extends RuntimeException {
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,15 @@
+package com.enote.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 内容格式无法处理（如无法解码的图片），对应 HTTP 415
+ */
+@ResponseStatus(HttpStatus.UNSUPPORTED_MEDIA_TYPE)
+public class UnsupportedMediaTypeException extends RuntimeException {
+
+    public UnsupportedMediaTypeException(String message) {
+        super(message);
+    }
+}
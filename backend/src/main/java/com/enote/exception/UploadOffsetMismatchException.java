@@ -0,0 +1,15 @@
+package com.enote.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 分块上传的偏移与服务端已接收的字节数不一致，客户端应查询当前偏移后续传，对应 HTTP 409
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class UploadOffsetMismatchException extends RuntimeException {
+
+    public UploadOffsetMismatchException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,14 @@
+package com.enote.metrics;
+
+import java.sql.SQLNonTransientException;
+
+/**
+ * 严格模式（sql-profiler.enforce=true）下请求执行的语句数超出其查询预算
+ * 在 JDBC 层抛出，由 Spring 转换为数据访问异常，使对应的接口请求和测试直接失败
+ */
+public class QueryBudgetExceededException extends SQLNonTransientException {
+
+    public QueryBudgetExceededException(int budget, String fingerprint) {
+        super("Query budget of " + budget + " statements exceeded by: " + fingerprint);
+    }
+}
@@ -0,0 +1,44 @@
+package com.enote.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * 服务层方法计时
+ * 对 service.impl 包下 Spring 管理的 Bean 的公共方法记录 enote.service 计时器，
+ * 按服务类、方法和异常类型打标签；分位直方图在 management.metrics.distribution 中开启
+ */
+@Aspect
+@Component
+public class ServiceMetricsAspect {
+
+    static final String METRIC = "enote.service";
+
+    private final MeterRegistry meterRegistry;
+
+    public ServiceMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(public * com.enote.service.impl..*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(METRIC)
+                    .tag("service", joinPoint.getSignature().getDeclaringType().getSimpleName())
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("exception", exception)
+                    .register(meterRegistry));
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.enote.metrics;
+
+import java.util.regex.Pattern;
+
+/**
+ * SQL 指纹：去掉字面量、合并 IN 列表和空白，使只有参数不同的语句得到相同的指纹
+ * Hibernate 生成的语句本身已参数化，这里主要处理 IN (?, ?, ...) 长度不同以及原生 SQL 中的字面量
+ */
+final class SqlFingerprint {
+
+    private static final int MAX_LENGTH = 2048;
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^'\\\\]|\\\\.|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?(?![\\w.])");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private SqlFingerprint() {
+    }
+
+    static String of(String sql) {
+        if (sql == null) {
+            return "";
+        }
+        String normalized = sql.length() > MAX_LENGTH ? sql.substring(0, MAX_LENGTH) : sql;
+        normalized = STRING_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = WHITESPACE.matcher(normalized).replaceAll(" ");
+        normalized = IN_LIST.matcher(normalized).replaceAll("(?...)");
+        return normalized.trim().toLowerCase();
+    }
+}
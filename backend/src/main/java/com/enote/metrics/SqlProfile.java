@@ -0,0 +1,111 @@
+package com.enote.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+
+/**
+ * 单个 HTTP 请求内执行的 SQL 统计：语句数、数据库耗时以及按指纹分组的重复次数
+ * 由 SqlProfilingFilter 在请求线程上开启和结束，SqlProfilingDataSource 在获取连接时绑定当前统计
+ */
+public final class SqlProfile {
+
+    private static final ThreadLocal<SqlProfile> CURRENT = new ThreadLocal<>();
+
+    /**
+     * 同一指纹的执行次数和累计耗时
+     */
+    public record Repeat(String fingerprint, int count, long nanos) {
+    }
+
+    private static final class Stat {
+        private int count;
+        private long nanos;
+    }
+
+    private final AtomicInteger statements = new AtomicInteger();
+    private final AtomicLong nanos = new AtomicLong();
+    private final Map<String, Stat> byFingerprint = new ConcurrentHashMap<>();
+    private final IntSupplier budget;
+    private final boolean enforce;
+
+    SqlProfile(IntSupplier budget, boolean enforce) {
+        this.budget = budget;
+        this.enforce = enforce;
+    }
+
+    /**
+     * 当前线程正在统计的请求，不在请求内（定时任务、启动阶段）时为 null
+     */
+    public static SqlProfile current() {
+        return CURRENT.get();
+    }
+
+    static SqlProfile begin(IntSupplier budget, boolean enforce) {
+        SqlProfile profile = new SqlProfile(budget, enforce);
+        CURRENT.set(profile);
+        return profile;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * 执行语句前调用；严格模式下超出查询预算时拒绝执行
+     */
+    void beforeExecute(String sql) throws QueryBudgetExceededException {
+        if (enforce) {
+            int limit = budget.getAsInt();
+            if (statements.get() >= limit) {
+                throw new QueryBudgetExceededException(limit, SqlFingerprint.of(sql));
+            }
+        }
+    }
+
+    void record(String sql, long elapsedNanos) {
+        statements.incrementAndGet();
+        nanos.addAndGet(elapsedNanos);
+        byFingerprint.compute(SqlFingerprint.of(sql), (fingerprint, stat) -> {
+            Stat updated = stat != null ? stat : new Stat();
+            updated.count++;
+            updated.nanos += elapsedNanos;
+            return updated;
+        });
+    }
+
+    public int getStatements() {
+        return statements.get();
+    }
+
+    public long getElapsedMillis() {
+        return nanos.get() / 1_000_000;
+    }
+
+    public int getBudget() {
+        return budget.getAsInt();
+    }
+
+    public boolean isOverBudget() {
+        return statements.get() > budget.getAsInt();
+    }
+
+    /**
+     * 执行次数不少于 threshold 的指纹，按次数倒序；通常意味着循环中的懒加载（N+1）
+     */
+    public List<Repeat> getRepeats(int threshold) {
+        List<Repeat> repeats = new ArrayList<>();
+        byFingerprint.forEach((fingerprint, stat) -> {
+            if (stat.count >= threshold) {
+                repeats.add(new Repeat(fingerprint, stat.count, stat.nanos));
+            }
+        });
+        repeats.sort(Comparator.comparingInt(Repeat::count).reversed());
+        return repeats;
+    }
+}
@@ -0,0 +1,49 @@
+package com.enote.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * 请求级 SQL 分析（替代 show-sql 排查查询数回归）
+ * 数据源外包一层 SqlProfilingDataSource，过滤器排在 Spring Security 之前，认证过程中的查询也计入请求；
+ * 测试环境可设置 sql-profiler.enforce=true，使超出查询预算的接口直接失败
+ */
+@Configuration
+@ConditionalOnProperty(name = "sql-profiler.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlProfilerConfig {
+
+    @Bean
+    public static BeanPostProcessor sqlProfilingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof SqlProfilingDataSource) {
+                    return bean;
+                }
+                return new SqlProfilingDataSource(dataSource);
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<SqlProfilingFilter> sqlProfilingFilter(
+            Environment environment, MeterRegistry meterRegistry,
+            @Value("${sql-profiler.query-budget:30}") int queryBudget,
+            @Value("${sql-profiler.repeat-threshold:5}") int repeatThreshold,
+            @Value("${sql-profiler.slow-ms:500}") long slowMillis,
+            @Value("${sql-profiler.enforce:false}") boolean enforce) {
+        FilterRegistrationBean<SqlProfilingFilter> registration = new FilterRegistrationBean<>(
+                new SqlProfilingFilter(environment, meterRegistry, queryBudget, repeatThreshold, slowMillis, enforce));
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        return registration;
+    }
+}
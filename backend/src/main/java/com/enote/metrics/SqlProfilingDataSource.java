@@ -0,0 +1,105 @@
+package com.enote.metrics;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * 统计每个请求执行的 SQL
+ * 只有在请求线程上（存在 SqlProfile）获取的连接才被代理，后台任务拿到的是原始连接；
+ * 代理连接创建的语句在 execute* 时计时并按指纹记入当前请求
+ */
+public class SqlProfilingDataSource extends DelegatingDataSource {
+
+    public SqlProfilingDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return profile(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return profile(super.getConnection(username, password));
+    }
+
+    private static Connection profile(Connection connection) {
+        SqlProfile profile = SqlProfile.current();
+        if (profile == null) {
+            return connection;
+        }
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            break;
+                    }
+                    Object result = invoke(connection, method, args);
+                    switch (method.getName()) {
+                        case "createStatement":
+                        case "prepareStatement":
+                        case "prepareCall":
+                            String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+                            return statement((Statement) result, method.getReturnType(), sql, profile);
+                        default:
+                            return result;
+                    }
+                });
+    }
+
+    // 预编译语句的 SQL 在创建时确定；普通 Statement 的 SQL 取自 execute*/addBatch 的参数
+    private static Object statement(Statement statement, Class<?> type, String preparedSql, SqlProfile profile) {
+        String[] batchSql = new String[1];
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    String name = method.getName();
+                    switch (name) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "addBatch":
+                            if (args != null && args.length == 1 && args[0] instanceof String s) {
+                                batchSql[0] = s;
+                            }
+                            return invoke(statement, method, args);
+                        default:
+                            break;
+                    }
+                    if (!name.startsWith("execute")) {
+                        return invoke(statement, method, args);
+                    }
+                    String sql = preparedSql;
+                    if (sql == null) {
+                        sql = args != null && args.length > 0 && args[0] instanceof String s ? s : batchSql[0];
+                    }
+                    profile.beforeExecute(sql);
+                    long start = System.nanoTime();
+                    try {
+                        return invoke(statement, method, args);
+                    } finally {
+                        profile.record(sql, System.nanoTime() - start);
+                    }
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
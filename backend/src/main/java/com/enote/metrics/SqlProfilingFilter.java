@@ -0,0 +1,141 @@
+package com.enote.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 按请求统计 SQL，只对超出预算的请求输出 X-SQL-Profile 响应头和一行 WARN 日志
+ * 超出预算指：语句数超过路由的查询预算、同一指纹重复执行达到 repeat-threshold 次（N+1），
+ * 或数据库累计耗时超过 slow-ms。路由预算通过 sql-profiler.budgets[<路由模板>] 单独配置，
+ * 例如 sql-profiler.budgets[/notes/{id}]=8，未配置时使用 sql-profiler.query-budget
+ */
+@Slf4j
+public class SqlProfilingFilter extends OncePerRequestFilter {
+
+    static final String HEADER = "X-SQL-Profile";
+
+    private static final String UNKNOWN_ROUTE = "UNKNOWN";
+    private static final int MAX_FINGERPRINT_LOG_LENGTH = 200;
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private final int defaultBudget;
+    private final int repeatThreshold;
+    private final long slowMillis;
+    private final boolean enforce;
+    private final Map<String, Integer> budgets = new ConcurrentHashMap<>();
+
+    public SqlProfilingFilter(Environment environment, MeterRegistry meterRegistry, int defaultBudget,
+                              int repeatThreshold, long slowMillis, boolean enforce) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+        this.defaultBudget = defaultBudget;
+        this.repeatThreshold = repeatThreshold;
+        this.slowMillis = slowMillis;
+        this.enforce = enforce;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        SqlProfile profile = SqlProfile.begin(() -> budgetFor(route(request)), enforce);
+        ProfileHeaderResponse wrapped = new ProfileHeaderResponse(response, profile);
+        try {
+            chain.doFilter(request, wrapped);
+        } finally {
+            SqlProfile.end();
+            wrapped.writeHeader();
+            report(request, profile);
+        }
+    }
+
+    private void report(HttpServletRequest request, SqlProfile profile) {
+        if (profile.getStatements() == 0) {
+            return;
+        }
+        String route = route(request);
+        DistributionSummary.builder("enote.sql.statements")
+                .description("SQL statements executed per request")
+                .tag("route", route)
+                .register(meterRegistry)
+                .record(profile.getStatements());
+        if (!isOffender(profile)) {
+            return;
+        }
+        List<SqlProfile.Repeat> repeats = profile.getRepeats(repeatThreshold);
+        log.warn("SQL profile {} {} [{}]: {} statements (budget {}), {} ms in database{}",
+                request.getMethod(), request.getRequestURI(), route, profile.getStatements(), profile.getBudget(),
+                profile.getElapsedMillis(), repeats.isEmpty() ? "" : repeats.stream()
+                        .map(repeat -> repeat.count() + "x " + repeat.nanos() / 1_000_000 + " ms \""
+                                + abbreviate(repeat.fingerprint()) + "\"")
+                        .collect(Collectors.joining("; ", ", repeated: ", "")));
+    }
+
+    private boolean isOffender(SqlProfile profile) {
+        return profile.isOverBudget() || profile.getElapsedMillis() > slowMillis
+                || !profile.getRepeats(repeatThreshold).isEmpty();
+    }
+
+    private int budgetFor(String route) {
+        if (UNKNOWN_ROUTE.equals(route)) {
+            return defaultBudget;
+        }
+        return budgets.computeIfAbsent(route, key ->
+                environment.getProperty("sql-profiler.budgets[" + key + "]", Integer.class, defaultBudget));
+    }
+
+    // 路由模板在 DispatcherServlet 匹配到处理器后才可用，此前（如认证过滤器中）的语句按默认预算计算
+    private static String route(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : UNKNOWN_ROUTE;
+    }
+
+    private static String abbreviate(String fingerprint) {
+        return fingerprint.length() > MAX_FINGERPRINT_LOG_LENGTH
+                ? fingerprint.substring(0, MAX_FINGERPRINT_LOG_LENGTH) + "..." : fingerprint;
+    }
+
+    // 响应头必须在响应提交前写入：提交时按当时的统计写一次，请求结束仍未提交时再补写
+    private final class ProfileHeaderResponse extends OnCommittedResponseWrapper {
+
+        private final SqlProfile profile;
+        private boolean written;
+
+        ProfileHeaderResponse(HttpServletResponse response, SqlProfile profile) {
+            super(response);
+            this.profile = profile;
+        }
+
+        @Override
+        protected void onResponseCommitted() {
+            writeHeader();
+        }
+
+        void writeHeader() {
+            if (written || isCommitted()) {
+                return;
+            }
+            written = true;
+            if (profile.getStatements() > 0 && isOffender(profile)) {
+                setHeader(HEADER, "statements=" + profile.getStatements() + ";budget=" + profile.getBudget()
+                        + ";db-ms=" + profile.getElapsedMillis()
+                        + ";repeated=" + profile.getRepeats(repeatThreshold).size());
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.enote.repository;
+
+import com.enote.entity.AttachmentBlob;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface AttachmentBlobRepository extends JpaRepository<AttachmentBlob, String> {
+
+    // 新内容插入计数为 1 的记录，已有内容原子地加一；该行锁持有到事务提交，与回收任务互斥
+    @Modifying
+    @Query(value = "INSERT INTO attachment_blobs (hash, size, ref_count, created_at, updated_at) " +
+            "VALUES (:hash, :size, 1, :now, :now) " +
+            "ON DUPLICATE KEY UPDATE ref_count = ref_count + 1, updated_at = :now", nativeQuery = true)
+    int acquire(@Param("hash") String hash, @Param("size") long size, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE AttachmentBlob b SET b.refCount = b.refCount - 1, b.updatedAt = :now " +
+           "WHERE b.hash = :hash AND b.refCount > 0")
+    int release(@Param("hash") String hash, @Param("now") LocalDateTime now);
+
+    @Query("SELECT b.hash FROM AttachmentBlob b WHERE b.refCount = 0 AND b.updatedAt < :before")
+    List<String> findUnreferencedBefore(@Param("before") LocalDateTime before, Pageable pageable);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM AttachmentBlob b WHERE b.hash = :hash")
+    Optional<AttachmentBlob> lockByHash(@Param("hash") String hash);
+}
@@ -0,0 +1,19 @@
+package com.enote.repository;
+
+import com.enote.entity.Attachment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface AttachmentRepository extends JpaRepository<Attachment, Long> {
+
+    @Query("SELECT a FROM Attachment a WHERE a.note.id = :noteId ORDER BY a.uploadedAt, a.id")
+    List<Attachment> findByNoteId(@Param("noteId") Long noteId);
+
+    // 所有权在查询中通过连接校验，不加载笔记正文
+    @Query("SELECT a FROM Attachment a WHERE a.id = :id AND a.note.user.id = :userId")
+    Optional<Attachment> findOwnedById(@Param("id") Long id, @Param("userId") Long userId);
+}
@@ -0,0 +1,21 @@
+package com.enote.repository;
+
+import com.enote.entity.AttachmentUpload;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface AttachmentUploadRepository extends JpaRepository<AttachmentUpload, String> {
+
+    @Modifying
+    @Query("UPDATE AttachmentUpload u SET u.updatedAt = :now WHERE u.id = :id")
+    int touch(@Param("id") String id, @Param("now") LocalDateTime now);
+
+    @Query("SELECT u.id FROM AttachmentUpload u WHERE u.updatedAt < :before")
+    List<String> findStaleIds(@Param("before") LocalDateTime before, Pageable pageable);
+}
@@ -0,0 +1,52 @@
+package com.enote.repository;
+
+import com.enote.entity.Block;
+import com.enote.repository.projection.BlockContentView;
+import com.enote.repository.projection.BlockOrderView;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface BlockRepository extends JpaRepository<Block, Long> {
+
+    @Query("SELECT b FROM Block b WHERE b.note.id = :noteId ORDER BY b.orderNum, b.id")
+    List<Block> findByNoteIdOrdered(@Param("noteId") Long noteId);
+
+    @Query("SELECT b.id AS id, b.orderNum AS orderNum FROM Block b WHERE b.note.id = :noteId ORDER BY b.orderNum, b.id")
+    List<BlockOrderView> findOrderByNoteId(@Param("noteId") Long noteId);
+
+    @Query("SELECT b.content FROM Block b WHERE b.note.id = :noteId ORDER BY b.orderNum, b.id")
+    List<String> findContentsByNoteId(@Param("noteId") Long noteId);
+
+    @Query("SELECT b.note.id AS noteId, b.content AS content FROM Block b WHERE b.note.id IN :noteIds " +
+           "ORDER BY b.note.id, b.orderNum, b.id")
+    List<BlockContentView> findContentsByNoteIds(@Param("noteIds") Collection<Long> noteIds);
+
+    boolean existsByNoteId(Long noteId);
+
+    // 加锁读取（当前读）：可重复读隔离级别下普通查询看不到事务快照之后其他事务提交的区块
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT b FROM Block b WHERE b.note.id = :noteId ORDER BY b.orderNum, b.id")
+    List<Block> lockByNoteIdOrdered(@Param("noteId") Long noteId);
+
+    @Modifying
+    @Query("UPDATE Block b SET b.content = :content, b.blockType = COALESCE(:blockType, b.blockType), " +
+           "b.updatedAt = :now WHERE b.id = :id")
+    int updateContent(@Param("id") Long id, @Param("content") String content,
+                      @Param("blockType") Block.BlockType blockType, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM Block b WHERE b.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM Block b WHERE b.note.id = :noteId")
+    int deleteByNoteId(@Param("noteId") Long noteId);
+}
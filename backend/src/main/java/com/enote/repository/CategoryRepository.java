@@ -1,14 +1,21 @@
 package com.enote.repository;
 
 import com.enote.entity.Category;
+import com.enote.repository.projection.NoteCountView;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_CACHE_REGION;
+
 /**
  * 分类存储库接口
  * 提供分类实体的数据访问操作
@@ -17,9 +24,12 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
     
     /**
      * 查找指定用户的所有分类
+     * 结果（分类ID列表）进入查询缓存，分类实体从二级缓存读取；categories 表有任何写入时缓存结果失效
      * @param userId 用户ID
      * @return 分类列表
      */
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"),
+                 @QueryHint(name = HINT_CACHE_REGION, value = "category-by-user")})
     List<Category> findByUserId(Long userId);
     
     /**
@@ -30,4 +40,22 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
      */
     @Query("SELECT c FROM Category c WHERE c.user.id = :userId")
     Page<Category> findByUserId(@Param("userId") Long userId, Pageable pageable);
-}
\ No newline at end of file
+
+    /**
+     * 按分类分组统计用户未删除笔记的数量，没有笔记的分类不出现在结果中
+     * @param userId 用户ID
+     * @return 分类ID与笔记数
+     */
+    @Query("SELECT n.category.id AS id, COUNT(n.id) AS noteCount FROM Note n " +
+           "WHERE n.user.id = :userId AND n.isDeleted = false AND n.category IS NOT NULL GROUP BY n.category.id")
+    List<NoteCountView> countNotesByUserId(@Param("userId") Long userId);
+
+    /**
+     * 统计指定分类中未删除笔记的数量
+     * @param categoryIds 分类ID集合
+     * @return 分类ID与笔记数
+     */
+    @Query("SELECT n.category.id AS id, COUNT(n.id) AS noteCount FROM Note n " +
+           "WHERE n.category.id IN :categoryIds AND n.isDeleted = false GROUP BY n.category.id")
+    List<NoteCountView> countNotesByCategoryIds(@Param("categoryIds") Collection<Long> categoryIds);
+}
@@ -0,0 +1,36 @@
+package com.enote.repository;
+
+import com.enote.entity.ChangeLogEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface ChangeLogRepository extends JpaRepository<ChangeLogEntry, Long> {
+
+    // 按序号读取游标之后的变更，走 (user_id, seq) 索引
+    @Query("SELECT c FROM ChangeLogEntry c WHERE c.userId = :userId AND c.seq > :since ORDER BY c.seq")
+    List<ChangeLogEntry> findChangesSince(@Param("userId") Long userId, @Param("since") long since, Pageable pageable);
+
+    // 用户最新的变更序号，全文索引加载时记录，检索前据此追平其他实例的写入
+    @Query("SELECT MAX(c.seq) FROM ChangeLogEntry c WHERE c.userId = :userId")
+    Long findLatestSeq(@Param("userId") Long userId);
+
+    // 尚未写入变更记录的历史数据，仅启动补录时使用
+    @Query(value = "SELECT n.id FROM notes n WHERE n.user_id = :userId AND (n.is_deleted IS NULL OR n.is_deleted = false) " +
+            "AND NOT EXISTS (SELECT 1 FROM change_log c WHERE c.user_id = n.user_id AND c.entity_type = 'NOTE' AND c.entity_id = n.id)",
+            nativeQuery = true)
+    List<Long> findUnloggedNoteIds(@Param("userId") Long userId, Pageable pageable);
+
+    @Query(value = "SELECT g.id FROM categories g WHERE g.user_id = :userId " +
+            "AND NOT EXISTS (SELECT 1 FROM change_log c WHERE c.user_id = g.user_id AND c.entity_type = 'CATEGORY' AND c.entity_id = g.id)",
+            nativeQuery = true)
+    List<Long> findUnloggedCategoryIds(@Param("userId") Long userId, Pageable pageable);
+
+    @Query(value = "SELECT t.id FROM tags t WHERE t.user_id = :userId " +
+            "AND NOT EXISTS (SELECT 1 FROM change_log c WHERE c.user_id = t.user_id AND c.entity_type = 'TAG' AND c.entity_id = t.id)",
+            nativeQuery = true)
+    List<Long> findUnloggedTagIds(@Param("userId") Long userId, Pageable pageable);
+}
@@ -0,0 +1,51 @@
+package com.enote.repository;
+
+import com.enote.entity.Drawing;
+import com.enote.repository.projection.DrawingView;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface DrawingRepository extends JpaRepository<Drawing, Long> {
+
+    @Query("SELECT d.id AS id, d.note.id AS noteId, d.width AS width, d.height AS height, d.strokeCount AS strokeCount, " +
+           "d.lastSeq AS lastSeq, d.createdAt AS createdAt, d.updatedAt AS updatedAt " +
+           "FROM Drawing d WHERE d.note.id = :noteId ORDER BY d.createdAt, d.id")
+    List<DrawingView> findViewsByNoteId(@Param("noteId") Long noteId);
+
+    @Query("SELECT d.id AS id, d.note.id AS noteId, d.width AS width, d.height AS height, d.strokeCount AS strokeCount, " +
+           "d.lastSeq AS lastSeq, d.createdAt AS createdAt, d.updatedAt AS updatedAt " +
+           "FROM Drawing d WHERE d.id = :id")
+    Optional<DrawingView> findViewById(@Param("id") Long id);
+
+    @Query("SELECT d.note.user.id FROM Drawing d WHERE d.id = :id AND d.note.isDeleted = false")
+    Optional<Long> findActiveOwnerId(@Param("id") Long id);
+
+    // 追加笔画时只锁定并读取序号，不加载快照；行锁保证同一绘图的序号分配串行
+    @Query(value = "SELECT last_seq FROM drawings WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Optional<Long> lockLastSeq(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE Drawing d SET d.lastSeq = :lastSeq, d.strokeCount = d.strokeCount + :count, " +
+           "d.updatedAt = :now WHERE d.id = :id")
+    int advance(@Param("id") Long id, @Param("lastSeq") Long lastSeq, @Param("count") int count,
+                @Param("now") LocalDateTime now);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT d FROM Drawing d WHERE d.id = :id")
+    Optional<Drawing> lockById(@Param("id") Long id);
+
+    // 未合并笔画达到阈值，或有未合并笔画且已空闲一段时间的绘图
+    @Query("SELECT d.id FROM Drawing d WHERE d.lastSeq > d.snapshotSeq " +
+           "AND (d.lastSeq - d.snapshotSeq >= :threshold OR d.updatedAt < :idleBefore)")
+    List<Long> findIdsToCompact(@Param("threshold") long threshold, @Param("idleBefore") LocalDateTime idleBefore,
+                                Pageable pageable);
+}
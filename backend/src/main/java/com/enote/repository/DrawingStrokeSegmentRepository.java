@@ -0,0 +1,24 @@
+package com.enote.repository;
+
+import com.enote.entity.DrawingStrokeSegment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface DrawingStrokeSegmentRepository extends JpaRepository<DrawingStrokeSegment, Long> {
+
+    @Query("SELECT s FROM DrawingStrokeSegment s WHERE s.drawingId = :drawingId AND s.lastSeq > :after " +
+           "ORDER BY s.firstSeq")
+    List<DrawingStrokeSegment> findAfter(@Param("drawingId") Long drawingId, @Param("after") Long after);
+
+    @Modifying
+    @Query("DELETE FROM DrawingStrokeSegment s WHERE s.drawingId = :drawingId AND s.lastSeq <= :seq")
+    int deleteUpTo(@Param("drawingId") Long drawingId, @Param("seq") Long seq);
+
+    @Modifying
+    @Query("DELETE FROM DrawingStrokeSegment s WHERE s.drawingId = :drawingId")
+    int deleteByDrawingId(@Param("drawingId") Long drawingId);
+}
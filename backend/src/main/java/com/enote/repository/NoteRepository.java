@@ -1,19 +1,180 @@
 package com.enote.repository;
 
 import com.enote.entity.Note;
+import com.enote.repository.projection.NoteSummaryView;
+import com.enote.repository.projection.NoteTagView;
+import com.enote.repository.projection.NoteTextView;
+import com.enote.repository.projection.NoteVersionView;
+import com.enote.repository.projection.StaleNoteView;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
 public interface NoteRepository extends JpaRepository<Note, Long> {
     Page<Note> findByUserId(Long userId, Pageable pageable);
+
+    // 列表查询一并抓取分类和作者（均为多对一，不影响分页），标签通过 findTagsByNoteIds 批量读取
+    @EntityGraph(attributePaths = {"category", "user"})
     Page<Note> findByCategoryId(Long categoryId, Pageable pageable);
     
+    @EntityGraph(attributePaths = {"category", "user"})
     @Query("SELECT n FROM Note n JOIN n.tags t WHERE t.id = :tagId")
     Page<Note> findByTagId(@Param("tagId") Long tagId, Pageable pageable);
     
+    @EntityGraph(attributePaths = {"category", "user"})
     @Query("SELECT n FROM Note n WHERE n.user.id = :userId AND n.isDeleted = false")
     Page<Note> findActiveNotesByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT n.id AS id, n.title AS title, n.excerpt AS excerpt, n.contentLength AS contentLength, " +
+           "n.contentStale AS contentStale, " +
+           "c.id AS categoryId, n.createdAt AS createdAt, n.updatedAt AS updatedAt, n.version AS version " +
+           "FROM Note n LEFT JOIN n.category c WHERE n.user.id = :userId AND n.isDeleted = false")
+    Page<NoteSummaryView> findActiveNoteSummariesByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT n.id AS id, n.title AS title, n.excerpt AS excerpt, n.contentLength AS contentLength, " +
+           "n.contentStale AS contentStale, " +
+           "c.id AS categoryId, n.createdAt AS createdAt, n.updatedAt AS updatedAt, n.version AS version " +
+           "FROM Note n JOIN n.category c WHERE c.id = :categoryId")
+    Page<NoteSummaryView> findSummariesByCategoryId(@Param("categoryId") Long categoryId, Pageable pageable);
+
+    @Query("SELECT n.id AS id, n.title AS title, n.excerpt AS excerpt, n.contentLength AS contentLength, " +
+           "n.contentStale AS contentStale, " +
+           "c.id AS categoryId, n.createdAt AS createdAt, n.updatedAt AS updatedAt, n.version AS version " +
+           "FROM Note n JOIN n.tags t LEFT JOIN n.category c WHERE t.id = :tagId")
+    Page<NoteSummaryView> findSummariesByTagId(@Param("tagId") Long tagId, Pageable pageable);
+
+    // 游标分页：按 (updated_at, id) 倒序从游标之后开始读取，不执行 COUNT 查询
+    @Query("SELECT n.id AS id, n.title AS title, n.excerpt AS excerpt, n.contentLength AS contentLength, " +
+           "n.contentStale AS contentStale, " +
+           "c.id AS categoryId, n.createdAt AS createdAt, n.updatedAt AS updatedAt, n.version AS version " +
+           "FROM Note n LEFT JOIN n.category c WHERE n.user.id = :userId AND n.isDeleted = false " +
+           "AND (n.updatedAt < :updatedAt OR (n.updatedAt = :updatedAt AND n.id < :id)) " +
+           "ORDER BY n.updatedAt DESC, n.id DESC")
+    List<NoteSummaryView> findActiveNoteSummariesAfter(@Param("userId") Long userId,
+                                                       @Param("updatedAt") LocalDateTime updatedAt,
+                                                       @Param("id") Long id, Pageable pageable);
+
+    @Query("SELECT n.id AS id, n.title AS title, n.excerpt AS excerpt, n.contentLength AS contentLength, " +
+           "n.contentStale AS contentStale, " +
+           "c.id AS categoryId, n.createdAt AS createdAt, n.updatedAt AS updatedAt, n.version AS version " +
+           "FROM Note n JOIN n.category c WHERE c.id = :categoryId " +
+           "AND (n.updatedAt < :updatedAt OR (n.updatedAt = :updatedAt AND n.id < :id)) " +
+           "ORDER BY n.updatedAt DESC, n.id DESC")
+    List<NoteSummaryView> findSummariesByCategoryIdAfter(@Param("categoryId") Long categoryId,
+                                                         @Param("updatedAt") LocalDateTime updatedAt,
+                                                         @Param("id") Long id, Pageable pageable);
+
+    @Query("SELECT n.id AS id, n.title AS title, n.excerpt AS excerpt, n.contentLength AS contentLength, " +
+           "n.contentStale AS contentStale, " +
+           "c.id AS categoryId, n.createdAt AS createdAt, n.updatedAt AS updatedAt, n.version AS version " +
+           "FROM Note n JOIN n.tags t LEFT JOIN n.category c WHERE t.id = :tagId " +
+           "AND (n.updatedAt < :updatedAt OR (n.updatedAt = :updatedAt AND n.id < :id)) " +
+           "ORDER BY n.updatedAt DESC, n.id DESC")
+    List<NoteSummaryView> findSummariesByTagIdAfter(@Param("tagId") Long tagId,
+                                                    @Param("updatedAt") LocalDateTime updatedAt,
+                                                    @Param("id") Long id, Pageable pageable);
+
+    @Query("SELECT COUNT(n) FROM Note n WHERE n.user.id = :userId AND n.isDeleted = false")
+    long countActiveByUserId(@Param("userId") Long userId);
+
+    long countByCategoryId(Long categoryId);
+
+    @Query("SELECT COUNT(n) FROM Note n JOIN n.tags t WHERE t.id = :tagId")
+    long countByTagId(@Param("tagId") Long tagId);
+
+    // 为摘要字段上线前写入的笔记补齐 excerpt/content_length；批量更新不会触发 updated_at 变化
+    @Query("SELECT n.id AS id, n.title AS title, n.content AS content FROM Note n WHERE n.contentLength IS NULL")
+    List<NoteTextView> findWithoutSummary(Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Note n SET n.excerpt = :excerpt, n.contentLength = :contentLength WHERE n.id = :id")
+    int updateSummary(@Param("id") Long id, @Param("excerpt") String excerpt,
+                      @Param("contentLength") Integer contentLength);
+
+    // 条件请求使用的版本查询，与对应的列表查询条件保持一致
+    @Query("SELECT n.id AS id, n.user.id AS userId, n.version AS version, c.id AS categoryId, " +
+           "c.name AS categoryName FROM Note n LEFT JOIN n.category c WHERE n.id = :id AND n.isDeleted = false")
+    Optional<NoteVersionView> findActiveVersionById(@Param("id") Long id);
+
+    @Query("SELECT n.id AS id, n.user.id AS userId, n.version AS version, c.id AS categoryId, " +
+           "c.name AS categoryName FROM Note n LEFT JOIN n.category c " +
+           "WHERE n.user.id = :userId AND n.isDeleted = false")
+    Page<NoteVersionView> findActiveNoteVersionsByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT n.id AS id, n.user.id AS userId, n.version AS version, c.id AS categoryId, " +
+           "c.name AS categoryName FROM Note n JOIN n.category c WHERE c.id = :categoryId")
+    Page<NoteVersionView> findVersionsByCategoryId(@Param("categoryId") Long categoryId, Pageable pageable);
+
+    @Query("SELECT n.id AS id, n.user.id AS userId, n.version AS version, c.id AS categoryId, " +
+           "c.name AS categoryName FROM Note n JOIN n.tags t LEFT JOIN n.category c WHERE t.id = :tagId")
+    Page<NoteVersionView> findVersionsByTagId(@Param("tagId") Long tagId, Pageable pageable);
+
+    @Query("SELECT n.user.id FROM Note n WHERE n.id = :id AND n.isDeleted = false")
+    Optional<Long> findActiveOwnerId(@Param("id") Long id);
+
+    // 首次拆分区块前锁定笔记行，使同一笔记的并发首次访问串行执行
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT n FROM Note n WHERE n.id = :id")
+    Optional<Note> lockById(@Param("id") Long id);
+
+    // 区块编辑只更新时间戳并标记正文待合并，不改写 content 列
+    @Modifying
+    @Query("UPDATE Note n SET n.updatedAt = :now, n.contentStale = true, n.version = n.version + 1 WHERE n.id = :id")
+    int markContentStale(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Query("SELECT n.id AS id, n.user.id AS userId, n.title AS title, n.isDeleted AS deleted, n.updatedAt AS updatedAt " +
+           "FROM Note n WHERE n.contentStale = true")
+    List<StaleNoteView> findContentStale(Pageable pageable);
+
+    @Query("SELECT n.id FROM Note n WHERE n.user.id = :userId AND n.contentStale = true AND n.isDeleted = false")
+    List<Long> findContentStaleIdsByUserId(@Param("userId") Long userId);
+
+    // 以 updated_at 作为版本条件：合并期间又有新的区块编辑时不覆盖，留给下一轮
+    @Modifying
+    @Query("UPDATE Note n SET n.content = :content, n.excerpt = :excerpt, n.contentLength = :contentLength, " +
+           "n.contentStale = false WHERE n.id = :id AND n.updatedAt = :updatedAt")
+    int materializeContent(@Param("id") Long id, @Param("content") String content, @Param("excerpt") String excerpt,
+                           @Param("contentLength") Integer contentLength, @Param("updatedAt") LocalDateTime updatedAt);
+
+    // 自动保存草稿的回写：一条 UPDATE 完成，不加载实体；version 为 null 时不校验版本（后写入者生效）
+    @Modifying
+    @Query("UPDATE Note n SET n.title = :title, n.content = :content, n.excerpt = :excerpt, " +
+           "n.contentLength = :contentLength, n.contentStale = false, n.updatedAt = :now, n.version = n.version + 1 " +
+           "WHERE n.id = :id AND n.isDeleted = false AND (:version IS NULL OR n.version = :version)")
+    int applyDraft(@Param("id") Long id, @Param("version") Long version, @Param("title") String title,
+                   @Param("content") String content, @Param("excerpt") String excerpt,
+                   @Param("contentLength") Integer contentLength, @Param("now") LocalDateTime now);
+
+    @Query("SELECT n.id AS id, n.title AS title, n.content AS content FROM Note n WHERE n.id = :id")
+    Optional<NoteTextView> findTextById(@Param("id") Long id);
+
+    @Query("SELECT n.id AS id, n.title AS title, n.content AS content FROM Note n " +
+           "WHERE n.id IN :ids AND n.isDeleted = false")
+    List<NoteTextView> findActiveTextByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT n.id AS noteId, t.id AS tagId, t.name AS tagName FROM Note n JOIN n.tags t " +
+           "WHERE n.id IN :noteIds")
+    List<NoteTagView> findTagsByNoteIds(@Param("noteIds") Collection<Long> noteIds);
+
+    // 以流的方式读取用户全部笔记文本，用于建立全文索引；MySQL 驱动需要 Integer.MIN_VALUE 才会逐行返回
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT n.id AS id, n.title AS title, n.content AS content FROM Note n " +
+           "WHERE n.user.id = :userId AND n.isDeleted = false")
+    Stream<NoteTextView> streamActiveNoteTextByUserId(@Param("userId") Long userId);
 }
\ No newline at end of file
@@ -0,0 +1,32 @@
+package com.enote.repository;
+
+import com.enote.entity.NoteRevision;
+import com.enote.repository.projection.NoteRevisionView;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface NoteRevisionRepository extends JpaRepository<NoteRevision, Long> {
+
+    @Query("SELECT r.revisionNumber AS revisionNumber, r.title AS title, r.contentLength AS contentLength, " +
+           "r.storedSize AS storedSize, r.snapshot AS snapshot, r.createdAt AS createdAt, r.updatedAt AS updatedAt " +
+           "FROM NoteRevision r WHERE r.note.id = :noteId ORDER BY r.revisionNumber DESC")
+    List<NoteRevisionView> findViewsByNoteId(@Param("noteId") Long noteId);
+
+    Optional<NoteRevision> findFirstByNoteIdOrderByRevisionNumberDesc(Long noteId);
+
+    Optional<NoteRevision> findByNoteIdAndRevisionNumber(Long noteId, Integer revisionNumber);
+
+    List<NoteRevision> findByNoteIdOrderByRevisionNumber(Long noteId);
+
+    @Query("SELECT DISTINCT r.note.id FROM NoteRevision r WHERE r.createdAt < :before AND r.compacted = false")
+    List<Long> findNoteIdsToThin(@Param("before") LocalDateTime before);
+
+    @Query("SELECT DISTINCT r.note.id FROM NoteRevision r WHERE r.createdAt < :before AND r.revisionNumber < " +
+           "(SELECT MAX(r2.revisionNumber) FROM NoteRevision r2 WHERE r2.note.id = r.note.id)")
+    List<Long> findNoteIdsToExpire(@Param("before") LocalDateTime before);
+}
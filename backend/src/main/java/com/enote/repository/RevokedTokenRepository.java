@@ -0,0 +1,23 @@
+package com.enote.repository;
+
+import com.enote.entity.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    boolean existsByTokenHashAndExpiresAtAfter(String tokenHash, LocalDateTime now);
+
+    // 增量同步：读取指定时间之后注销且尚未过期的令牌摘要
+    @Query("SELECT r.tokenHash FROM RevokedToken r WHERE r.revokedAt >= :since AND r.expiresAt > :now")
+    List<String> findActiveHashesRevokedSince(@Param("since") LocalDateTime since, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM RevokedToken r WHERE r.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
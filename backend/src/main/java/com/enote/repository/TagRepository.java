@@ -1,12 +1,41 @@
 package com.enote.repository;
 
 import com.enote.entity.Tag;
+import com.enote.repository.projection.NoteCountView;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_CACHE_REGION;
+
 public interface TagRepository extends JpaRepository<Tag, Long> {
+    // 用户的全部标签走查询缓存，tags 表有写入时由 Hibernate 按表更新时间戳使结果失效
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"),
+                 @QueryHint(name = HINT_CACHE_REGION, value = "tag-by-user")})
     List<Tag> findByUserId(Long userId);
     Set<Tag> findByIdIn(Set<Long> tagIds);
-}
\ No newline at end of file
+
+    @Query("SELECT t FROM Tag t WHERE t.user.id = :userId")
+    Page<Tag> findByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * 按标签分组统计用户未删除笔记的数量，没有笔记的标签不出现在结果中
+     * 从 notes 的 (user_id, is_deleted) 索引出发，经 note_tags 主键关联，不加载标签实体
+     */
+    @Query("SELECT t.id AS id, COUNT(n.id) AS noteCount FROM Note n JOIN n.tags t " +
+           "WHERE n.user.id = :userId AND n.isDeleted = false GROUP BY t.id")
+    List<NoteCountView> countNotesByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT t.id AS id, COUNT(n.id) AS noteCount FROM Note n JOIN n.tags t " +
+           "WHERE t.id IN :tagIds AND n.isDeleted = false GROUP BY t.id")
+    List<NoteCountView> countNotesByTagIds(@Param("tagIds") Collection<Long> tagIds);
+}
@@ -0,0 +1,46 @@
+package com.enote.repository;
+
+import com.enote.entity.UserNotePermission;
+import com.enote.repository.projection.NoteGrantView;
+import com.enote.repository.projection.NoteShareView;
+import com.enote.repository.projection.SharedNoteView;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface UserNotePermissionRepository extends JpaRepository<UserNotePermission, Long> {
+
+    // 一个用户获得的全部授权，作为权限缓存的加载查询
+    @Query("SELECT p.note.id AS noteId, p.permissionType AS permissionType " +
+           "FROM UserNotePermission p WHERE p.user.id = :userId")
+    List<NoteGrantView> findGrantsByUserId(@Param("userId") Long userId);
+
+    @Query(value = "SELECT n.id AS id, n.title AS title, n.excerpt AS excerpt, n.contentLength AS contentLength, " +
+                   "n.updatedAt AS updatedAt, n.version AS version, o.username AS ownerUsername, " +
+                   "n.contentStale AS contentStale, p.permissionType AS permissionType, p.grantedAt AS grantedAt " +
+                   "FROM UserNotePermission p JOIN p.note n JOIN n.user o " +
+                   "WHERE p.user.id = :userId AND n.isDeleted = false " +
+                   "ORDER BY p.grantedAt DESC, p.id DESC",
+           countQuery = "SELECT COUNT(p) FROM UserNotePermission p JOIN p.note n " +
+                        "WHERE p.user.id = :userId AND n.isDeleted = false")
+    Page<SharedNoteView> findSharedWithUser(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT u.id AS userId, u.username AS username, p.permissionType AS permissionType, " +
+           "p.grantedAt AS grantedAt, g.username AS grantedBy " +
+           "FROM UserNotePermission p JOIN p.user u JOIN p.grantedBy g " +
+           "WHERE p.note.id = :noteId ORDER BY p.grantedAt, p.id")
+    List<NoteShareView> findSharesByNoteId(@Param("noteId") Long noteId);
+
+    @Query("SELECT p FROM UserNotePermission p WHERE p.note.id = :noteId AND p.user.id = :userId")
+    Optional<UserNotePermission> findByNoteIdAndUserId(@Param("noteId") Long noteId, @Param("userId") Long userId);
+
+    @Modifying
+    @Query("DELETE FROM UserNotePermission p WHERE p.note.id = :noteId AND p.user.id = :userId")
+    int deleteByNoteIdAndUserId(@Param("noteId") Long noteId, @Param("userId") Long userId);
+}
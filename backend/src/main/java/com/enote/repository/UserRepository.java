@@ -1,14 +1,24 @@
 package com.enote.repository;
 
 import com.enote.entity.User;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_CACHE_REGION;
+
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     
+    // 认证和权限校验的热点查询：用户名到ID的映射进入查询缓存，用户实体从二级缓存读取
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"),
+                 @QueryHint(name = HINT_CACHE_REGION, value = "user-by-username")})
     Optional<User> findByUsername(String username);
     
     Optional<User> findByEmail(String email);
@@ -16,4 +26,7 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByUsername(String username);
     
     boolean existsByEmail(String email);
+
+    @Query("SELECT u.id FROM User u ORDER BY u.id")
+    List<Long> findAllIds();
 }
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.enote.repository.projection;
+
+/**
+ * 区块内容投影
+ * 批量拼接多篇笔记的正文时使用，只读取所属笔记和区块内容
+ */
+public interface BlockContentView {
+
+    Long getNoteId();
+
+    String getContent();
+}
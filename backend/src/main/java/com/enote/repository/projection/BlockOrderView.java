@@ -0,0 +1,12 @@
+package com.enote.repository.projection;
+
+/**
+ * 区块排序投影
+ * 计算插入/移动位置时只需要区块ID和排序键，不读取区块内容
+ */
+public interface BlockOrderView {
+
+    Long getId();
+
+    Integer getOrderNum();
+}
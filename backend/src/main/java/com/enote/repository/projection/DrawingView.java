@@ -0,0 +1,25 @@
+package com.enote.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * 绘图列表投影，不读取快照与旧版 SVG 文本
+ */
+public interface DrawingView {
+
+    Long getId();
+
+    Long getNoteId();
+
+    Integer getWidth();
+
+    Integer getHeight();
+
+    Integer getStrokeCount();
+
+    Long getLastSeq();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+}
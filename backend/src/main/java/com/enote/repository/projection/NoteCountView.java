@@ -0,0 +1,12 @@
+package com.enote.repository.projection;
+
+/**
+ * 分组笔记计数投影
+ * 用于一次查询得到用户全部标签/分类的笔记数，避免逐个初始化 Tag.notes 或 Category.notes
+ */
+public interface NoteCountView {
+
+    Long getId();
+
+    Long getNoteCount();
+}
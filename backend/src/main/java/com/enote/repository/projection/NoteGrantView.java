@@ -0,0 +1,13 @@
+package com.enote.repository.projection;
+
+import com.enote.entity.UserNotePermission;
+
+/**
+ * 用户获得的笔记授权，只包含笔记ID与权限类型
+ */
+public interface NoteGrantView {
+
+    Long getNoteId();
+
+    UserNotePermission.PermissionType getPermissionType();
+}
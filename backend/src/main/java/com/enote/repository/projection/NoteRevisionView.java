@@ -0,0 +1,23 @@
+package com.enote.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * 修订版本列表投影，不读取版本数据
+ */
+public interface NoteRevisionView {
+
+    Integer getRevisionNumber();
+
+    String getTitle();
+
+    Integer getContentLength();
+
+    Integer getStoredSize();
+
+    Boolean getSnapshot();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+}
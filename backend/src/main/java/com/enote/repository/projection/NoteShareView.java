@@ -0,0 +1,21 @@
+package com.enote.repository.projection;
+
+import com.enote.entity.UserNotePermission;
+
+import java.time.LocalDateTime;
+
+/**
+ * 笔记的授权列表投影
+ */
+public interface NoteShareView {
+
+    Long getUserId();
+
+    String getUsername();
+
+    UserNotePermission.PermissionType getPermissionType();
+
+    LocalDateTime getGrantedAt();
+
+    String getGrantedBy();
+}
@@ -0,0 +1,28 @@
+package com.enote.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * 笔记摘要投影
+ * 不包含 content 字段，供列表接口使用
+ */
+public interface NoteSummaryView {
+
+    Long getId();
+
+    String getTitle();
+
+    String getExcerpt();
+
+    Integer getContentLength();
+
+    Boolean getContentStale();
+
+    Long getCategoryId();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+
+    Long getVersion();
+}
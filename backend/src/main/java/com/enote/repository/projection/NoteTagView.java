@@ -0,0 +1,14 @@
+package com.enote.repository.projection;
+
+/**
+ * 笔记-标签关联投影
+ * 用于批量读取一页笔记的标签，避免逐条初始化 Note.tags
+ */
+public interface NoteTagView {
+
+    Long getNoteId();
+
+    Long getTagId();
+
+    String getTagName();
+}
@@ -0,0 +1,14 @@
+package com.enote.repository.projection;
+
+/**
+ * 笔记文本投影
+ * 仅包含建立全文索引所需的字段
+ */
+public interface NoteTextView {
+
+    Long getId();
+
+    String getTitle();
+
+    String getContent();
+}
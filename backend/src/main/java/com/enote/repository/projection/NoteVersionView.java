@@ -0,0 +1,18 @@
+package com.enote.repository.projection;
+
+/**
+ * 笔记版本投影
+ * 条件请求只比较版本号和引用的分类，不读取正文
+ */
+public interface NoteVersionView {
+
+    Long getId();
+
+    Long getUserId();
+
+    Long getVersion();
+
+    Long getCategoryId();
+
+    String getCategoryName();
+}
@@ -0,0 +1,31 @@
+package com.enote.repository.projection;
+
+import com.enote.entity.UserNotePermission;
+
+import java.time.LocalDateTime;
+
+/**
+ * "共享给我"列表投影，授权与笔记摘要在同一查询中读取，不包含 content 字段
+ */
+public interface SharedNoteView {
+
+    Long getId();
+
+    String getTitle();
+
+    String getExcerpt();
+
+    Integer getContentLength();
+
+    Boolean getContentStale();
+
+    LocalDateTime getUpdatedAt();
+
+    Long getVersion();
+
+    String getOwnerUsername();
+
+    UserNotePermission.PermissionType getPermissionType();
+
+    LocalDateTime getGrantedAt();
+}
@@ -0,0 +1,20 @@
+package com.enote.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * 正文待合并的笔记投影
+ * updatedAt 用作合并时的版本条件
+ */
+public interface StaleNoteView {
+
+    Long getId();
+
+    Long getUserId();
+
+    String getTitle();
+
+    Boolean getDeleted();
+
+    LocalDateTime getUpdatedAt();
+}
@@ -0,0 +1,239 @@
+package com.enote.revision;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 二进制差量编解码
+ * 以基准文本按 16 字节分块建立哈希表，在目标文本上滚动哈希查找匹配，输出 COPY/INSERT 指令；
+ * 指令序列与快照正文都经过 Deflate 压缩后存储。
+ */
+public final class DeltaCodec {
+
+    private static final int BLOCK = 16;
+    private static final int MULTIPLIER = 31;
+    // 限制哈希表探测长度，避免大量重复块（如分隔线）退化为平方复杂度
+    private static final int MAX_PROBES = 8;
+    private static final int OP_COPY = 0;
+    private static final int OP_INSERT = 1;
+
+    // MULTIPLIER^(BLOCK-1)，滚动时移出首字节用
+    private static final int HIGH_POWER;
+
+    static {
+        int power = 1;
+        for (int i = 1; i < BLOCK; i++) {
+            power *= MULTIPLIER;
+        }
+        HIGH_POWER = power;
+    }
+
+    private DeltaCodec() {
+    }
+
+    /**
+     * 压缩快照正文
+     */
+    public static byte[] encodeSnapshot(String content) {
+        return deflate(bytes(content));
+    }
+
+    public static String decodeSnapshot(byte[] data) {
+        return new String(inflate(data), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 计算 target 相对 base 的压缩差量
+     */
+    public static byte[] encodeDelta(String base, String target) {
+        return deflate(diff(bytes(base), bytes(target)));
+    }
+
+    /**
+     * 在 base 上应用差量得到目标文本
+     */
+    public static String applyDelta(String base, byte[] delta) {
+        return new String(patch(bytes(base), inflate(delta)), StandardCharsets.UTF_8);
+    }
+
+    static byte[] diff(byte[] base, byte[] target) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, target.length / 8));
+        writeVarint(out, target.length);
+
+        int blocks = base.length / BLOCK;
+        int[] table = new int[Integer.highestOneBit(Math.max(1, blocks) * 2 - 1) << 1];
+        int mask = table.length - 1;
+        for (int b = 0; b < blocks; b++) {
+            // 存储 位置+1，0 表示空槽；同一哈希冲突时保留最早的块
+            int slot = hash(base, b * BLOCK) & mask;
+            for (int probe = 0; probe < MAX_PROBES; probe++) {
+                if (table[slot] == 0) {
+                    table[slot] = b * BLOCK + 1;
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        int literalStart = 0;
+        int i = 0;
+        int h = target.length >= BLOCK ? hash(target, 0) : 0;
+        while (i + BLOCK <= target.length) {
+            int match = blocks > 0 ? find(table, mask, h, base, target, i) : -1;
+            if (match < 0) {
+                if (i + BLOCK < target.length) {
+                    h = (h - target[i] * HIGH_POWER) * MULTIPLIER + target[i + BLOCK];
+                }
+                i++;
+                continue;
+            }
+
+            int start = i;
+            int baseStart = match;
+            while (start > literalStart && baseStart > 0 && target[start - 1] == base[baseStart - 1]) {
+                start--;
+                baseStart--;
+            }
+            int end = i + BLOCK;
+            int baseEnd = match + BLOCK;
+            while (end < target.length && baseEnd < base.length && target[end] == base[baseEnd]) {
+                end++;
+                baseEnd++;
+            }
+
+            writeInsert(out, target, literalStart, start);
+            out.write(OP_COPY);
+            writeVarint(out, baseStart);
+            writeVarint(out, end - start);
+
+            literalStart = end;
+            i = end;
+            if (i + BLOCK <= target.length) {
+                h = hash(target, i);
+            }
+        }
+        writeInsert(out, target, literalStart, target.length);
+        return out.toByteArray();
+    }
+
+    static byte[] patch(byte[] base, byte[] delta) {
+        int[] pos = {0};
+        int length = readVarint(delta, pos);
+        byte[] target = new byte[length];
+        int written = 0;
+        while (pos[0] < delta.length) {
+            int op = delta[pos[0]++];
+            if (op == OP_COPY) {
+                int offset = readVarint(delta, pos);
+                int count = readVarint(delta, pos);
+                System.arraycopy(base, offset, target, written, count);
+                written += count;
+            } else if (op == OP_INSERT) {
+                int count = readVarint(delta, pos);
+                System.arraycopy(delta, pos[0], target, written, count);
+                pos[0] += count;
+                written += count;
+            } else {
+                throw new IllegalArgumentException("Corrupt delta: unknown op " + op);
+            }
+        }
+        if (written != length) {
+            throw new IllegalArgumentException("Corrupt delta: expected " + length + " bytes, got " + written);
+        }
+        return target;
+    }
+
+    private static int find(int[] table, int mask, int h, byte[] base, byte[] target, int at) {
+        int slot = h & mask;
+        for (int probe = 0; probe < MAX_PROBES && table[slot] != 0; probe++) {
+            int candidate = table[slot] - 1;
+            if (Arrays.equals(base, candidate, candidate + BLOCK, target, at, at + BLOCK)) {
+                return candidate;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private static int hash(byte[] data, int from) {
+        int h = 0;
+        for (int i = from; i < from + BLOCK; i++) {
+            h = h * MULTIPLIER + data[i];
+        }
+        return h;
+    }
+
+    private static void writeInsert(ByteArrayOutputStream out, byte[] data, int from, int to) {
+        if (to <= from) {
+            return;
+        }
+        out.write(OP_INSERT);
+        writeVarint(out, to - from);
+        out.write(data, from, to - from);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarint(byte[] data, int[] pos) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data[pos[0]++];
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private static byte[] bytes(String text) {
+        return text != null ? text.getBytes(StandardCharsets.UTF_8) : new byte[0];
+    }
+
+    private static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] data) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length * 4));
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0 && !inflater.finished() && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalArgumentException("Truncated revision data");
+                }
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Corrupt revision data", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
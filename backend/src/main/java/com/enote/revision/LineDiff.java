@@ -0,0 +1,101 @@
+package com.enote.revision;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 按行比较两段文本（Myers 差分算法）
+ * 编辑距离超过上限时不再搜索最短编辑序列，退化为整体删除后整体插入
+ */
+public final class LineDiff {
+
+    private static final int MAX_EDIT_DISTANCE = 1000;
+
+    public enum Op {
+        EQUAL, INSERT, DELETE
+    }
+
+    public record Line(Op op, String text) {
+    }
+
+    private LineDiff() {
+    }
+
+    public static List<Line> diff(String from, String to) {
+        return diff(splitLines(from), splitLines(to));
+    }
+
+    static List<Line> diff(List<String> a, List<String> b) {
+        int n = a.size();
+        int m = b.size();
+        int maxD = Math.min(MAX_EDIT_DISTANCE, n + m);
+        int offset = maxD + 1;
+        int[] v = new int[2 * maxD + 3];
+        List<int[]> trace = new ArrayList<>();
+
+        for (int d = 0; d <= maxD; d++) {
+            trace.add(v.clone());
+            for (int k = -d; k <= d; k += 2) {
+                int x;
+                if (k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1])) {
+                    x = v[offset + k + 1];
+                } else {
+                    x = v[offset + k - 1] + 1;
+                }
+                int y = x - k;
+                while (x < n && y < m && a.get(x).equals(b.get(y))) {
+                    x++;
+                    y++;
+                }
+                v[offset + k] = x;
+                if (x >= n && y >= m) {
+                    return backtrack(trace, a, b, d, offset);
+                }
+            }
+        }
+        return replaceAll(a, b);
+    }
+
+    private static List<Line> backtrack(List<int[]> trace, List<String> a, List<String> b, int depth, int offset) {
+        List<Line> lines = new ArrayList<>();
+        int x = a.size();
+        int y = b.size();
+        for (int d = depth; d > 0; d--) {
+            int[] v = trace.get(d);
+            int k = x - y;
+            int prevK = (k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1])) ? k + 1 : k - 1;
+            int prevX = v[offset + prevK];
+            int prevY = prevX - prevK;
+            while (x > prevX && y > prevY) {
+                lines.add(new Line(Op.EQUAL, a.get(--x)));
+                y--;
+            }
+            if (x == prevX) {
+                lines.add(new Line(Op.INSERT, b.get(--y)));
+            } else {
+                lines.add(new Line(Op.DELETE, a.get(--x)));
+            }
+        }
+        while (x > 0 && y > 0) {
+            lines.add(new Line(Op.EQUAL, a.get(--x)));
+            y--;
+        }
+        Collections.reverse(lines);
+        return lines;
+    }
+
+    private static List<Line> replaceAll(List<String> a, List<String> b) {
+        List<Line> lines = new ArrayList<>(a.size() + b.size());
+        a.forEach(line -> lines.add(new Line(Op.DELETE, line)));
+        b.forEach(line -> lines.add(new Line(Op.INSERT, line)));
+        return lines;
+    }
+
+    private static List<String> splitLines(String text) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+        return List.of(text.split("\n", -1));
+    }
+}
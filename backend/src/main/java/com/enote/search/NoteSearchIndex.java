@@ -0,0 +1,322 @@
+package com.enote.search;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * 进程内笔记倒排索引
+ * 每个用户一份独立索引，按 BM25 打分；首次检索时从数据库整体加载，之后由笔记写操作增量维护。
+ * 索引记录加载时的变更序号，检索前按变更记录追平其他实例写入的笔记，多实例部署时各实例的索引最终一致
+ */
+@Component
+public class NoteSearchIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int TITLE_WEIGHT = 3;
+
+    private final int maxUsers;
+    private final Map<Long, UserIndex> indexes;
+
+    public NoteSearchIndex(@Value("${search.index.max-users:1000}") int maxUsers) {
+        this.maxUsers = maxUsers;
+        this.indexes = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * 获取用户索引，不存在时通过 loader 从数据库加载
+     * @param userId 用户ID
+     * @param loader 加载器，回调参数用于逐条写入笔记
+     * @return 用户索引
+     */
+    public UserIndex getOrLoad(Long userId, Consumer<UserIndex> loader) {
+        UserIndex index;
+        boolean created = false;
+        synchronized (indexes) {
+            index = indexes.get(userId);
+            if (index == null) {
+                index = new UserIndex();
+                indexes.put(userId, index);
+                created = true;
+                evictIfNecessary();
+            }
+        }
+        if (created) {
+            try {
+                loader.accept(index);
+                index.finishLoading();
+            } catch (RuntimeException e) {
+                synchronized (indexes) {
+                    indexes.remove(userId, index);
+                }
+                index.failLoading();
+                throw e;
+            }
+        } else {
+            index.awaitLoaded();
+        }
+        return index;
+    }
+
+    /**
+     * 丢弃落后过多的用户索引并重新加载
+     * @param userId 用户ID
+     * @param stale 需要丢弃的索引，其他线程已替换为新索引时不再丢弃
+     * @param loader 加载器
+     * @return 用户索引
+     */
+    public UserIndex reload(Long userId, UserIndex stale, Consumer<UserIndex> loader) {
+        synchronized (indexes) {
+            indexes.remove(userId, stale);
+        }
+        return getOrLoad(userId, loader);
+    }
+
+    /**
+     * 新增或更新一篇笔记；该用户索引尚未加载时忽略，首次检索时会整体加载
+     */
+    public void index(Long userId, Long noteId, String title, String content) {
+        UserIndex index = peek(userId);
+        if (index != null) {
+            index.put(noteId, title, content, true);
+        }
+    }
+
+    /**
+     * 从索引中移除一篇笔记
+     */
+    public void remove(Long userId, Long noteId) {
+        UserIndex index = peek(userId);
+        if (index != null) {
+            index.remove(noteId);
+        }
+    }
+
+    private UserIndex peek(Long userId) {
+        synchronized (indexes) {
+            return indexes.get(userId);
+        }
+    }
+
+    private void evictIfNecessary() {
+        var iterator = indexes.entrySet().iterator();
+        while (indexes.size() > maxUsers && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * 检索命中项
+     */
+    public record Hit(Long noteId, double score) {
+    }
+
+    /**
+     * 检索结果：当前页命中项及命中总数
+     */
+    public record Result(List<Hit> hits, int total) {
+    }
+
+    /**
+     * 单个用户的倒排索引
+     */
+    public static class UserIndex {
+
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+        private final Map<Long, Integer> docLengths = new HashMap<>();
+        private final Map<Long, Set<String>> docTerms = new HashMap<>();
+        private final Set<Long> touchedWhileLoading = new HashSet<>();
+        // 等待加载完成使用 CountDownLatch 而非 wait/notify，虚拟线程等待时不占用载体线程
+        private final CountDownLatch loaded = new CountDownLatch(1);
+        private final Lock syncLock = new ReentrantLock();
+        private volatile long syncedSeq;
+        private long totalLength;
+        private boolean loading = true;
+        private volatile boolean failed;
+
+        /**
+         * 加载阶段写入笔记，已被增量更新过的笔记以增量结果为准
+         */
+        public void load(Long noteId, String title, String content) {
+            put(noteId, title, content, false);
+        }
+
+        /**
+         * 索引已包含的最新变更序号
+         */
+        public long getSyncedSeq() {
+            return syncedSeq;
+        }
+
+        public void syncedTo(long seq) {
+            syncedSeq = seq;
+        }
+
+        /**
+         * 开始追平变更；同一时刻只有一个线程追平，返回 false 时直接使用当前索引
+         */
+        public boolean tryBeginSync() {
+            return syncLock.tryLock();
+        }
+
+        public void endSync() {
+            syncLock.unlock();
+        }
+
+        void put(Long noteId, String title, String content, boolean incremental) {
+            Map<String, Integer> frequencies = new HashMap<>();
+            for (String term : Tokenizer.tokenize(title)) {
+                frequencies.merge(term, TITLE_WEIGHT, Integer::sum);
+            }
+            for (String term : Tokenizer.tokenize(content)) {
+                frequencies.merge(term, 1, Integer::sum);
+            }
+            int length = frequencies.values().stream().mapToInt(Integer::intValue).sum();
+
+            lock.writeLock().lock();
+            try {
+                if (loading) {
+                    if (incremental) {
+                        touchedWhileLoading.add(noteId);
+                    } else if (touchedWhileLoading.contains(noteId)) {
+                        return;
+                    }
+                }
+                removeLocked(noteId);
+                frequencies.forEach((term, tf) ->
+                        postings.computeIfAbsent(term, t -> new HashMap<>()).put(noteId, tf));
+                docTerms.put(noteId, frequencies.keySet());
+                docLengths.put(noteId, length);
+                totalLength += length;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(Long noteId) {
+            lock.writeLock().lock();
+            try {
+                if (loading) {
+                    touchedWhileLoading.add(noteId);
+                }
+                removeLocked(noteId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void removeLocked(Long noteId) {
+            Set<String> terms = docTerms.remove(noteId);
+            if (terms == null) {
+                return;
+            }
+            for (String term : terms) {
+                Map<Long, Integer> docs = postings.get(term);
+                if (docs != null) {
+                    docs.remove(noteId);
+                    if (docs.isEmpty()) {
+                        postings.remove(term);
+                    }
+                }
+            }
+            totalLength -= docLengths.remove(noteId);
+        }
+
+        /**
+         * BM25 检索
+         * @param terms 查询词项
+         * @param offset 跳过的命中数
+         * @param limit 返回的命中数
+         * @return 检索结果
+         */
+        public Result search(List<String> terms, int offset, int limit) {
+            lock.readLock().lock();
+            try {
+                int docCount = docLengths.size();
+                if (docCount == 0 || terms.isEmpty()) {
+                    return new Result(Collections.emptyList(), 0);
+                }
+                double avgLength = (double) totalLength / docCount;
+
+                Map<Long, Double> scores = new HashMap<>();
+                for (String term : terms) {
+                    Map<Long, Integer> docs = postings.get(term);
+                    if (docs == null) {
+                        continue;
+                    }
+                    double idf = Math.log(1 + (docCount - docs.size() + 0.5) / (docs.size() + 0.5));
+                    docs.forEach((noteId, tf) -> {
+                        double norm = K1 * (1 - B + B * docLengths.get(noteId) / avgLength);
+                        scores.merge(noteId, idf * tf * (K1 + 1) / (tf + norm), Double::sum);
+                    });
+                }
+
+                int keep = offset + limit;
+                PriorityQueue<Hit> top = new PriorityQueue<>((a, b) -> Double.compare(a.score(), b.score()));
+                scores.forEach((noteId, score) -> {
+                    if (top.size() < keep) {
+                        top.add(new Hit(noteId, score));
+                    } else if (keep > 0 && top.peek().score() < score) {
+                        top.poll();
+                        top.add(new Hit(noteId, score));
+                    }
+                });
+
+                List<Hit> ranked = new ArrayList<>(top);
+                ranked.sort((a, b) -> Double.compare(b.score(), a.score()));
+                List<Hit> page = offset >= ranked.size()
+                        ? Collections.emptyList()
+                        : ranked.subList(offset, Math.min(ranked.size(), keep));
+                return new Result(page, scores.size());
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private void finishLoading() {
+            lock.writeLock().lock();
+            try {
+                loading = false;
+                touchedWhileLoading.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            loaded.countDown();
+        }
+
+        private void failLoading() {
+            failed = true;
+            loaded.countDown();
+        }
+
+        private void awaitLoaded() {
+            try {
+                loaded.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while loading search index", e);
+            }
+            if (failed) {
+                throw new IllegalStateException("Search index failed to load");
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.enote.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 检索摘要生成器
+ * 截取首个命中词附近的文本，并用 &lt;em&gt; 标签高亮命中词，其余内容做 HTML 转义
+ */
+public final class SnippetBuilder {
+
+    private static final int CONTEXT_CHARS = 60;
+
+    private SnippetBuilder() {
+    }
+
+    /**
+     * 生成高亮摘要
+     * @param text 原文
+     * @param terms 查询词项（已小写）
+     * @return 高亮摘要；原文为空时返回空串
+     */
+    public static String build(String text, List<String> terms) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        if (lower.length() != text.length()) {
+            lower = text;
+        }
+
+        int first = -1;
+        for (String term : terms) {
+            int pos = lower.indexOf(term);
+            if (pos >= 0 && (first < 0 || pos < first)) {
+                first = pos;
+            }
+        }
+
+        int start = first < 0 ? 0 : Math.max(0, first - CONTEXT_CHARS);
+        int end = Math.min(text.length(), (first < 0 ? 0 : first) + CONTEXT_CHARS * 2);
+        if (Character.isLowSurrogate(text.charAt(start)) && start > 0) {
+            start--;
+        }
+        if (end < text.length() && Character.isLowSurrogate(text.charAt(end))) {
+            end++;
+        }
+
+        List<int[]> ranges = new ArrayList<>();
+        for (String term : terms) {
+            int pos = lower.indexOf(term, start);
+            while (pos >= 0 && pos + term.length() <= end) {
+                ranges.add(new int[]{pos, pos + term.length()});
+                pos = lower.indexOf(term, pos + term.length());
+            }
+        }
+        ranges.sort((a, b) -> a[0] != b[0] ? Integer.compare(a[0], b[0]) : Integer.compare(b[1], a[1]));
+
+        StringBuilder snippet = new StringBuilder();
+        if (start > 0) {
+            snippet.append("...");
+        }
+        int cursor = start;
+        for (int[] range : ranges) {
+            if (range[0] < cursor) {
+                if (range[1] <= cursor) {
+                    continue;
+                }
+                // 与前一个高亮区间重叠，合并到同一个标签中
+                snippet.setLength(snippet.length() - "</em>".length());
+                escape(text, cursor, range[1], snippet);
+                snippet.append("</em>");
+                cursor = range[1];
+                continue;
+            }
+            escape(text, cursor, range[0], snippet);
+            snippet.append("<em>");
+            escape(text, range[0], range[1], snippet);
+            snippet.append("</em>");
+            cursor = range[1];
+        }
+        escape(text, cursor, end, snippet);
+        if (end < text.length()) {
+            snippet.append("...");
+        }
+        return snippet.toString();
+    }
+
+    private static void escape(String text, int from, int to, StringBuilder out) {
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '&' -> out.append("&amp;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> out.append(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.enote.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 全文检索分词器
+ * 拉丁字母/数字按连续片段切词，中日韩文字按二元组（bigram）切分
+ */
+public final class Tokenizer {
+
+    /**
+     * 单个词项的最大长度，超过的片段直接丢弃
+     */
+    static final int MAX_TOKEN_LENGTH = 64;
+
+    private Tokenizer() {
+    }
+
+    /**
+     * 索引时分词：中日韩文字同时产出单字和二元组，以便单字查询也能命中
+     * @param text 原始文本
+     * @return 词项列表（保留重复，用于统计词频）
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        split(text, tokens, true);
+        return tokens;
+    }
+
+    /**
+     * 查询时分词：中日韩文字只产出二元组，仅有一个字的片段才产出单字
+     * @param query 查询语句
+     * @return 去重后的词项列表
+     */
+    public static List<String> tokenizeQuery(String query) {
+        List<String> tokens = new ArrayList<>();
+        split(query, tokens, false);
+        return new ArrayList<>(new LinkedHashSet<>(tokens));
+    }
+
+    private static void split(String text, List<String> out, boolean indexUnigrams) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+
+        StringBuilder word = new StringBuilder();
+        List<String> cjkRun = new ArrayList<>();
+        int i = 0;
+        while (i < normalized.length()) {
+            int codePoint = normalized.codePointAt(i);
+            i += Character.charCount(codePoint);
+
+            if (isCjk(codePoint)) {
+                flushWord(word, out);
+                cjkRun.add(new String(Character.toChars(codePoint)));
+            } else if (Character.isLetterOrDigit(codePoint)) {
+                flushCjk(cjkRun, out, indexUnigrams);
+                word.appendCodePoint(codePoint);
+            } else {
+                flushWord(word, out);
+                flushCjk(cjkRun, out, indexUnigrams);
+            }
+        }
+        flushWord(word, out);
+        flushCjk(cjkRun, out, indexUnigrams);
+    }
+
+    private static void flushWord(StringBuilder word, List<String> out) {
+        if (word.length() > 0 && word.length() <= MAX_TOKEN_LENGTH) {
+            out.add(word.toString());
+        }
+        word.setLength(0);
+    }
+
+    private static void flushCjk(List<String> run, List<String> out, boolean indexUnigrams) {
+        if (run.isEmpty()) {
+            return;
+        }
+        if (run.size() == 1) {
+            out.add(run.get(0));
+        } else {
+            for (int j = 0; j < run.size(); j++) {
+                if (indexUnigrams) {
+                    out.add(run.get(j));
+                }
+                if (j + 1 < run.size()) {
+                    out.add(run.get(j) + run.get(j + 1));
+                }
+            }
+        }
+        run.clear();
+    }
+
+    static boolean isCjk(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+}
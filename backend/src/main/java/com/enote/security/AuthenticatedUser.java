@@ -0,0 +1,86 @@
+package com.enote.security;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 认证主体
+ * 在 Spring Security 的 UserDetails 基础上携带用户ID，业务层据此判断所有权而无需查询数据库
+ */
+public class AuthenticatedUser implements UserDetails, CredentialsContainer {
+
+    private final Long id;
+    private final String username;
+    private String password;
+    private final List<GrantedAuthority> authorities;
+
+    public AuthenticatedUser(Long id, String username, String password,
+                             Collection<? extends GrantedAuthority> authorities) {
+        this.id = id;
+        this.username = username;
+        this.password = password;
+        this.authorities = List.copyOf(authorities);
+    }
+
+    /**
+     * 复制当前主体，用于从缓存中返回独立对象
+     */
+    public AuthenticatedUser copy() {
+        return new AuthenticatedUser(id, username, password, authorities);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    @JsonIgnore
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public void eraseCredentials() {
+        password = null;
+    }
+
+    @Override
+    public String toString() {
+        return "AuthenticatedUser[id=" + id + ", username=" + username + ", authorities=" + authorities + "]";
+    }
+}
@@ -2,13 +2,17 @@ package com.enote.security;
 
 import com.enote.entity.User;
 import com.enote.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 
@@ -18,8 +22,32 @@ public class CustomUserDetailsService implements UserDetailsService {
     @Autowired
     private UserRepository userRepository;
 
+    private final Cache<String, AuthenticatedUser> userCache;
+
+    public CustomUserDetailsService(@Value("${security.user-cache.max-size:10000}") long maxSize,
+                                    @Value("${security.user-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.userCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        AuthenticatedUser cached = userCache.get(username, this::loadFromDatabase);
+        // 认证成功后 Spring Security 会擦除凭据，因此每次返回副本，缓存中的对象保持不变
+        return cached.copy();
+    }
+
+    /**
+     * 用户状态或角色变更后移除缓存
+     * @param username 用户名
+     */
+    public void evictUser(String username) {
+        userCache.invalidate(username);
+    }
+
+    private AuthenticatedUser loadFromDatabase(String username) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
         
@@ -27,7 +55,6 @@ public class CustomUserDetailsService implements UserDetailsService {
                 new SimpleGrantedAuthority("ROLE_" + user.getRole().name())
         );
         
-        return new org.springframework.security.core.userdetails.User(
-                user.getUsername(), user.getPasswordHash(), authorities);
+        return new AuthenticatedUser(user.getId(), user.getUsername(), user.getPasswordHash(), authorities);
     }
-}
\ No newline at end of file
+}
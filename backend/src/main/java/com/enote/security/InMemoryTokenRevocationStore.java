@@ -0,0 +1,52 @@
+package com.enote.security;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 进程内注销记录存储，适用于单实例部署或本地开发；重启后记录丢失
+ */
+@Component
+@ConditionalOnProperty(name = "security.revocation.store", havingValue = "memory")
+public class InMemoryTokenRevocationStore implements TokenRevocationStore {
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    @Override
+    public void revoke(String tokenHash, LocalDateTime expiresAt) {
+        entries.put(tokenHash, new Entry(expiresAt, LocalDateTime.now()));
+    }
+
+    @Override
+    public boolean isRevoked(String tokenHash, LocalDateTime now) {
+        Entry entry = entries.get(tokenHash);
+        return entry != null && entry.expiresAt().isAfter(now);
+    }
+
+    @Override
+    public List<String> findRevokedSince(LocalDateTime since, LocalDateTime now) {
+        List<String> hashes = new ArrayList<>();
+        for (Map.Entry<String, Entry> e : entries.entrySet()) {
+            if (!e.getValue().revokedAt().isBefore(since) && e.getValue().expiresAt().isAfter(now)) {
+                hashes.add(e.getKey());
+            }
+        }
+        return hashes;
+    }
+
+    @Override
+    public int purgeExpired(LocalDateTime now) {
+        int before = entries.size();
+        entries.values().removeIf(entry -> !entry.expiresAt().isAfter(now));
+        return before - entries.size();
+    }
+
+    private record Entry(LocalDateTime expiresAt, LocalDateTime revokedAt) {
+    }
+}
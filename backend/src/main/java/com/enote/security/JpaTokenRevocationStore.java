@@ -0,0 +1,46 @@
+package com.enote.security;
+
+import com.enote.entity.RevokedToken;
+import com.enote.repository.RevokedTokenRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 基于数据库表的注销记录存储，多实例共享且重启后不丢失
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "security.revocation.store", havingValue = "jdbc", matchIfMissing = true)
+public class JpaTokenRevocationStore implements TokenRevocationStore {
+
+    private final RevokedTokenRepository revokedTokenRepository;
+
+    @Override
+    @Transactional
+    public void revoke(String tokenHash, LocalDateTime expiresAt) {
+        revokedTokenRepository.save(new RevokedToken(tokenHash, expiresAt, LocalDateTime.now()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean isRevoked(String tokenHash, LocalDateTime now) {
+        return revokedTokenRepository.existsByTokenHashAndExpiresAtAfter(tokenHash, now);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<String> findRevokedSince(LocalDateTime since, LocalDateTime now) {
+        return revokedTokenRepository.findActiveHashesRevokedSince(since, now);
+    }
+
+    @Override
+    @Transactional
+    public int purgeExpired(LocalDateTime now) {
+        return revokedTokenRepository.deleteExpired(now);
+    }
+}
@@ -23,10 +23,10 @@ public class JwtRequestFilter extends OncePerRequestFilter {
     private UserDetailsService userDetailsService;
 
     @Autowired
-    private JwtTokenUtil jwtTokenUtil;
+    private TokenBlacklistService tokenBlacklistService;
 
     @Autowired
-    private TokenBlacklistService tokenBlacklistService;
+    private VerifiedTokenCache verifiedTokenCache;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
@@ -39,30 +39,36 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 
         if (requestTokenHeader != null && requestTokenHeader.startsWith("Bearer ")) {
             jwt = requestTokenHeader.substring(7);
+            String tokenHash = TokenHashes.sha256Hex(jwt);
             try {
                 // 检查token是否在黑名单中
-                if (tokenBlacklistService.isBlacklisted(jwt)) {
+                if (tokenBlacklistService.isBlacklisted(tokenHash)) {
                     logger.warn("Blocked blacklisted token");
                     response.setStatus(HttpStatus.UNAUTHORIZED.value());
                     response.getWriter().write("Token is invalid or has been logged out");
                     return;
                 }
                 
-                username = jwtTokenUtil.extractUsername(jwt);
+                // 命中缓存时无需再次解析令牌；令牌无效或过期时返回 null
+                VerifiedToken verified = verifiedTokenCache.verify(tokenHash, jwt);
+                if (verified != null) {
+                    username = verified.username();
+                } else {
+                    logger.warn("JWT Token验证失败");
+                }
             } catch (Exception e) {
                 logger.error("JWT Token验证失败", e);
             }
         }
 
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            // 签名与有效期已在上一步校验，用户详情来自带失效机制的缓存
             UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
 
-            if (jwtTokenUtil.validateToken(jwt, userDetails)) {
-                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-            }
+            UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                    userDetails, null, userDetails.getAuthorities());
+            authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(authentication);
         }
         chain.doFilter(request, response);
     }
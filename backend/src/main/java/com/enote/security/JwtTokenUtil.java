@@ -1,9 +1,11 @@
 package com.enote.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
@@ -24,6 +26,16 @@ public class JwtTokenUtil {
     @Value("${jwt.expiration}")
     private Long expiration;
 
+    // 签名密钥和解析器均为不可变对象，启动时构建一次后复用
+    private Key signingKey;
+    private JwtParser jwtParser;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        jwtParser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+    }
+
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
         return createToken(claims, userDetails.getUsername());
@@ -43,8 +55,7 @@ public class JwtTokenUtil {
     }
 
     private Key getSigningKey() {
-        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return signingKey;
     }
 
     public String extractUsername(String token) {
@@ -61,15 +72,22 @@ public class JwtTokenUtil {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder().setSigningKey(getSigningKey()).build().parseClaimsJws(token).getBody();
+        return jwtParser.parseClaimsJws(token).getBody();
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    /**
+     * 校验签名和有效期，只解析一次令牌
+     * @param token JWT 令牌
+     * @return 校验通过的令牌信息
+     * @throws io.jsonwebtoken.JwtException 令牌无效或已过期
+     */
+    public VerifiedToken verify(String token) {
+        final Claims claims = extractAllClaims(token);
+        return new VerifiedToken(claims.getSubject(), claims.getExpiration().getTime());
     }
 
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        final Claims claims = extractAllClaims(token);
+        return (claims.getSubject().equals(userDetails.getUsername()) && !claims.getExpiration().before(new Date()));
     }
 }
\ No newline at end of file
@@ -0,0 +1,113 @@
+package com.enote.security;
+
+import com.enote.entity.UserNotePermission.PermissionType;
+import com.enote.repository.NoteRepository;
+import com.enote.repository.UserNotePermissionRepository;
+import com.enote.repository.projection.NoteGrantView;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 笔记访问权限判定
+ * 所有者拥有编辑权限，其他用户以 user_note_permissions 中的授权为准。
+ * 每个用户获得的全部授权作为一个集合缓存，一次查询加载，授权变更后按用户失效；
+ * 调用方已知笔记所有者时，判定不需要访问数据库
+ */
+@Component
+public class NotePermissionEvaluator {
+
+    private final NoteRepository noteRepository;
+    private final UserNotePermissionRepository userNotePermissionRepository;
+    private final LoadingCache<Long, Map<Long, PermissionType>> grantCache;
+
+    public NotePermissionEvaluator(NoteRepository noteRepository,
+                                   UserNotePermissionRepository userNotePermissionRepository,
+                                   @Value("${security.permission-cache.max-size:10000}") long maxSize,
+                                   @Value("${security.permission-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.noteRepository = noteRepository;
+        this.userNotePermissionRepository = userNotePermissionRepository;
+        // 其他实例上的授权变更最迟在 TTL 后生效
+        this.grantCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build(this::loadGrants);
+    }
+
+    /**
+     * 用户对笔记的权限，需要查询笔记所有者
+     * @param noteId 笔记ID
+     * @param userId 用户ID
+     * @return 权限类型；笔记不存在、已删除或没有授权时返回空
+     */
+    public Optional<PermissionType> resolve(Long noteId, Long userId) {
+        return noteRepository.findActiveOwnerId(noteId)
+                .flatMap(ownerId -> resolve(noteId, ownerId, userId));
+    }
+
+    /**
+     * 用户对笔记的权限，所有者已知时不访问数据库
+     * @param noteId 笔记ID
+     * @param ownerId 笔记所有者ID
+     * @param userId 用户ID
+     * @return 权限类型；没有授权时返回空
+     */
+    public Optional<PermissionType> resolve(Long noteId, Long ownerId, Long userId) {
+        if (ownerId.equals(userId)) {
+            return Optional.of(PermissionType.EDIT);
+        }
+        return Optional.ofNullable(grantsOf(userId).get(noteId));
+    }
+
+    public boolean canRead(Long noteId, Long userId) {
+        return resolve(noteId, userId).isPresent();
+    }
+
+    public boolean canEdit(Long noteId, Long userId) {
+        return resolve(noteId, userId).filter(type -> type == PermissionType.EDIT).isPresent();
+    }
+
+    /**
+     * 校验权限，不满足时抛出异常
+     * @param noteId 笔记ID
+     * @param ownerId 笔记所有者ID
+     * @param userId 用户ID
+     * @param required 需要的权限
+     * @throws IllegalStateException 没有所需权限
+     */
+    public void check(Long noteId, Long ownerId, Long userId, PermissionType required) {
+        Optional<PermissionType> granted = resolve(noteId, ownerId, userId);
+        if (granted.isEmpty() || (required == PermissionType.EDIT && granted.get() != PermissionType.EDIT)) {
+            throw new IllegalStateException("You don't have permission to access this note");
+        }
+    }
+
+    /**
+     * 用户获得的全部授权（笔记ID -> 权限），渲染共享笔记列表时一次取得，不逐篇查询
+     */
+    public Map<Long, PermissionType> grantsOf(Long userId) {
+        return grantCache.get(userId);
+    }
+
+    /**
+     * 用户获得的授权发生变化后移除缓存
+     * @param userId 被授权用户ID
+     */
+    public void evict(Long userId) {
+        grantCache.invalidate(userId);
+    }
+
+    private Map<Long, PermissionType> loadGrants(Long userId) {
+        Map<Long, PermissionType> grants = new HashMap<>();
+        for (NoteGrantView grant : userNotePermissionRepository.findGrantsByUserId(userId)) {
+            grants.put(grant.getNoteId(), grant.getPermissionType());
+        }
+        return Map.copyOf(grants);
+    }
+}
@@ -10,6 +10,7 @@ import org.springframework.stereotype.Component;
 /**
  * 安全相关工具类
  * 用于获取当前登录用户等安全相关操作
+ * 当前用户信息来自请求过滤器放入安全上下文的 AuthenticatedUser，同一请求内的多次调用不访问数据库
  */
 @Component
 public class SecurityUtils {
@@ -19,19 +20,12 @@ public class SecurityUtils {
 
     /**
      * 获取当前登录用户
+     * 返回的是延迟加载的实体引用，仅访问ID时不会触发查询，适合用于设置关联关系
      * @return 当前登录的用户实体
      * @throws IllegalStateException 如果未登录或用户不存在
      */
     public User getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        
-        if (authentication == null || !authentication.isAuthenticated()) {
-            throw new IllegalStateException("用户未登录");
-        }
-        
-        String username = authentication.getName();
-        return userRepository.findByUsername(username)
-                .orElseThrow(() -> new IllegalStateException("用户不存在"));
+        return userRepository.getReferenceById(getCurrentUserId());
     }
     
     /**
@@ -40,7 +34,25 @@ public class SecurityUtils {
      * @throws IllegalStateException 如果未登录或用户不存在
      */
     public Long getCurrentUserId() {
-        return getCurrentUser().getId();
+        return getAuthenticatedUser().getId();
+    }
+
+    /**
+     * 获取当前登录用户名
+     * @return 当前登录的用户名
+     * @throws IllegalStateException 如果未登录
+     */
+    public String getCurrentUsername() {
+        return getAuthenticatedUser().getUsername();
+    }
+
+    /**
+     * 判断指定用户是否为当前登录用户
+     * @param userId 用户ID
+     * @return 是当前用户返回true
+     */
+    public boolean isCurrentUser(Long userId) {
+        return getCurrentUserId().equals(userId);
     }
     
     /**
@@ -51,4 +63,14 @@ public class SecurityUtils {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         return authentication != null && authentication.isAuthenticated();
     }
-}
\ No newline at end of file
+
+    private AuthenticatedUser getAuthenticatedUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        
+        if (authentication == null || !authentication.isAuthenticated()
+                || !(authentication.getPrincipal() instanceof AuthenticatedUser principal)) {
+            throw new IllegalStateException("用户未登录");
+        }
+        return principal;
+    }
+}
@@ -1,28 +1,122 @@
 package com.enote.security;
 
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.util.concurrent.ConcurrentHashMap;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * 令牌黑名单服务
+ * 注销记录保存在 {@link TokenRevocationStore} 中；本地布隆过滤器挡住绝大多数未注销的请求，
+ * 只有过滤器命中时才查询存储。其他实例的注销记录通过定时增量同步进入本地过滤器。
+ */
+@Slf4j
 @Service
 public class TokenBlacklistService {
-    private final ConcurrentHashMap<String, Long> blacklistedTokens = new ConcurrentHashMap<>();
 
-    public void blacklistToken(String token, Long expirationTime) {
-        blacklistedTokens.put(token, expirationTime);
+    // 增量同步时向前多取一段时间，覆盖各实例间的时钟偏差和未提交的事务
+    private static final Duration SYNC_OVERLAP = Duration.ofSeconds(30);
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final TokenRevocationStore revocationStore;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+
+    // 同步和重建在持锁期间查询存储；使用 ReentrantLock 而非 synchronized，等待的虚拟线程不会固定载体线程
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile TokenBloomFilter filter;
+    private LocalDateTime lastSync;
+
+    public TokenBlacklistService(TokenRevocationStore revocationStore,
+                                 @Value("${security.revocation.bloom.expected-insertions:100000}") long expectedInsertions,
+                                 @Value("${security.revocation.bloom.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.revocationStore = revocationStore;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
     }
 
-    public boolean isBlacklisted(String token) {
-        if (!blacklistedTokens.containsKey(token)) {
-            return false;
+    @PostConstruct
+    public void init() {
+        rebuild();
+    }
+
+    /**
+     * 注销令牌
+     * @param tokenHash 令牌摘要
+     * @param expiresAt 令牌过期时间
+     */
+    public void blacklistToken(String tokenHash, LocalDateTime expiresAt) {
+        revocationStore.revoke(tokenHash, expiresAt);
+        lock.lock();
+        try {
+            filter.put(tokenHash);
+        } finally {
+            lock.unlock();
         }
-        
-        // 如果token已过期，从黑名单中移除
-        if (System.currentTimeMillis() > blacklistedTokens.get(token)) {
-            blacklistedTokens.remove(token);
+    }
+
+    /**
+     * 判断令牌是否已注销
+     * @param tokenHash 令牌摘要
+     */
+    public boolean isBlacklisted(String tokenHash) {
+        if (!filter.mightContain(tokenHash)) {
             return false;
         }
-        
-        return true;
+        return revocationStore.isRevoked(tokenHash, LocalDateTime.now());
+    }
+
+    /**
+     * 将其他实例新增的注销记录同步到本地过滤器
+     */
+    @Scheduled(fixedDelayString = "${security.revocation.sync-interval-ms:5000}",
+               initialDelayString = "${security.revocation.sync-interval-ms:5000}")
+    public void syncFromStore() {
+        lock.lock();
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            List<String> hashes = revocationStore.findRevokedSince(lastSync.minus(SYNC_OVERLAP), now);
+            for (String hash : hashes) {
+                filter.put(hash);
+            }
+            lastSync = now;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 清理过期的注销记录，并重建过滤器释放过期摘要占用的位
+     */
+    @Scheduled(fixedDelayString = "${security.revocation.sweep-interval-ms:600000}",
+               initialDelayString = "${security.revocation.sweep-interval-ms:600000}")
+    public void sweepExpired() {
+        int removed = revocationStore.purgeExpired(LocalDateTime.now());
+        if (removed > 0) {
+            log.info("Purged {} expired revoked tokens", removed);
+        }
+        rebuild();
+    }
+
+    private void rebuild() {
+        lock.lock();
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            List<String> active = revocationStore.findRevokedSince(BEGINNING, now);
+            TokenBloomFilter fresh = new TokenBloomFilter(Math.max(expectedInsertions, active.size() * 2L), falsePositiveRate);
+            for (String hash : active) {
+                fresh.put(hash);
+            }
+            filter = fresh;
+            lastSync = now;
+        } finally {
+            lock.unlock();
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,49 @@
+package com.enote.security;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 令牌摘要布隆过滤器
+ * 输入本身是均匀分布的 SHA-256 十六进制摘要，直接取其前 128 位做双重散列，查询过程不分配对象。
+ * 返回 false 表示一定未注销；返回 true 时需再查询存储确认。
+ */
+final class TokenBloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+
+    TokenBloomFilter(long expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(1, expectedInsertions);
+        long bits = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int wordCount = (int) Math.max(1, (bits + 63) / 64);
+        this.words = new AtomicLongArray(wordCount);
+        this.bitCount = (long) wordCount * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+    }
+
+    void put(String tokenHash) {
+        long h1 = Long.parseUnsignedLong(tokenHash, 0, 16, 16);
+        long h2 = Long.parseUnsignedLong(tokenHash, 16, 32, 16);
+        long combined = h1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = (combined & Long.MAX_VALUE) % bitCount;
+            words.accumulateAndGet((int) (bit >>> 6), 1L << bit, (a, b) -> a | b);
+            combined += h2;
+        }
+    }
+
+    boolean mightContain(String tokenHash) {
+        long h1 = Long.parseUnsignedLong(tokenHash, 0, 16, 16);
+        long h2 = Long.parseUnsignedLong(tokenHash, 16, 32, 16);
+        long combined = h1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = (combined & Long.MAX_VALUE) % bitCount;
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+            combined += h2;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,35 @@
+package com.enote.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * 令牌摘要工具
+ * 缓存与黑名单均以令牌的 SHA-256 摘要作为键，避免在内存中保存令牌原文
+ */
+public final class TokenHashes {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private TokenHashes() {
+    }
+
+    /**
+     * 计算令牌的 SHA-256 摘要
+     * @param token 令牌原文
+     * @return 64 位十六进制字符串
+     */
+    public static String sha256Hex(String token) {
+        MessageDigest digest = SHA_256.get();
+        digest.reset();
+        return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,34 @@
+package com.enote.security;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 令牌注销记录存储
+ * 所有方法均以令牌的 SHA-256 摘要为键，不接触令牌原文
+ */
+public interface TokenRevocationStore {
+
+    /**
+     * 记录一个已注销的令牌
+     * @param tokenHash 令牌摘要
+     * @param expiresAt 令牌过期时间，过期后记录可被清理
+     */
+    void revoke(String tokenHash, LocalDateTime expiresAt);
+
+    /**
+     * 判断令牌是否已注销且尚未过期
+     */
+    boolean isRevoked(String tokenHash, LocalDateTime now);
+
+    /**
+     * 读取指定时间之后注销且尚未过期的令牌摘要，用于重建或增量同步本地过滤器
+     */
+    List<String> findRevokedSince(LocalDateTime since, LocalDateTime now);
+
+    /**
+     * 清理已过期的注销记录
+     * @return 清理的条数
+     */
+    int purgeExpired(LocalDateTime now);
+}
@@ -0,0 +1,39 @@
+package com.enote.security;
+
+import com.enote.entity.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 用户实体监听器
+ * 用户信息（状态、角色、密码等）变更提交后移除用户详情缓存
+ */
+@Component
+public class UserCacheEvictionListener {
+
+    private final CustomUserDetailsService userDetailsService;
+
+    public UserCacheEvictionListener(@Lazy CustomUserDetailsService userDetailsService) {
+        this.userDetailsService = userDetailsService;
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void onUserChanged(User user) {
+        String username = user.getUsername();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    userDetailsService.evictUser(username);
+                }
+            });
+        } else {
+            userDetailsService.evictUser(username);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.enote.security;
+
+/**
+ * 已通过签名校验的令牌信息
+ * @param username 令牌主体（用户名）
+ * @param expiresAt 过期时间（毫秒时间戳）
+ */
+public record VerifiedToken(String username, long expiresAt) {
+
+    public boolean isExpired(long now) {
+        return now >= expiresAt;
+    }
+}
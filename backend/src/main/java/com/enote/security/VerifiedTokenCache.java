@@ -0,0 +1,97 @@
+package com.enote.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 已校验令牌缓存
+ * 以令牌摘要为键，条目在令牌过期时自动失效；校验失败的令牌不缓存。
+ * 未命中时的签名校验耗时记录为 enote.jwt.verification，缓存命中率记录在 cache.* 指标（cache=jwt-verified）
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final JwtTokenUtil jwtTokenUtil;
+    private final Cache<String, VerifiedToken> cache;
+    private final Timer validTimer;
+    private final Timer invalidTimer;
+
+    public VerifiedTokenCache(JwtTokenUtil jwtTokenUtil, MeterRegistry meterRegistry,
+                              @Value("${jwt.cache.max-size:10000}") long maxSize) {
+        this.jwtTokenUtil = jwtTokenUtil;
+        this.validTimer = verificationTimer(meterRegistry, "valid");
+        this.invalidTimer = verificationTimer(meterRegistry, "invalid");
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+                        long remaining = value.expiresAt() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remaining));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, VerifiedToken value, long currentTime,
+                                                  long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, VerifiedToken value, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt-verified");
+    }
+
+    /**
+     * 获取令牌的校验结果，未命中时解析令牌并缓存
+     * @param tokenHash 令牌摘要
+     * @param token 令牌原文
+     * @return 校验结果；令牌无效或已过期时返回 null
+     */
+    public VerifiedToken verify(String tokenHash, String token) {
+        VerifiedToken verified = cache.get(tokenHash, key -> {
+            long start = System.nanoTime();
+            try {
+                VerifiedToken result = jwtTokenUtil.verify(token);
+                validTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return result;
+            } catch (JwtException | IllegalArgumentException e) {
+                invalidTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return null;
+            }
+        });
+        if (verified == null || verified.isExpired(System.currentTimeMillis())) {
+            return null;
+        }
+        return verified;
+    }
+
+    private static Timer verificationTimer(MeterRegistry meterRegistry, String result) {
+        return Timer.builder("enote.jwt.verification")
+                .description("JWT signature verification on cache miss")
+                .tag("result", result)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * 移除令牌的缓存条目（例如注销时）
+     */
+    public void invalidate(String tokenHash) {
+        cache.invalidate(tokenHash);
+    }
+}
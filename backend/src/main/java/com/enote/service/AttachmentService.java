@@ -0,0 +1,61 @@
+package com.enote.service;
+
+import com.enote.dto.AttachmentResponse;
+import com.enote.dto.AttachmentUploadRequest;
+import com.enote.dto.AttachmentUploadResponse;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 附件服务
+ * 小文件通过 multipart 一次上传；大文件先创建上传会话再分块续传，完成后按内容摘要去重存储
+ */
+public interface AttachmentService {
+
+    List<AttachmentResponse> getAttachments(Long noteId);
+
+    AttachmentResponse upload(Long noteId, MultipartFile file) throws IOException;
+
+    AttachmentUploadResponse createUpload(Long noteId, AttachmentUploadRequest request) throws IOException;
+
+    AttachmentUploadResponse getUpload(String uploadId) throws IOException;
+
+    /**
+     * 从指定偏移追加一块数据
+     * @param uploadId 上传ID
+     * @param offset 本块的起始偏移，必须等于服务端已接收的字节数
+     * @param body 数据流
+     * @return 追加后的上传进度
+     */
+    AttachmentUploadResponse appendUpload(String uploadId, long offset, InputStream body) throws IOException;
+
+    AttachmentResponse completeUpload(String uploadId) throws IOException;
+
+    void abortUpload(String uploadId) throws IOException;
+
+    void deleteAttachment(Long id);
+
+    /**
+     * 读取附件的下载信息并校验所有权
+     */
+    Content getContent(Long id);
+
+    /**
+     * 将附件内容的指定区间写入目标通道
+     */
+    long transferTo(Content content, long position, long count, WritableByteChannel target) throws IOException;
+
+    /**
+     * 附件内容的本地路径，存储不在本地时返回空
+     */
+    Optional<Path> localPath(Content content);
+
+    record Content(String fileName, String fileType, long size, String hash) {
+    }
+}
@@ -7,6 +7,8 @@ import com.enote.entity.User;
 import com.enote.repository.UserRepository;
 import com.enote.security.JwtTokenUtil;
 import com.enote.security.TokenBlacklistService;
+import com.enote.security.TokenHashes;
+import com.enote.security.VerifiedTokenCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -17,6 +19,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 
 @Service
 public class AuthService {
@@ -36,6 +39,9 @@ public class AuthService {
     @Autowired
     private TokenBlacklistService tokenBlacklistService;
 
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+
     public AuthResponse register(RegisterRequest registerRequest) {
         // 检查用户名和邮箱是否已存在
         if (userRepository.existsByUsername(registerRequest.getUsername())) {
@@ -106,13 +112,16 @@ public class AuthService {
         
         // 将token加入黑名单
         if (token != null) {
+            String tokenHash = TokenHashes.sha256Hex(token);
+            LocalDateTime expiresAt;
             try {
-                Long expirationTime = jwtTokenUtil.extractExpiration(token).getTime();
-                tokenBlacklistService.blacklistToken(token, expirationTime);
+                expiresAt = LocalDateTime.ofInstant(jwtTokenUtil.extractExpiration(token).toInstant(), ZoneId.systemDefault());
             } catch (Exception e) {
                 // 如果token解析失败，使用24小时后的时间
-                tokenBlacklistService.blacklistToken(token, System.currentTimeMillis() + 86400000);
+                expiresAt = LocalDateTime.now().plusHours(24);
             }
+            tokenBlacklistService.blacklistToken(tokenHash, expiresAt);
+            verifiedTokenCache.invalidate(tokenHash);
         }
         
         // 清除安全上下文
@@ -0,0 +1,44 @@
+package com.enote.service;
+
+import com.enote.dto.BlockPatchRequest;
+import com.enote.dto.BlockPatchResponse;
+import com.enote.dto.BlockResponse;
+
+import java.util.List;
+
+/**
+ * 笔记区块服务接口
+ * 编辑器按区块读取和增量保存笔记，单个区块的修改只写入对应的行
+ */
+public interface BlockService {
+
+    /**
+     * 按顺序获取笔记的全部区块；笔记尚未拆分为区块时按段落拆分一次
+     * @param noteId 笔记ID
+     * @return 区块列表
+     */
+    List<BlockResponse> getBlocks(Long noteId);
+
+    /**
+     * 执行一组区块编辑操作
+     * @param noteId 笔记ID
+     * @param request 操作列表
+     * @return 每个操作对应的区块ID
+     */
+    BlockPatchResponse applyPatch(Long noteId, BlockPatchRequest request);
+
+    /**
+     * 读取区块，不校验权限；供已在会话建立时完成权限校验的协作编辑使用
+     * @param noteId 笔记ID
+     * @return 区块列表
+     */
+    List<BlockResponse> loadBlocks(Long noteId);
+
+    /**
+     * 执行一组区块编辑操作，不校验权限；供已在会话建立时完成权限校验的协作编辑使用
+     * @param noteId 笔记ID
+     * @param request 操作列表
+     * @return 每个操作对应的区块ID
+     */
+    BlockPatchResponse applyAuthorizedPatch(Long noteId, BlockPatchRequest request);
+}
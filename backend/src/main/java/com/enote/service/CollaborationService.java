@@ -0,0 +1,44 @@
+package com.enote.service;
+
+import com.enote.dto.CollabOpsMessage;
+import com.enote.dto.CollabSnapshot;
+import com.enote.security.AuthenticatedUser;
+
+/**
+ * 协作编辑服务
+ * 每篇被打开的笔记在内存中维护一个会话：区块操作按到达顺序编号并广播，内容更新先合并在会话中，
+ * 由定时任务批量写入数据库；结构性操作（插入、移动、删除）立即写入以获得区块ID
+ */
+public interface CollaborationService {
+
+    /**
+     * 当前会话中的笔记快照，包含尚未写入数据库的内容更新
+     * @param noteId 笔记ID，订阅时已校验读权限
+     */
+    CollabSnapshot snapshot(Long noteId);
+
+    /**
+     * 连接订阅笔记广播后加入会话
+     * @param noteId 笔记ID
+     * @param connectionId STOMP 会话ID
+     * @param subscriptionId 订阅ID
+     * @param user 当前用户
+     */
+    void join(Long noteId, String connectionId, String subscriptionId, AuthenticatedUser user);
+
+    void leave(String connectionId, String subscriptionId);
+
+    void disconnect(String connectionId);
+
+    /**
+     * 应用一组区块操作；同一连接的消息按 seq 顺序处理
+     */
+    void applyOperations(Long noteId, String connectionId, AuthenticatedUser user, CollabOpsMessage message);
+
+    void updatePresence(Long noteId, String connectionId, Long activeBlockId);
+
+    /**
+     * 将所有会话中缓冲的内容更新写入数据库
+     */
+    void flush();
+}
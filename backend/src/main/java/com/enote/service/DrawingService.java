@@ -0,0 +1,50 @@
+package com.enote.service;
+
+import com.enote.dto.DrawingRequest;
+import com.enote.dto.DrawingResponse;
+import com.enote.dto.DrawingStrokesRequest;
+import com.enote.dto.DrawingStrokesResponse;
+
+import java.util.List;
+
+/**
+ * 绘图服务
+ * 笔画以追加方式写入压缩的笔画段，定时合并进 gzip 压缩的 SVG 快照；读取时在快照后渲染未合并的笔画
+ */
+public interface DrawingService {
+
+    List<DrawingResponse> getDrawings(Long noteId);
+
+    DrawingResponse getDrawing(Long id);
+
+    DrawingResponse createDrawing(Long noteId, DrawingRequest request);
+
+    /**
+     * 整体替换绘图内容，未合并的笔画一并丢弃
+     */
+    DrawingResponse replaceDrawing(Long id, DrawingRequest request);
+
+    void deleteDrawing(Long id);
+
+    /**
+     * 追加笔画，按请求中的顺序分配连续序号
+     * @return 追加后的绘图元数据，新笔画的序号为 lastSeq - 笔画数 + 1 到 lastSeq
+     */
+    DrawingResponse appendStrokes(Long id, DrawingStrokesRequest request);
+
+    /**
+     * 读取序号大于 after 的笔画
+     */
+    DrawingStrokesResponse getStrokes(Long id, long after);
+
+    /**
+     * 读取整篇 SVG
+     */
+    Svg getSvg(Long id);
+
+    /**
+     * SVG 文档；没有未合并的笔画时直接返回存储的 gzip 数据，gzipped 为 true
+     */
+    record Svg(long lastSeq, byte[] data, boolean gzipped) {
+    }
+}
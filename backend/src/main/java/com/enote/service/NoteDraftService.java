@@ -0,0 +1,47 @@
+package com.enote.service;
+
+import com.enote.dto.NoteDraftResponse;
+import com.enote.dto.NoteRequest;
+
+/**
+ * 笔记自动保存服务接口
+ * 草稿写入本地追加日志后即确认，同一笔记的连续草稿在内存中合并，
+ * 空闲、超过最长延迟或显式提交时一次写回数据库
+ */
+public interface NoteDraftService {
+
+    /**
+     * 保存草稿，只接受标题和正文；分类和标签通过整篇更新修改
+     * @param noteId 笔记ID
+     * @param request 草稿内容
+     * @param expectedVersion If-Match 中的版本，仅在笔记没有缓冲中的草稿时校验；为 null 时回写不校验版本
+     * @return 草稿确认
+     */
+    NoteDraftResponse saveDraft(Long noteId, NoteRequest request, Long expectedVersion);
+
+    /**
+     * 获取尚未写回的草稿（含标题和正文），用于冲突后取回内容
+     */
+    NoteDraftResponse getDraft(Long noteId);
+
+    /**
+     * 立即写回草稿；没有草稿时直接返回
+     * @throws com.enote.exception.PreconditionFailedException 草稿与笔记的新版本冲突
+     */
+    void commitDraft(Long noteId);
+
+    /**
+     * 丢弃草稿
+     */
+    void discardDraft(Long noteId);
+
+    /**
+     * 读取笔记前写回缓冲中的草稿，仅对有读权限的调用方生效；冲突的草稿保持不变
+     */
+    void flushPending(Long noteId);
+
+    /**
+     * 整篇保存或删除笔记时丢弃缓冲中的草稿，不做权限校验
+     */
+    void discardPending(Long noteId);
+}
@@ -0,0 +1,140 @@
+package com.enote.service;
+
+import com.enote.dto.NoteResponse;
+import com.enote.exception.PreconditionFailedException;
+import org.springframework.data.domain.Page;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * 笔记 ETag 工具
+ * 单篇笔记使用强校验的 "id-version"；列表页使用由页内各笔记 id/version 与总数计算的弱 ETag。
+ * 完整表示内嵌分类名和标签名，重命名分类或标签不会改变笔记版本，因此完整表示的 ETag 额外计入引用签名，
+ * 即 "id-version-签名"；只含分类ID、标签ID的摘要表示不需要
+ */
+public final class NoteETags {
+
+    private static final long PRIME = 1_000_003L;
+
+    private NoteETags() {
+    }
+
+    public static String of(Long noteId, Long version) {
+        return "\"" + noteId + "-" + (version != null ? version : 0L) + "\"";
+    }
+
+    /**
+     * 完整表示的 ETag，If-Match 时仍按其中的版本号校验
+     */
+    public static String of(Long noteId, Long version, long references) {
+        return "\"" + noteId + "-" + (version != null ? version : 0L) + "-" + Long.toHexString(references) + "\"";
+    }
+
+    public static String of(NoteResponse note) {
+        return of(note.getId(), note.getVersion(), references(note));
+    }
+
+    /**
+     * 笔记引用的分类和标签的签名，与标签顺序无关
+     * @param categoryId 分类ID，未分类为 null
+     * @param categoryName 分类名
+     * @param tagNames 标签ID到标签名的映射
+     */
+    public static long references(Long categoryId, String categoryName, Map<Long, String> tagNames) {
+        long hash = categoryId != null ? categoryId : 0L;
+        hash = hash * PRIME ^ Objects.hashCode(categoryName);
+        for (Map.Entry<Long, String> tag : new TreeMap<>(tagNames).entrySet()) {
+            hash = hash * PRIME ^ tag.getKey();
+            hash = hash * PRIME ^ Objects.hashCode(tag.getValue());
+        }
+        return hash;
+    }
+
+    public static long references(NoteResponse note) {
+        Map<Long, String> tagNames = new TreeMap<>();
+        if (note.getTags() != null) {
+            note.getTags().forEach(tag -> tagNames.put(tag.getId(), tag.getName()));
+        }
+        NoteResponse.CategoryDTO category = note.getCategory();
+        return references(category != null ? category.getId() : null,
+                category != null ? category.getName() : null, tagNames);
+    }
+
+    /**
+     * 计算列表页的版本标记，页内任一笔记的版本变化或总数变化都会改变结果
+     */
+    public static <T> String pageToken(Page<T> page, Function<T, Long> id, Function<T, Long> version) {
+        return pageToken(page, id, version, null);
+    }
+
+    /**
+     * 计算完整表示列表页的版本标记，页内笔记引用的分类名、标签名变化也会改变结果
+     * @param references 笔记的引用签名，为 null 时不计入
+     */
+    public static <T> String pageToken(Page<T> page, Function<T, Long> id, Function<T, Long> version,
+                                       Function<T, Long> references) {
+        long hash = page.getTotalElements();
+        for (T item : page.getContent()) {
+            hash = hash * PRIME ^ id.apply(item);
+            Long v = version.apply(item);
+            hash = hash * PRIME ^ (v != null ? v : 0L);
+            if (references != null) {
+                hash = hash * PRIME ^ references.apply(item);
+            }
+        }
+        return Long.toHexString(hash);
+    }
+
+    public static String ofPage(String view, String token) {
+        return "W/\"" + view + "-" + token + "\"";
+    }
+
+    /**
+     * If-None-Match 使用弱比较：忽略 W/ 前缀，任一标签相同即视为匹配
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String current = stripWeak(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if ("*".equals(tag) || stripWeak(tag).equals(current)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 从 If-Match 中解析期望的版本号，完整表示 ETag 中的引用签名不参与校验
+     * @return 期望版本；"*" 表示不限版本，返回 null
+     * @throws PreconditionFailedException 没有与该笔记对应的强 ETag
+     */
+    public static Long expectedVersion(String ifMatch, Long noteId) {
+        String prefix = "\"" + noteId + "-";
+        for (String candidate : ifMatch.split(",")) {
+            String tag = candidate.trim();
+            if ("*".equals(tag)) {
+                return null;
+            }
+            if (tag.startsWith(prefix) && tag.endsWith("\"") && tag.length() > prefix.length() + 1) {
+                String rest = tag.substring(prefix.length(), tag.length() - 1);
+                int end = rest.indexOf('-');
+                try {
+                    return Long.parseLong(end >= 0 ? rest.substring(0, end) : rest);
+                } catch (NumberFormatException e) {
+                    break;
+                }
+            }
+        }
+        throw new PreconditionFailedException("If-Match does not match the current note");
+    }
+
+    private static String stripWeak(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+}
@@ -0,0 +1,35 @@
+package com.enote.service;
+
+import com.enote.dto.NoteRevisionDiffResponse;
+import com.enote.dto.NoteRevisionResponse;
+
+import java.util.List;
+
+/**
+ * 笔记修订历史服务接口
+ */
+public interface NoteRevisionService {
+
+    /**
+     * 记录笔记的新版本，需在写入笔记的同一事务中调用；标题和正文均未变化时不记录
+     * @param noteId 笔记ID
+     * @param title 标题
+     * @param content 正文
+     */
+    void record(Long noteId, String title, String content);
+
+    /**
+     * 获取笔记的修订版本列表（新版本在前），不含正文
+     */
+    List<NoteRevisionResponse> getRevisions(Long noteId);
+
+    /**
+     * 还原并返回指定版本的正文
+     */
+    NoteRevisionResponse getRevision(Long noteId, Integer revision);
+
+    /**
+     * 比较两个版本
+     */
+    NoteRevisionDiffResponse diff(Long noteId, Integer from, Integer to);
+}
@@ -0,0 +1,19 @@
+package com.enote.service;
+
+import com.enote.dto.NoteSearchResponse;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * 笔记全文检索服务接口
+ */
+public interface NoteSearchService {
+
+    /**
+     * 在当前用户的笔记中检索标题与内容
+     * @param query 查询语句
+     * @param pageable 分页参数
+     * @return 按相关度排序的检索结果
+     */
+    Page<NoteSearchResponse> search(String query, Pageable pageable);
+}
@@ -1,16 +1,29 @@
 package com.enote.service;
 
+import com.enote.dto.CursorPage;
 import com.enote.dto.NoteRequest;
 import com.enote.dto.NoteResponse;
+import com.enote.dto.NoteSummaryResponse;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 public interface NoteService {
     NoteResponse createNote(NoteRequest request);
     NoteResponse updateNote(Long id, NoteRequest request);
+    NoteResponse updateNote(Long id, NoteRequest request, Long expectedVersion);
     void deleteNote(Long id);
     NoteResponse getNoteById(Long id);
+    String getNoteETag(Long id);
+    String getNotesVersionTag(Pageable pageable, boolean withReferences);
+    String getNotesByCategoryVersionTag(Long categoryId, Pageable pageable, boolean withReferences);
+    String getNotesByTagVersionTag(Long tagId, Pageable pageable, boolean withReferences);
     Page<NoteResponse> getNotes(Pageable pageable);
     Page<NoteResponse> getNotesByCategory(Long categoryId, Pageable pageable);
     Page<NoteResponse> getNotesByTag(Long tagId, Pageable pageable);
+    Page<NoteSummaryResponse> getNoteSummaries(Pageable pageable);
+    Page<NoteSummaryResponse> getNoteSummariesByCategory(Long categoryId, Pageable pageable);
+    Page<NoteSummaryResponse> getNoteSummariesByTag(Long tagId, Pageable pageable);
+    CursorPage<NoteSummaryResponse> scrollNotes(String cursor, int size, boolean withTotal);
+    CursorPage<NoteSummaryResponse> scrollNotesByCategory(Long categoryId, String cursor, int size, boolean withTotal);
+    CursorPage<NoteSummaryResponse> scrollNotesByTag(Long tagId, String cursor, int size, boolean withTotal);
 }
\ No newline at end of file
@@ -0,0 +1,36 @@
+package com.enote.service;
+
+import com.enote.dto.NoteShareRequest;
+import com.enote.dto.NoteShareResponse;
+import com.enote.dto.SharedNoteResponse;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/**
+ * 笔记共享服务
+ * 所有者可以将笔记以只读或可编辑权限共享给其他用户
+ */
+public interface NoteShareService {
+
+    /**
+     * 笔记的授权列表，仅所有者可查看
+     */
+    List<NoteShareResponse> getShares(Long noteId);
+
+    /**
+     * 共享笔记，已共享给该用户时更新权限
+     */
+    NoteShareResponse share(Long noteId, NoteShareRequest request);
+
+    /**
+     * 撤销授权；所有者可撤销任意授权，被授权用户可以退出共享
+     */
+    void revoke(Long noteId, Long userId);
+
+    /**
+     * 共享给当前用户的笔记，按共享时间倒序分页
+     */
+    Page<SharedNoteResponse> getSharedWithMe(Pageable pageable);
+}
@@ -0,0 +1,29 @@
+package com.enote.service;
+
+import com.enote.dto.NoteImportResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * 笔记批量导入导出服务接口
+ * 数据格式为 NDJSON，每行一条 NoteTransferRecord
+ */
+public interface NoteTransferService {
+
+    /**
+     * 以流的方式导出当前用户的全部笔记
+     * @param out 输出流
+     * @throws IOException 写出失败
+     */
+    void exportNotes(OutputStream out) throws IOException;
+
+    /**
+     * 逐行解析并分批导入当前用户的笔记，单条记录出错不影响其他记录
+     * @param in 输入流
+     * @return 导入结果
+     * @throws IOException 读取失败
+     */
+    NoteImportResult importNotes(InputStream in) throws IOException;
+}
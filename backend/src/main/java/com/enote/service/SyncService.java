@@ -0,0 +1,38 @@
+package com.enote.service;
+
+import com.enote.dto.SyncResponse;
+import com.enote.entity.ChangeLogEntry.EntityType;
+
+import java.util.Collection;
+
+/**
+ * 增量同步服务
+ * 笔记、分类、标签的每次写入都在同一事务内登记变更序号，客户端按游标只拉取之后的变更
+ */
+public interface SyncService {
+
+    /**
+     * 登记一个实体的变更，必须在写入该实体的事务中调用
+     * @param userId 所属用户ID
+     * @param type 实体类型
+     * @param entityId 实体ID
+     * @param deleted 是否为删除
+     */
+    void recordChange(Long userId, EntityType type, Long entityId, boolean deleted);
+
+    /**
+     * 批量登记同一类型实体的新增或修改，整批只分配一次序号
+     * @param userId 所属用户ID
+     * @param type 实体类型
+     * @param entityIds 实体ID集合
+     */
+    void recordChanges(Long userId, EntityType type, Collection<Long> entityIds);
+
+    /**
+     * 拉取当前用户在游标之后的变更
+     * @param since 客户端持有的游标，首次同步传 0
+     * @param limit 本批最多返回的变更数
+     * @return 同步响应
+     */
+    SyncResponse pull(long since, int limit);
+}
@@ -0,0 +1,43 @@
+package com.enote.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * 图片附件的缩略图服务
+ * 缩略图按 (内容摘要, 尺寸) 缓存在磁盘上，由有界线程池异步生成；同一缩略图的并发请求只生成一次
+ */
+public interface ThumbnailService {
+
+    /**
+     * 是否支持为该类型的附件生成缩略图
+     */
+    boolean supports(String fileType);
+
+    /**
+     * 将请求的尺寸归一到配置的档位：取不小于请求值的最小档位，超过最大档位时取最大档位
+     */
+    int normalizeSize(int requested);
+
+    /**
+     * 读取缩略图，不存在时生成并等待完成
+     * @param hash 原图内容摘要
+     * @param size 归一后的尺寸（长边像素）
+     * @return 缩略图文件
+     * @throws java.util.concurrent.RejectedExecutionException 生成队列已满或等待超时
+     */
+    Thumbnail getThumbnail(String hash, int size) throws IOException;
+
+    /**
+     * 提交所有档位的预生成任务，队列已满时直接放弃，之后按需生成
+     */
+    void pregenerate(String hash);
+
+    /**
+     * 删除原图的全部缩略图
+     */
+    void evict(String hash);
+
+    record Thumbnail(Path path, String contentType, long size) {
+    }
+}
@@ -0,0 +1,376 @@
+package com.enote.service.impl;
+
+import com.enote.dto.AttachmentResponse;
+import com.enote.dto.AttachmentUploadRequest;
+import com.enote.dto.AttachmentUploadResponse;
+import com.enote.entity.Attachment;
+import com.enote.entity.AttachmentBlob;
+import com.enote.entity.AttachmentUpload;
+import com.enote.exception.PayloadTooLargeException;
+import com.enote.exception.UploadOffsetMismatchException;
+import com.enote.repository.AttachmentBlobRepository;
+import com.enote.repository.AttachmentRepository;
+import com.enote.repository.AttachmentUploadRepository;
+import com.enote.repository.NoteRepository;
+import com.enote.security.SecurityUtils;
+import com.enote.service.AttachmentService;
+import com.enote.service.ThumbnailService;
+import com.enote.storage.BlobStore;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * 附件服务实现类
+ * 上传内容先流式写入存储暂存区，数据库事务只覆盖引用计数加一、发布内容和写入附件记录，
+ * 不会在传输大文件期间占用数据库连接
+ */
+@Slf4j
+@Service
+public class AttachmentServiceImpl implements AttachmentService {
+
+    private static final int CLEANUP_BATCH_SIZE = 100;
+
+    private final AttachmentRepository attachmentRepository;
+    private final AttachmentBlobRepository attachmentBlobRepository;
+    private final AttachmentUploadRepository attachmentUploadRepository;
+    private final NoteRepository noteRepository;
+    private final BlobStore blobStore;
+    private final ThumbnailService thumbnailService;
+    private final SecurityUtils securityUtils;
+    private final TransactionTemplate transactionTemplate;
+    private final long maxSize;
+    private final long uploadExpiryHours;
+    private final long gcGraceMinutes;
+
+    public AttachmentServiceImpl(AttachmentRepository attachmentRepository,
+                                 AttachmentBlobRepository attachmentBlobRepository,
+                                 AttachmentUploadRepository attachmentUploadRepository,
+                                 NoteRepository noteRepository, BlobStore blobStore,
+                                 ThumbnailService thumbnailService,
+                                 SecurityUtils securityUtils, TransactionTemplate transactionTemplate,
+                                 @Value("${attachments.max-size:1073741824}") long maxSize,
+                                 @Value("${attachments.upload-expiry-hours:24}") long uploadExpiryHours,
+                                 @Value("${attachments.gc-grace-minutes:10}") long gcGraceMinutes) {
+        this.attachmentRepository = attachmentRepository;
+        this.attachmentBlobRepository = attachmentBlobRepository;
+        this.attachmentUploadRepository = attachmentUploadRepository;
+        this.noteRepository = noteRepository;
+        this.blobStore = blobStore;
+        this.thumbnailService = thumbnailService;
+        this.securityUtils = securityUtils;
+        this.transactionTemplate = transactionTemplate;
+        // 附件大小以 int 列保存
+        this.maxSize = Math.min(maxSize, Integer.MAX_VALUE);
+        this.uploadExpiryHours = uploadExpiryHours;
+        this.gcGraceMinutes = gcGraceMinutes;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<AttachmentResponse> getAttachments(Long noteId) {
+        validateNoteOwnership(noteId);
+        return attachmentRepository.findByNoteId(noteId).stream()
+                .map(attachment -> toResponse(attachment, noteId))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public AttachmentResponse upload(Long noteId, MultipartFile file) throws IOException {
+        validateNoteOwnership(noteId);
+        if (file.getSize() > maxSize) {
+            throw new PayloadTooLargeException("Attachment exceeds " + maxSize + " bytes");
+        }
+        BlobStore.StagedBlob staged;
+        try (InputStream in = file.getInputStream()) {
+            staged = blobStore.stage(in, maxSize);
+        }
+        return publish(noteId, staged.stagingId(), staged.hash(), staged.size(),
+                fileNameOf(file.getOriginalFilename()), fileTypeOf(file.getContentType()), null);
+    }
+
+    @Override
+    public AttachmentUploadResponse createUpload(Long noteId, AttachmentUploadRequest request) throws IOException {
+        validateNoteOwnership(noteId);
+        if (request.getSize() > maxSize) {
+            throw new PayloadTooLargeException("Attachment exceeds " + maxSize + " bytes");
+        }
+        String stagingId = blobStore.createStaging();
+        AttachmentUpload upload = new AttachmentUpload();
+        upload.setId(stagingId);
+        upload.setUserId(securityUtils.getCurrentUserId());
+        upload.setNoteId(noteId);
+        upload.setFileName(fileNameOf(request.getFileName()));
+        upload.setFileType(fileTypeOf(request.getFileType()));
+        upload.setTotalSize(request.getSize());
+        upload.setUpdatedAt(LocalDateTime.now());
+        try {
+            attachmentUploadRepository.save(upload);
+        } catch (RuntimeException e) {
+            blobStore.discard(stagingId);
+            throw e;
+        }
+        return toUploadResponse(upload, 0);
+    }
+
+    @Override
+    public AttachmentUploadResponse getUpload(String uploadId) throws IOException {
+        AttachmentUpload upload = getOwnedUpload(uploadId);
+        return toUploadResponse(upload, blobStore.stagedSize(uploadId));
+    }
+
+    @Override
+    public AttachmentUploadResponse appendUpload(String uploadId, long offset, InputStream body) throws IOException {
+        AttachmentUpload upload = getOwnedUpload(uploadId);
+        if (offset < 0 || offset > upload.getTotalSize()) {
+            throw new UploadOffsetMismatchException("Upload offset " + offset + " is out of range");
+        }
+        long received = blobStore.append(uploadId, offset, body, upload.getTotalSize() - offset);
+        transactionTemplate.executeWithoutResult(status ->
+                attachmentUploadRepository.touch(uploadId, LocalDateTime.now()));
+        return toUploadResponse(upload, received);
+    }
+
+    @Override
+    public AttachmentResponse completeUpload(String uploadId) throws IOException {
+        AttachmentUpload upload = getOwnedUpload(uploadId);
+        long received = blobStore.stagedSize(uploadId);
+        if (received != upload.getTotalSize()) {
+            throw new UploadOffsetMismatchException(
+                    "Upload incomplete: " + received + " of " + upload.getTotalSize() + " bytes");
+        }
+        validateNoteOwnership(upload.getNoteId());
+        String hash = blobStore.digest(uploadId);
+        return publish(upload.getNoteId(), uploadId, hash, received, upload.getFileName(), upload.getFileType(),
+                uploadId);
+    }
+
+    @Override
+    public void abortUpload(String uploadId) throws IOException {
+        getOwnedUpload(uploadId);
+        attachmentUploadRepository.deleteById(uploadId);
+        blobStore.discard(uploadId);
+    }
+
+    @Override
+    public void deleteAttachment(Long id) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Attachment attachment = attachmentRepository.findOwnedById(id, securityUtils.getCurrentUserId())
+                    .orElseThrow(() -> new EntityNotFoundException("Attachment not found"));
+            attachmentRepository.delete(attachment);
+            // 计数归零的内容由定时任务在宽限期后回收
+            attachmentBlobRepository.release(attachment.getFilePath(), LocalDateTime.now());
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Content getContent(Long id) {
+        Attachment attachment = attachmentRepository.findOwnedById(id, securityUtils.getCurrentUserId())
+                .orElseThrow(() -> new EntityNotFoundException("Attachment not found"));
+        return new Content(attachment.getFileName(), attachment.getFileType(),
+                attachment.getFileSize() != null ? attachment.getFileSize() : 0, attachment.getFilePath());
+    }
+
+    @Override
+    public long transferTo(Content content, long position, long count, WritableByteChannel target) throws IOException {
+        return blobStore.transferTo(content.hash(), position, count, target);
+    }
+
+    @Override
+    public Optional<Path> localPath(Content content) {
+        return blobStore.localPath(content.hash());
+    }
+
+    /**
+     * 引用计数加一并发布暂存内容，然后写入附件记录。计数行在事务内保持锁定，
+     * 回收任务无法在内容发布与记录写入之间删除同一内容。
+     * 发布不消耗暂存区，提交后才丢弃：事务回滚时分块上传仍可重试完成，本次新建的内容文件被删除
+     */
+    private AttachmentResponse publish(Long noteId, String stagingId, String hash, long size,
+                                       String fileName, String fileType, String uploadId) throws IOException {
+        AttachmentResponse response;
+        AtomicBoolean created = new AtomicBoolean();
+        try {
+            response = transactionTemplate.execute(status -> {
+                attachmentBlobRepository.acquire(hash, size, LocalDateTime.now());
+                try {
+                    created.set(blobStore.publish(stagingId, hash));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                Attachment attachment = new Attachment();
+                attachment.setNote(noteRepository.getReferenceById(noteId));
+                attachment.setFileName(fileName);
+                attachment.setFileType(fileType);
+                attachment.setFileSize((int) size);
+                attachment.setFilePath(hash);
+                attachment = attachmentRepository.save(attachment);
+                if (uploadId != null) {
+                    attachmentUploadRepository.deleteById(uploadId);
+                }
+                return toResponse(attachment, noteId);
+            });
+        } catch (RuntimeException e) {
+            if (created.get()) {
+                removeOrphanedBlob(hash);
+            }
+            // 分块上传保留暂存区，客户端可以重试完成；一次性上传的暂存区直接丢弃
+            if (uploadId == null) {
+                blobStore.discard(stagingId);
+            }
+            throw e;
+        }
+        try {
+            blobStore.discard(stagingId);
+        } catch (IOException e) {
+            // 附件已发布，暂存文件删除失败不影响结果
+            log.warn("Failed to discard staging file {} after publishing", stagingId, e);
+        }
+        // 图片上传后在后台预生成各档位缩略图，列表页首次展示时通常已可直接命中缓存
+        if (thumbnailService.supports(fileType)) {
+            thumbnailService.pregenerate(hash);
+        }
+        return response;
+    }
+
+    /**
+     * 回收引用计数归零超过宽限期的内容，并清理长时间没有进展的分块上传
+     */
+    @Scheduled(fixedDelayString = "${attachments.gc-interval-ms:3600000}")
+    public void collectGarbage() {
+        LocalDateTime now = LocalDateTime.now();
+        int blobs = 0;
+        for (String hash : attachmentBlobRepository.findUnreferencedBefore(
+                now.minusMinutes(gcGraceMinutes), PageRequest.of(0, CLEANUP_BATCH_SIZE))) {
+            try {
+                Boolean removed = transactionTemplate.execute(status -> removeBlob(hash));
+                blobs += Boolean.TRUE.equals(removed) ? 1 : 0;
+            } catch (RuntimeException e) {
+                log.warn("Failed to remove attachment blob {}", hash, e);
+            }
+        }
+
+        int uploads = 0;
+        for (String uploadId : attachmentUploadRepository.findStaleIds(
+                now.minusHours(uploadExpiryHours), PageRequest.of(0, CLEANUP_BATCH_SIZE))) {
+            try {
+                attachmentUploadRepository.deleteById(uploadId);
+                blobStore.discard(uploadId);
+                uploads++;
+            } catch (IOException | RuntimeException e) {
+                log.warn("Failed to remove expired upload {}", uploadId, e);
+            }
+        }
+        if (blobs > 0 || uploads > 0) {
+            log.info("Removed {} unreferenced attachment blobs and {} expired uploads", blobs, uploads);
+        }
+    }
+
+    /**
+     * 发布事务回滚后删除本次新建的内容文件：新内容的计数行随事务回滚，回收任务不会再找到它。
+     * 加锁查询与并发的 acquire 互斥，计数行已存在（其他上传引用了相同内容）时保留文件
+     */
+    private void removeOrphanedBlob(String hash) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (attachmentBlobRepository.lockByHash(hash).isEmpty()) {
+                    try {
+                        blobStore.delete(hash);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            log.warn("Failed to remove orphaned attachment blob {}", hash, e);
+        }
+    }
+
+    // 锁定计数行后再确认仍为零，与 acquire 互斥，避免删除刚被重新引用的内容
+    private boolean removeBlob(String hash) {
+        AttachmentBlob blob = attachmentBlobRepository.lockByHash(hash).orElse(null);
+        if (blob == null || blob.getRefCount() > 0) {
+            return false;
+        }
+        try {
+            blobStore.delete(hash);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        attachmentBlobRepository.delete(blob);
+        thumbnailService.evict(hash);
+        return true;
+    }
+
+    private AttachmentUpload getOwnedUpload(String uploadId) {
+        AttachmentUpload upload = attachmentUploadRepository.findById(uploadId)
+                .orElseThrow(() -> new EntityNotFoundException("Upload not found"));
+        if (!securityUtils.isCurrentUser(upload.getUserId())) {
+            throw new IllegalStateException("You don't have permission to access this upload");
+        }
+        return upload;
+    }
+
+    // 只读取笔记的所有者ID，不加载可能很大的正文
+    private void validateNoteOwnership(Long noteId) {
+        Long ownerId = noteRepository.findActiveOwnerId(noteId)
+                .orElseThrow(() -> new EntityNotFoundException("Note not found"));
+        if (!securityUtils.isCurrentUser(ownerId)) {
+            throw new IllegalStateException("You don't have permission to access this note");
+        }
+    }
+
+    // 只保留文件名部分，去掉客户端可能携带的路径
+    private String fileNameOf(String name) {
+        String fileName = StringUtils.getFilename(StringUtils.cleanPath(name != null ? name : ""));
+        if (!StringUtils.hasText(fileName)) {
+            return "attachment";
+        }
+        return fileName.length() > 255 ? fileName.substring(fileName.length() - 255) : fileName;
+    }
+
+    // 超出列长度的类型不做截断（截断后不再是有效的 MIME 类型），下载时按二进制流返回
+    private String fileTypeOf(String type) {
+        return type != null && type.length() <= 50 ? type : null;
+    }
+
+    private AttachmentResponse toResponse(Attachment attachment, Long noteId) {
+        return AttachmentResponse.builder()
+                .id(attachment.getId())
+                .noteId(noteId)
+                .fileName(attachment.getFileName())
+                .fileType(attachment.getFileType())
+                .fileSize(attachment.getFileSize())
+                .sha256(attachment.getFilePath())
+                .uploadedAt(attachment.getUploadedAt())
+                .build();
+    }
+
+    private AttachmentUploadResponse toUploadResponse(AttachmentUpload upload, long offset) {
+        return AttachmentUploadResponse.builder()
+                .uploadId(upload.getId())
+                .noteId(upload.getNoteId())
+                .offset(offset)
+                .size(upload.getTotalSize())
+                .build();
+    }
+}
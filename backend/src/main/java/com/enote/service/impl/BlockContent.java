@@ -0,0 +1,72 @@
+package com.enote.service.impl;
+
+import com.enote.entity.Block;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 笔记正文与区块之间的转换
+ * 正文按空行拆分为区块，区块以空行连接还原正文，两者可以无损往返
+ */
+final class BlockContent {
+
+    static final String SEPARATOR = "\n\n";
+
+    private BlockContent() {
+    }
+
+    static List<String> split(String content) {
+        List<String> parts = new ArrayList<>();
+        if (content == null || content.isEmpty()) {
+            return parts;
+        }
+        int start = 0;
+        int pos;
+        while ((pos = content.indexOf(SEPARATOR, start)) >= 0) {
+            parts.add(content.substring(start, pos));
+            start = pos + SEPARATOR.length();
+        }
+        parts.add(content.substring(start));
+        return parts;
+    }
+
+    static String join(List<String> contents) {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < contents.size(); i++) {
+            if (i > 0) {
+                content.append(SEPARATOR);
+            }
+            if (contents.get(i) != null) {
+                content.append(contents.get(i));
+            }
+        }
+        return content.toString();
+    }
+
+    /**
+     * 根据 Markdown 前缀推断区块类型
+     */
+    static Block.BlockType typeOf(String content) {
+        if (content == null) {
+            return Block.BlockType.TEXT;
+        }
+        String text = content.stripLeading();
+        if (text.startsWith("#")) {
+            return Block.BlockType.HEADING;
+        }
+        if (text.startsWith("```")) {
+            return Block.BlockType.CODE;
+        }
+        if (text.startsWith(">")) {
+            return Block.BlockType.QUOTE;
+        }
+        if (text.startsWith("![")) {
+            return Block.BlockType.IMAGE;
+        }
+        if (text.startsWith("- ") || text.startsWith("* ") || text.matches("(?s)^\\d+\\. .*")) {
+            return Block.BlockType.LIST;
+        }
+        return Block.BlockType.TEXT;
+    }
+}
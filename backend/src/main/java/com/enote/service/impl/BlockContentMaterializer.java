@@ -0,0 +1,64 @@
+package com.enote.service.impl;
+
+import com.enote.entity.Note;
+import com.enote.repository.BlockRepository;
+import com.enote.repository.NoteRepository;
+import com.enote.repository.projection.StaleNoteView;
+import com.enote.search.NoteSearchIndex;
+import com.enote.service.NoteRevisionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * 区块正文合并任务
+ * 区块编辑只写区块行并标记笔记；本任务定期把区块拼接回 notes.content，
+ * 使一篇频繁自动保存的笔记在每个周期内最多整体写入一次，同时刷新摘要、修订历史和全文索引
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BlockContentMaterializer {
+
+    private static final int BATCH_SIZE = 100;
+
+    private final NoteRepository noteRepository;
+    private final BlockRepository blockRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final NoteSearchIndex noteSearchIndex;
+    private final NoteRevisionService noteRevisionService;
+
+    @Scheduled(fixedDelayString = "${blocks.materialize-interval-ms:30000}")
+    public void materializeStaleNotes() {
+        List<StaleNoteView> stale = noteRepository.findContentStale(PageRequest.of(0, BATCH_SIZE));
+        for (StaleNoteView note : stale) {
+            try {
+                materialize(note);
+            } catch (RuntimeException e) {
+                log.warn("Failed to materialize blocks of note {}", note.getId(), e);
+            }
+        }
+    }
+
+    private void materialize(StaleNoteView note) {
+        String content = transactionTemplate.execute(status -> {
+            String joined = BlockContent.join(blockRepository.findContentsByNoteId(note.getId()));
+            int updated = noteRepository.materializeContent(note.getId(), joined, Note.excerptOf(joined),
+                    joined.length(), note.getUpdatedAt());
+            // 合并期间又有新的编辑，保留标记留给下一轮
+            if (updated == 0) {
+                return null;
+            }
+            noteRevisionService.record(note.getId(), note.getTitle(), joined);
+            return joined;
+        });
+        if (content != null && !Boolean.TRUE.equals(note.getDeleted())) {
+            noteSearchIndex.index(note.getUserId(), note.getId(), note.getTitle(), content);
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package com.enote.service.impl;
+
+import com.enote.dto.BlockPatchRequest;
+import com.enote.dto.BlockPatchResponse;
+import com.enote.dto.BlockResponse;
+import com.enote.entity.Block;
+import com.enote.entity.ChangeLogEntry.EntityType;
+import com.enote.entity.Note;
+import com.enote.entity.UserNotePermission.PermissionType;
+import com.enote.repository.BlockRepository;
+import com.enote.repository.NoteRepository;
+import com.enote.repository.projection.BlockOrderView;
+import com.enote.security.NotePermissionEvaluator;
+import com.enote.security.SecurityUtils;
+import com.enote.service.BlockService;
+import com.enote.service.SyncService;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 笔记区块服务实现类
+ * 排序键之间保留 ORDER_GAP 的间隔：插入和移动取相邻两键的中值，只写入被操作的区块；
+ * 间隔耗尽时才对整篇笔记的区块重新编号
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class BlockServiceImpl implements BlockService {
+
+    static final int ORDER_GAP = 1024;
+    private static final int MAX_OPERATIONS = 500;
+    private static final String UPDATE_ORDER_SQL = "UPDATE blocks SET order_num = ? WHERE id = ?";
+
+    private final BlockRepository blockRepository;
+    private final NoteRepository noteRepository;
+    private final SecurityUtils securityUtils;
+    private final JdbcTemplate jdbcTemplate;
+    private final SyncService syncService;
+    private final NotePermissionEvaluator permissionEvaluator;
+
+    @Override
+    public List<BlockResponse> getBlocks(Long noteId) {
+        validateNoteAccess(noteId, PermissionType.READ);
+        return loadBlocks(noteId);
+    }
+
+    @Override
+    public List<BlockResponse> loadBlocks(Long noteId) {
+        List<Block> blocks = blockRepository.findByNoteIdOrdered(noteId);
+        if (blocks.isEmpty()) {
+            blocks = splitNoteContent(noteId);
+        }
+        return blocks.stream().map(this::toResponse).collect(Collectors.toList());
+    }
+
+    @Override
+    public BlockPatchResponse applyPatch(Long noteId, BlockPatchRequest request) {
+        validateOperations(request);
+        return applyOperations(noteId, validateNoteAccess(noteId, PermissionType.EDIT), request.getOps());
+    }
+
+    @Override
+    public BlockPatchResponse applyAuthorizedPatch(Long noteId, BlockPatchRequest request) {
+        validateOperations(request);
+        Long ownerId = noteRepository.findActiveOwnerId(noteId)
+                .orElseThrow(() -> new EntityNotFoundException("Note not found"));
+        return applyOperations(noteId, ownerId, request.getOps());
+    }
+
+    private void validateOperations(BlockPatchRequest request) {
+        List<BlockPatchRequest.Operation> ops = request.getOps();
+        if (ops == null || ops.isEmpty()) {
+            throw new IllegalArgumentException("No block operations");
+        }
+        if (ops.size() > MAX_OPERATIONS) {
+            throw new IllegalArgumentException("Too many block operations, at most " + MAX_OPERATIONS);
+        }
+    }
+
+    private BlockPatchResponse applyOperations(Long noteId, Long ownerId, List<BlockPatchRequest.Operation> ops) {
+        BlockOrder order = blockRepository.existsByNoteId(noteId)
+                ? new BlockOrder(blockRepository.findOrderByNoteId(noteId))
+                : BlockOrder.of(splitNoteContent(noteId));
+        Map<String, Long> refs = new HashMap<>();
+        Set<Long> deleted = new HashSet<>();
+        List<Long> blockIds = new ArrayList<>(ops.size());
+        LocalDateTime now = LocalDateTime.now();
+
+        for (BlockPatchRequest.Operation op : ops) {
+            if (op.getOp() == null) {
+                throw new IllegalArgumentException("Block operation type is required");
+            }
+            switch (op.getOp()) {
+                case INSERT -> {
+                    int index = order.indexAfter(resolveAfter(op, refs, order));
+                    int orderNum = order.keyAt(index);
+                    String content = op.getContent() != null ? op.getContent() : "";
+                    Block block = new Block();
+                    block.setNote(noteRepository.getReferenceById(noteId));
+                    block.setContent(content);
+                    block.setBlockType(op.getBlockType() != null ? op.getBlockType() : BlockContent.typeOf(content));
+                    block.setOrderNum(orderNum);
+                    Long id = blockRepository.save(block).getId();
+                    order.insert(index, id, orderNum);
+                    if (op.getRef() != null) {
+                        refs.put(op.getRef(), id);
+                    }
+                    blockIds.add(id);
+                }
+                case UPDATE -> {
+                    Long id = requireBlock(op.getId(), order);
+                    String content = op.getContent() != null ? op.getContent() : "";
+                    blockRepository.updateContent(id, content, op.getBlockType(), now);
+                    blockIds.add(id);
+                }
+                case MOVE -> {
+                    Long id = requireBlock(op.getId(), order);
+                    Long after = resolveAfter(op, refs, order);
+                    if (id.equals(after)) {
+                        throw new IllegalArgumentException("Cannot move a block after itself");
+                    }
+                    order.remove(id);
+                    int index = order.indexAfter(after);
+                    order.insert(index, id, order.keyAt(index));
+                    order.markDirty(id);
+                    blockIds.add(id);
+                }
+                case DELETE -> {
+                    Long id = requireBlock(op.getId(), order);
+                    order.remove(id);
+                    deleted.add(id);
+                    blockIds.add(id);
+                }
+            }
+        }
+
+        List<Object[]> reordered = order.dirtyRows();
+        if (!reordered.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_ORDER_SQL, reordered);
+        }
+        if (!deleted.isEmpty()) {
+            blockRepository.deleteByIdIn(deleted);
+        }
+        noteRepository.markContentStale(noteId, now);
+        syncService.recordChange(ownerId, EntityType.NOTE, noteId, false);
+
+        return BlockPatchResponse.builder()
+                .blockIds(blockIds)
+                .updatedAt(now)
+                .build();
+    }
+
+    /**
+     * 将笔记正文按段落拆分为区块，只在笔记第一次通过区块接口访问时执行
+     * 先锁定笔记行再复查：并发的首次访问中只有一个执行拆分，其余等待后读到已拆分的区块
+     */
+    private List<Block> splitNoteContent(Long noteId) {
+        Note note = noteRepository.lockById(noteId)
+                .orElseThrow(() -> new EntityNotFoundException("Note not found"));
+        List<Block> existing = blockRepository.lockByNoteIdOrdered(noteId);
+        if (!existing.isEmpty()) {
+            return existing;
+        }
+        List<String> parts = BlockContent.split(note.getContent());
+        List<Block> blocks = new ArrayList<>(parts.size());
+        for (int i = 0; i < parts.size(); i++) {
+            Block block = new Block();
+            block.setNote(note);
+            block.setContent(parts.get(i));
+            block.setBlockType(BlockContent.typeOf(parts.get(i)));
+            block.setOrderNum((i + 1) * ORDER_GAP);
+            blocks.add(block);
+        }
+        return blockRepository.saveAll(blocks);
+    }
+
+    private Long resolveAfter(BlockPatchRequest.Operation op, Map<String, Long> refs, BlockOrder order) {
+        if (op.getAfterRef() != null) {
+            Long id = refs.get(op.getAfterRef());
+            if (id == null || !order.contains(id)) {
+                throw new IllegalArgumentException("Unknown block reference: " + op.getAfterRef());
+            }
+            return id;
+        }
+        if (op.getAfterId() != null) {
+            return requireBlock(op.getAfterId(), order);
+        }
+        return null;
+    }
+
+    private Long requireBlock(Long id, BlockOrder order) {
+        if (id == null) {
+            throw new IllegalArgumentException("Block id is required");
+        }
+        if (!order.contains(id)) {
+            throw new EntityNotFoundException("Block not found");
+        }
+        return id;
+    }
+
+    // 只读取笔记的所有者ID，不加载可能很大的正文；所有者之外的用户按共享授权判定
+    private Long validateNoteAccess(Long noteId, PermissionType required) {
+        Long ownerId = noteRepository.findActiveOwnerId(noteId)
+                .orElseThrow(() -> new EntityNotFoundException("Note not found"));
+        permissionEvaluator.check(noteId, ownerId, securityUtils.getCurrentUserId(), required);
+        return ownerId;
+    }
+
+    private BlockResponse toResponse(Block block) {
+        return BlockResponse.builder()
+                .id(block.getId())
+                .blockType(block.getBlockType())
+                .content(block.getContent())
+                .orderNum(block.getOrderNum())
+                .updatedAt(block.getUpdatedAt())
+                .build();
+    }
+
+    /**
+     * 一篇笔记内区块的内存排序视图，记录本次请求中排序键发生变化的区块
+     */
+    private static final class BlockOrder {
+
+        private final List<Long> ids = new ArrayList<>();
+        private final List<Integer> keys = new ArrayList<>();
+        private final Set<Long> members = new HashSet<>();
+        private final Set<Long> dirty = new HashSet<>();
+
+        BlockOrder(List<BlockOrderView> rows) {
+            for (BlockOrderView row : rows) {
+                append(row.getId(), row.getOrderNum());
+            }
+        }
+
+        static BlockOrder of(List<Block> blocks) {
+            BlockOrder order = new BlockOrder(List.of());
+            for (Block block : blocks) {
+                order.append(block.getId(), block.getOrderNum());
+            }
+            return order;
+        }
+
+        private void append(Long id, Integer key) {
+            ids.add(id);
+            keys.add(key);
+            members.add(id);
+        }
+
+        boolean contains(Long id) {
+            return members.contains(id);
+        }
+
+        int indexAfter(Long afterId) {
+            return afterId == null ? 0 : ids.indexOf(afterId) + 1;
+        }
+
+        /**
+         * 计算插入到 index 位置的排序键，相邻键之间没有空隙时先整体重排
+         */
+        int keyAt(int index) {
+            long prev = index > 0 ? keys.get(index - 1) : 0;
+            long next = index < keys.size() ? keys.get(index) : prev + 2L * ORDER_GAP;
+            if (next - prev > 1 && prev + ORDER_GAP <= Integer.MAX_VALUE) {
+                return (int) (index < keys.size() ? (prev + next) / 2 : prev + ORDER_GAP);
+            }
+            rebalance();
+            return keyAt(index);
+        }
+
+        void insert(int index, Long id, int key) {
+            ids.add(index, id);
+            keys.add(index, key);
+            members.add(id);
+        }
+
+        void remove(Long id) {
+            int index = ids.indexOf(id);
+            ids.remove(index);
+            keys.remove(index);
+            members.remove(id);
+        }
+
+        void markDirty(Long id) {
+            dirty.add(id);
+        }
+
+        List<Object[]> dirtyRows() {
+            List<Object[]> rows = new ArrayList<>();
+            for (int i = 0; i < ids.size(); i++) {
+                if (dirty.contains(ids.get(i))) {
+                    rows.add(new Object[]{keys.get(i), ids.get(i)});
+                }
+            }
+            return rows;
+        }
+
+        private void rebalance() {
+            if ((long) (ids.size() + 1) * ORDER_GAP > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Too many blocks in note");
+            }
+            for (int i = 0; i < keys.size(); i++) {
+                keys.set(i, (i + 1) * ORDER_GAP);
+            }
+            dirty.addAll(ids);
+        }
+    }
+}
@@ -3,19 +3,24 @@ package com.enote.service.impl;
 import com.enote.dto.CategoryRequest;
 import com.enote.dto.CategoryResponse;
 import com.enote.entity.Category;
+import com.enote.entity.ChangeLogEntry.EntityType;
 import com.enote.entity.User;
 import com.enote.repository.CategoryRepository;
-import com.enote.repository.UserRepository;
+import com.enote.repository.projection.NoteCountView;
+import com.enote.security.SecurityUtils;
 import com.enote.service.CategoryService;
+import com.enote.service.SyncService;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -27,7 +32,8 @@ import java.util.stream.Collectors;
 public class CategoryServiceImpl implements CategoryService {
 
     private final CategoryRepository categoryRepository;
-    private final UserRepository userRepository;
+    private final SecurityUtils securityUtils;
+    private final SyncService syncService;
 
     /**
      * 创建新分类
@@ -45,9 +51,10 @@ public class CategoryServiceImpl implements CategoryService {
         category.setDescription(request.getDescription());
         category.setUser(currentUser);
         
-        // 保存分类并转换为响应对象
+        // 保存分类并登记变更
         category = categoryRepository.save(category);
-        return convertToResponse(category);
+        syncService.recordChange(currentUser.getId(), EntityType.CATEGORY, category.getId(), false);
+        return convertToResponse(category, 0);
     }
 
     /**
@@ -69,7 +76,8 @@ public class CategoryServiceImpl implements CategoryService {
         
         // 保存并返回更新后的分类
         category = categoryRepository.save(category);
-        return convertToResponse(category);
+        syncService.recordChange(category.getUser().getId(), EntityType.CATEGORY, category.getId(), false);
+        return convertToResponse(category, countNotes(category.getId()));
     }
 
     /**
@@ -83,8 +91,9 @@ public class CategoryServiceImpl implements CategoryService {
                 .orElseThrow(() -> new EntityNotFoundException("分类未找到"));
         validateCategoryOwnership(category);
         
-        // 删除分类
+        // 删除分类并登记删除，客户端同步时移除本地副本
         categoryRepository.delete(category);
+        syncService.recordChange(category.getUser().getId(), EntityType.CATEGORY, id, true);
     }
 
     /**
@@ -101,7 +110,7 @@ public class CategoryServiceImpl implements CategoryService {
         validateCategoryOwnership(category);
         
         // 返回分类响应对象
-        return convertToResponse(category);
+        return convertToResponse(category, countNotes(id));
     }
 
     /**
@@ -114,10 +123,11 @@ public class CategoryServiceImpl implements CategoryService {
         // 获取当前用户
         User currentUser = getCurrentUser();
         
-        // 查询该用户的所有分类并转换为响应对象列表
+        // 查询该用户的所有分类，笔记数由一条分组查询统计
+        Map<Long, Integer> counts = toCountMap(categoryRepository.countNotesByUserId(currentUser.getId()));
         return categoryRepository.findByUserId(currentUser.getId())
                 .stream()
-                .map(this::convertToResponse)
+                .map(category -> convertToResponse(category, counts.getOrDefault(category.getId(), 0)))
                 .collect(Collectors.toList());
     }
 
@@ -132,23 +142,50 @@ public class CategoryServiceImpl implements CategoryService {
         // 获取当前用户
         User currentUser = getCurrentUser();
         
-        // 使用新增的分页查询方法
-        return categoryRepository.findByUserId(currentUser.getId(), pageable)
-                .map(this::convertToResponse);
+        // 使用新增的分页查询方法，只统计当前页分类的笔记数
+        Page<Category> categories = categoryRepository.findByUserId(currentUser.getId(), pageable);
+        Map<Long, Integer> counts = countNotes(categories.map(Category::getId).getContent());
+        return categories.map(category -> convertToResponse(category, counts.getOrDefault(category.getId(), 0)));
+    }
+
+    /**
+     * 统计一批分类的笔记数（一条分组查询）
+     * @param categoryIds 分类ID集合
+     * @return 分类ID到笔记数的映射，没有笔记的分类不在其中
+     */
+    private Map<Long, Integer> countNotes(Collection<Long> categoryIds) {
+        if (categoryIds.isEmpty()) {
+            return Map.of();
+        }
+        return toCountMap(categoryRepository.countNotesByCategoryIds(categoryIds));
+    }
+
+    private int countNotes(Long categoryId) {
+        return countNotes(List.of(categoryId)).getOrDefault(categoryId, 0);
+    }
+
+    private static Map<Long, Integer> toCountMap(List<NoteCountView> views) {
+        Map<Long, Integer> counts = new HashMap<>();
+        for (NoteCountView view : views) {
+            counts.put(view.getId(), view.getNoteCount().intValue());
+        }
+        return counts;
     }
 
     /**
      * 将分类实体转换为分类响应对象
      * @param category 分类实体
+     * @param noteCount 未删除笔记数，由调用方批量统计后传入
      * @return 分类响应对象
      */
-    private CategoryResponse convertToResponse(Category category) {
+    private CategoryResponse convertToResponse(Category category, int noteCount) {
         return CategoryResponse.builder()
                 .id(category.getId())
                 .name(category.getName())
                 .description(category.getDescription())
                 .createdAt(category.getCreatedAt())
                 .createdBy(category.getUser().getUsername())
+                .noteCount(noteCount)
                 .build();
     }
 
@@ -157,9 +194,7 @@ public class CategoryServiceImpl implements CategoryService {
      * @return 用户实体
      */
     private User getCurrentUser() {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        return userRepository.findByUsername(username)
-                .orElseThrow(() -> new EntityNotFoundException("用户未找到"));
+        return securityUtils.getCurrentUser();
     }
 
     /**
@@ -167,8 +202,7 @@ public class CategoryServiceImpl implements CategoryService {
      * @param category 分类实体
      */
     private void validateCategoryOwnership(Category category) {
-        User currentUser = getCurrentUser();
-        if (!category.getUser().getId().equals(currentUser.getId())) {
+        if (!securityUtils.isCurrentUser(category.getUser().getId())) {
             throw new IllegalStateException("您没有权限访问此分类");
         }
     }
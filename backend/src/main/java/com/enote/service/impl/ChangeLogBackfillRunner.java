@@ -0,0 +1,61 @@
+package com.enote.service.impl;
+
+import com.enote.entity.ChangeLogEntry.EntityType;
+import com.enote.repository.ChangeLogRepository;
+import com.enote.repository.UserRepository;
+import com.enote.service.SyncService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * 启动时为尚无变更记录的历史笔记、分类和标签补录变更，使首次同步（since=0）能拉取到全部数据
+ * 分批处理，每批一个事务，已补录的实体不会被再次读取
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ChangeLogBackfillRunner implements ApplicationRunner {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final UserRepository userRepository;
+    private final ChangeLogRepository changeLogRepository;
+    private final SyncService syncService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int total = 0;
+        for (Long userId : userRepository.findAllIds()) {
+            total += backfill(userId, EntityType.CATEGORY, changeLogRepository::findUnloggedCategoryIds);
+            total += backfill(userId, EntityType.TAG, changeLogRepository::findUnloggedTagIds);
+            total += backfill(userId, EntityType.NOTE, changeLogRepository::findUnloggedNoteIds);
+        }
+        if (total > 0) {
+            log.info("Backfilled change log for {} entities", total);
+        }
+    }
+
+    private int backfill(Long userId, EntityType type, BiFunction<Long, Pageable, List<Long>> finder) {
+        int total = 0;
+        int recorded;
+        do {
+            recorded = transactionTemplate.execute(status -> {
+                List<Long> ids = finder.apply(userId, PageRequest.of(0, BATCH_SIZE));
+                syncService.recordChanges(userId, type, ids);
+                return ids.size();
+            });
+            total += recorded;
+        } while (recorded == BATCH_SIZE);
+        return total;
+    }
+}
@@ -0,0 +1,427 @@
+package com.enote.service.impl;
+
+import com.enote.collab.CollabDestinations;
+import com.enote.dto.BlockPatchRequest;
+import com.enote.dto.BlockPatchResponse;
+import com.enote.dto.BlockResponse;
+import com.enote.dto.CollabEvent;
+import com.enote.dto.CollabOpsMessage;
+import com.enote.dto.CollabSnapshot;
+import com.enote.entity.Block;
+import com.enote.entity.UserNotePermission.PermissionType;
+import com.enote.security.AuthenticatedUser;
+import com.enote.security.NotePermissionEvaluator;
+import com.enote.service.BlockService;
+import com.enote.service.CollaborationService;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * 协作编辑服务实现类
+ * 会话锁串行化同一笔记的所有写入：操作按到达顺序获得递增的 version 后广播，并发更新同一区块时后写入者生效；
+ * 内容更新只保留每个区块的最新内容，定时在一个事务中批量写入，连续输入不会每次都访问数据库
+ */
+@Slf4j
+@Service
+public class CollaborationServiceImpl implements CollaborationService {
+
+    private static final int MAX_OPERATIONS = 500;
+    // 入站消息由线程池并发分发，同一连接的消息可能乱序到达，最多暂存这么多条等待补齐
+    private static final int MAX_OUT_OF_ORDER = 64;
+    private static final int MAX_FLUSH_FAILURES = 3;
+
+    private final BlockService blockService;
+    private final NotePermissionEvaluator permissionEvaluator;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    private final ConcurrentMap<Long, NoteSession> sessions = new ConcurrentHashMap<>();
+    // 连接ID -> (订阅ID -> 笔记ID)
+    private final ConcurrentMap<String, Map<String, Long>> subscriptions = new ConcurrentHashMap<>();
+
+    public CollaborationServiceImpl(BlockService blockService, NotePermissionEvaluator permissionEvaluator,
+                                    SimpMessagingTemplate messagingTemplate) {
+        this.blockService = blockService;
+        this.permissionEvaluator = permissionEvaluator;
+        this.messagingTemplate = messagingTemplate;
+    }
+
+    @Override
+    public CollabSnapshot snapshot(Long noteId) {
+        NoteSession session = sessions.get(noteId);
+        if (session == null) {
+            return CollabSnapshot.builder()
+                    .version(0L)
+                    .blocks(blockService.loadBlocks(noteId))
+                    .participants(new ArrayList<>())
+                    .build();
+        }
+        session.lock.lock();
+        try {
+            List<BlockResponse> blocks = blockService.loadBlocks(noteId);
+            for (BlockResponse block : blocks) {
+                PendingUpdate pending = session.pending.get(block.getId());
+                if (pending != null) {
+                    block.setContent(pending.content());
+                    if (pending.blockType() != null) {
+                        block.setBlockType(pending.blockType());
+                    }
+                }
+            }
+            return CollabSnapshot.builder()
+                    .version(session.version)
+                    .blocks(blocks)
+                    .participants(participants(session))
+                    .build();
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    @Override
+    public void join(Long noteId, String connectionId, String subscriptionId, AuthenticatedUser user) {
+        PermissionType permission = permissionEvaluator.resolve(noteId, user.getId())
+                .orElseThrow(() -> new IllegalStateException("You don't have permission to access this note"));
+        subscriptions.computeIfAbsent(connectionId, id -> new ConcurrentHashMap<>()).put(subscriptionId, noteId);
+        NoteSession session = sessions.compute(noteId, (id, existing) -> {
+            NoteSession current = existing != null ? existing : new NoteSession(id);
+            current.members.putIfAbsent(connectionId,
+                    new Member(user.getId(), user.getUsername(), permission == PermissionType.EDIT));
+            return current;
+        });
+        broadcastPresence(session);
+    }
+
+    @Override
+    public void leave(String connectionId, String subscriptionId) {
+        Map<String, Long> subscribed = subscriptions.get(connectionId);
+        if (subscribed == null) {
+            return;
+        }
+        Long noteId = subscribed.remove(subscriptionId);
+        // 同一连接可能重复订阅同一笔记，最后一个订阅取消时才离开会话
+        if (noteId != null && !subscribed.containsValue(noteId)) {
+            leaveNote(noteId, connectionId);
+        }
+    }
+
+    @Override
+    public void disconnect(String connectionId) {
+        Map<String, Long> subscribed = subscriptions.remove(connectionId);
+        if (subscribed == null) {
+            return;
+        }
+        for (Long noteId : new HashSet<>(subscribed.values())) {
+            leaveNote(noteId, connectionId);
+        }
+    }
+
+    @Override
+    public void applyOperations(Long noteId, String connectionId, AuthenticatedUser user, CollabOpsMessage message) {
+        NoteSession session = sessions.get(noteId);
+        Member member = session != null ? session.members.get(connectionId) : null;
+        if (member == null) {
+            throw new IllegalStateException("Subscribe to the note before sending operations");
+        }
+        if (!member.canEdit) {
+            throw new IllegalStateException("You don't have permission to edit this note");
+        }
+        if (message.getSeq() == null) {
+            throw new IllegalArgumentException("Operation seq is required");
+        }
+
+        session.lock.lock();
+        try {
+            long seq = message.getSeq();
+            if (seq < member.nextSeq) {
+                return;
+            }
+            if (seq > member.nextSeq) {
+                if (member.outOfOrder.size() >= MAX_OUT_OF_ORDER) {
+                    throw new IllegalStateException("Too many out-of-order operations, reconnect to resync");
+                }
+                member.outOfOrder.put(seq, message);
+                return;
+            }
+            CollabOpsMessage next = message;
+            while (next != null) {
+                try {
+                    apply(session, connectionId, next);
+                } catch (RuntimeException e) {
+                    // 单条消息失败不阻塞同一连接后续的消息，发送方根据 seq 回滚本地修改
+                    sendError(user.getUsername(), connectionId, next.getSeq(), e.getMessage());
+                }
+                member.nextSeq++;
+                next = member.outOfOrder.remove(member.nextSeq);
+            }
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    @Override
+    public void updatePresence(Long noteId, String connectionId, Long activeBlockId) {
+        NoteSession session = sessions.get(noteId);
+        Member member = session != null ? session.members.get(connectionId) : null;
+        if (member == null) {
+            return;
+        }
+        member.activeBlockId = activeBlockId;
+        broadcastPresence(session);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${collab.flush-interval-ms:2000}")
+    public void flush() {
+        for (NoteSession session : sessions.values()) {
+            flushSession(session);
+            removeIfIdle(session);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    /**
+     * 只含内容更新的消息合并到缓冲区；含结构性操作的消息整体立即写入，同时覆盖这些区块的缓冲内容
+     */
+    private void apply(NoteSession session, String connectionId, CollabOpsMessage message) {
+        List<BlockPatchRequest.Operation> ops = message.getOps();
+        if (ops == null || ops.isEmpty()) {
+            throw new IllegalArgumentException("No block operations");
+        }
+        if (ops.size() > MAX_OPERATIONS) {
+            throw new IllegalArgumentException("Too many block operations, at most " + MAX_OPERATIONS);
+        }
+        loadBlockIds(session);
+        long baseVersion = message.getBaseVersion() != null ? message.getBaseVersion() : session.version;
+        boolean structural = ops.stream().anyMatch(op -> op.getOp() != BlockPatchRequest.OperationType.UPDATE);
+
+        List<Long> blockIds;
+        if (structural) {
+            BlockPatchResponse response = blockService.applyAuthorizedPatch(session.noteId,
+                    BlockPatchRequest.builder().ops(ops).build());
+            blockIds = response.getBlockIds();
+        } else {
+            blockIds = new ArrayList<>(ops.size());
+            for (BlockPatchRequest.Operation op : ops) {
+                if (op.getId() == null || !session.blockIds.contains(op.getId())) {
+                    throw new EntityNotFoundException("Block not found");
+                }
+                blockIds.add(op.getId());
+            }
+        }
+
+        boolean conflict = false;
+        long version = ++session.version;
+        for (int i = 0; i < ops.size(); i++) {
+            BlockPatchRequest.Operation op = ops.get(i);
+            Long id = blockIds.get(i);
+            Modification last = session.modifications.get(id);
+            if (last != null && last.version() > baseVersion && !last.connectionId().equals(connectionId)) {
+                conflict = true;
+            }
+            switch (op.getOp()) {
+                case INSERT -> session.blockIds.add(id);
+                case UPDATE -> {
+                    if (structural) {
+                        session.pending.remove(id);
+                    } else {
+                        session.pending.put(id, new PendingUpdate(
+                                op.getContent() != null ? op.getContent() : "", op.getBlockType()));
+                    }
+                }
+                case DELETE -> {
+                    session.blockIds.remove(id);
+                    session.pending.remove(id);
+                }
+                default -> {
+                }
+            }
+            session.modifications.put(id, new Modification(version, connectionId));
+        }
+
+        messagingTemplate.convertAndSend(CollabDestinations.topic(session.noteId), CollabEvent.builder()
+                .type(CollabEvent.Type.OPS)
+                .version(version)
+                .userId(session.members.get(connectionId).userId)
+                .connectionId(connectionId)
+                .seq(message.getSeq())
+                .ops(ops)
+                .blockIds(blockIds)
+                .conflict(conflict ? Boolean.TRUE : null)
+                .build());
+    }
+
+    private void flushSession(NoteSession session) {
+        session.lock.lock();
+        try {
+            if (session.pending.isEmpty()) {
+                return;
+            }
+            List<BlockPatchRequest.Operation> ops = new ArrayList<>(session.pending.size());
+            session.pending.forEach((id, update) -> ops.add(BlockPatchRequest.Operation.builder()
+                    .op(BlockPatchRequest.OperationType.UPDATE)
+                    .id(id)
+                    .content(update.content())
+                    .blockType(update.blockType())
+                    .build()));
+            try {
+                for (int from = 0; from < ops.size(); from += MAX_OPERATIONS) {
+                    List<BlockPatchRequest.Operation> batch = ops.subList(from, Math.min(ops.size(), from + MAX_OPERATIONS));
+                    blockService.applyAuthorizedPatch(session.noteId, BlockPatchRequest.builder()
+                            .ops(new ArrayList<>(batch)).build());
+                }
+                session.pending.clear();
+                session.flushFailures = 0;
+            } catch (RuntimeException e) {
+                handleFlushFailure(session, e);
+            }
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    /**
+     * 区块可能已通过 REST 接口被删除：以数据库为准重新加载区块，丢弃已不存在区块的缓冲并通知客户端重新读取快照；
+     * 连续失败（例如笔记已被删除）时放弃缓冲内容
+     */
+    private void handleFlushFailure(NoteSession session, RuntimeException e) {
+        log.warn("Failed to flush collaborative edits for note {}", session.noteId, e);
+        if (++session.flushFailures >= MAX_FLUSH_FAILURES) {
+            log.error("Dropping {} buffered block updates for note {}", session.pending.size(), session.noteId);
+            session.pending.clear();
+            session.flushFailures = 0;
+        } else {
+            try {
+                session.blockIds = null;
+                loadBlockIds(session);
+                session.pending.keySet().retainAll(session.blockIds);
+            } catch (RuntimeException reload) {
+                log.warn("Failed to reload blocks for note {}", session.noteId, reload);
+            }
+        }
+        messagingTemplate.convertAndSend(CollabDestinations.topic(session.noteId), CollabEvent.builder()
+                .type(CollabEvent.Type.RESYNC)
+                .version(++session.version)
+                .build());
+    }
+
+    private void leaveNote(Long noteId, String connectionId) {
+        NoteSession session = sessions.get(noteId);
+        if (session == null || session.members.remove(connectionId) == null) {
+            return;
+        }
+        if (session.members.isEmpty()) {
+            // 最后一个协作者离开时立即写入，之后释放会话
+            flushSession(session);
+            removeIfIdle(session);
+        } else {
+            broadcastPresence(session);
+        }
+    }
+
+    // 在映射的同步块内判断，与 join 互斥，不会移除刚加入成员的会话
+    private void removeIfIdle(NoteSession session) {
+        sessions.computeIfPresent(session.noteId, (id, current) ->
+                current == session && current.members.isEmpty() && current.pending.isEmpty() ? null : current);
+    }
+
+    private void loadBlockIds(NoteSession session) {
+        if (session.blockIds == null) {
+            session.blockIds = blockService.loadBlocks(session.noteId).stream()
+                    .map(BlockResponse::getId)
+                    .collect(Collectors.toCollection(HashSet::new));
+        }
+    }
+
+    private void broadcastPresence(NoteSession session) {
+        messagingTemplate.convertAndSend(CollabDestinations.topic(session.noteId), CollabEvent.builder()
+                .type(CollabEvent.Type.PRESENCE)
+                .participants(participants(session))
+                .build());
+    }
+
+    private List<CollabEvent.Participant> participants(NoteSession session) {
+        List<CollabEvent.Participant> participants = new ArrayList<>(session.members.size());
+        session.members.forEach((connectionId, member) -> participants.add(new CollabEvent.Participant(
+                connectionId, member.userId, member.username, member.canEdit, member.activeBlockId)));
+        return participants;
+    }
+
+    // 错误只发送给出错的连接，同一用户的其他连接不会收到
+    private void sendError(String username, String connectionId, Long seq, String message) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setSessionId(connectionId);
+        headers.setLeaveMutable(true);
+        messagingTemplate.convertAndSendToUser(username, CollabDestinations.ERRORS, CollabEvent.builder()
+                .type(CollabEvent.Type.ERROR)
+                .connectionId(connectionId)
+                .seq(seq)
+                .message(message)
+                .build(), headers.getMessageHeaders());
+    }
+
+    private record PendingUpdate(String content, Block.BlockType blockType) {
+    }
+
+    private record Modification(long version, String connectionId) {
+    }
+
+    /**
+     * 一个连接在会话中的状态；nextSeq 与 outOfOrder 由会话锁保护
+     */
+    private static final class Member {
+
+        private final Long userId;
+        private final String username;
+        private final boolean canEdit;
+        private volatile Long activeBlockId;
+        private long nextSeq = 1;
+        private final TreeMap<Long, CollabOpsMessage> outOfOrder = new TreeMap<>();
+
+        Member(Long userId, String username, boolean canEdit) {
+            this.userId = userId;
+            this.username = username;
+            this.canEdit = canEdit;
+        }
+    }
+
+    /**
+     * 一篇笔记的协作会话；members 可并发访问，其余状态由 lock 保护
+     */
+    private static final class NoteSession {
+
+        private final Long noteId;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<String, Member> members = new ConcurrentHashMap<>();
+        private final Map<Long, PendingUpdate> pending = new ConcurrentHashMap<>();
+        private final Map<Long, Modification> modifications = new HashMap<>();
+        private Set<Long> blockIds;
+        private long version;
+        private int flushFailures;
+
+        NoteSession(Long noteId) {
+            this.noteId = noteId;
+        }
+    }
+}
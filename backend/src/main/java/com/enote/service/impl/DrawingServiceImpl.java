@@ -0,0 +1,357 @@
+package com.enote.service.impl;
+
+import com.enote.drawing.DrawingSvg;
+import com.enote.drawing.StrokeCodec;
+import com.enote.dto.DrawingRequest;
+import com.enote.dto.DrawingResponse;
+import com.enote.dto.DrawingStrokesRequest;
+import com.enote.dto.DrawingStrokesResponse;
+import com.enote.entity.Drawing;
+import com.enote.entity.DrawingStrokeSegment;
+import com.enote.exception.PayloadTooLargeException;
+import com.enote.repository.DrawingRepository;
+import com.enote.repository.DrawingStrokeSegmentRepository;
+import com.enote.repository.NoteRepository;
+import com.enote.repository.projection.DrawingView;
+import com.enote.security.SecurityUtils;
+import com.enote.service.DrawingService;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 绘图服务实现类
+ * 每次落笔只插入一条压缩的笔画段并更新序号，不再改写整篇 SVG；
+ * 未合并的笔画达到阈值或绘图空闲后，由定时任务合并进快照并删除已合并的笔画段
+ */
+@Slf4j
+@Service
+public class DrawingServiceImpl implements DrawingService {
+
+    private static final int COMPACT_BATCH_SIZE = 100;
+    private static final float MAX_STROKE_WIDTH = 1000f;
+    private static final float MAX_COORDINATE = 1_000_000f;
+
+    private final DrawingRepository drawingRepository;
+    private final DrawingStrokeSegmentRepository segmentRepository;
+    private final NoteRepository noteRepository;
+    private final SecurityUtils securityUtils;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxStrokesPerRequest;
+    private final int maxPointsPerStroke;
+    private final int maxSvgBytes;
+    private final long compactThreshold;
+    private final long compactIdleSeconds;
+
+    public DrawingServiceImpl(DrawingRepository drawingRepository,
+                              DrawingStrokeSegmentRepository segmentRepository,
+                              NoteRepository noteRepository, SecurityUtils securityUtils,
+                              TransactionTemplate transactionTemplate,
+                              @Value("${drawings.max-strokes-per-request:500}") int maxStrokesPerRequest,
+                              @Value("${drawings.max-points-per-stroke:10000}") int maxPointsPerStroke,
+                              @Value("${drawings.max-svg-bytes:8388608}") int maxSvgBytes,
+                              @Value("${drawings.compact-threshold:256}") long compactThreshold,
+                              @Value("${drawings.compact-idle-seconds:60}") long compactIdleSeconds) {
+        this.drawingRepository = drawingRepository;
+        this.segmentRepository = segmentRepository;
+        this.noteRepository = noteRepository;
+        this.securityUtils = securityUtils;
+        this.transactionTemplate = transactionTemplate;
+        this.maxStrokesPerRequest = maxStrokesPerRequest;
+        this.maxPointsPerStroke = maxPointsPerStroke;
+        this.maxSvgBytes = maxSvgBytes;
+        this.compactThreshold = compactThreshold;
+        this.compactIdleSeconds = compactIdleSeconds;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<DrawingResponse> getDrawings(Long noteId) {
+        validateNoteOwnership(noteId);
+        return drawingRepository.findViewsByNoteId(noteId).stream()
+                .map(this::toResponse)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public DrawingResponse getDrawing(Long id) {
+        validateOwnership(id);
+        return loadResponse(id);
+    }
+
+    @Override
+    @Transactional
+    public DrawingResponse createDrawing(Long noteId, DrawingRequest request) {
+        validateNoteOwnership(noteId);
+        Drawing drawing = new Drawing();
+        drawing.setNote(noteRepository.getReferenceById(noteId));
+        drawing.setWidth(request.getWidth());
+        drawing.setHeight(request.getHeight());
+        drawing.setSnapshot(DrawingSvg.gzip(documentOf(request)));
+        drawing.setUpdatedAt(LocalDateTime.now());
+        drawing = drawingRepository.save(drawing);
+        return toResponse(drawing, noteId);
+    }
+
+    @Override
+    @Transactional
+    public DrawingResponse replaceDrawing(Long id, DrawingRequest request) {
+        validateOwnership(id);
+        String document = documentOf(request);
+        Drawing drawing = drawingRepository.lockById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Drawing not found"));
+        segmentRepository.deleteByDrawingId(id);
+        // 序号继续递增，持有旧序号的客户端拉取增量时会收到 resync
+        long seq = drawing.getLastSeq() + 1;
+        drawing.setSnapshot(DrawingSvg.gzip(document));
+        drawing.setSvgData("");
+        drawing.setSnapshotSeq(seq);
+        drawing.setLastSeq(seq);
+        drawing.setStrokeCount(0);
+        drawing.setWidth(request.getWidth());
+        drawing.setHeight(request.getHeight());
+        drawing.setUpdatedAt(LocalDateTime.now());
+        return toResponse(drawing, drawing.getNote().getId());
+    }
+
+    @Override
+    @Transactional
+    public void deleteDrawing(Long id) {
+        validateOwnership(id);
+        segmentRepository.deleteByDrawingId(id);
+        drawingRepository.deleteById(id);
+    }
+
+    @Override
+    @Transactional
+    public DrawingResponse appendStrokes(Long id, DrawingStrokesRequest request) {
+        validateOwnership(id);
+        List<StrokeCodec.Stroke> strokes = toStrokes(request.getStrokes());
+        byte[] data = StrokeCodec.encode(strokes);
+
+        long lastSeq = drawingRepository.lockLastSeq(id)
+                .orElseThrow(() -> new EntityNotFoundException("Drawing not found"));
+        LocalDateTime now = LocalDateTime.now();
+        DrawingStrokeSegment segment = new DrawingStrokeSegment();
+        segment.setDrawingId(id);
+        segment.setFirstSeq(lastSeq + 1);
+        segment.setLastSeq(lastSeq + strokes.size());
+        segment.setData(data);
+        segment.setCreatedAt(now);
+        segmentRepository.save(segment);
+        drawingRepository.advance(id, segment.getLastSeq(), strokes.size(), now);
+        return loadResponse(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public DrawingStrokesResponse getStrokes(Long id, long after) {
+        validateOwnership(id);
+        Drawing drawing = drawingRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Drawing not found"));
+        if (after < drawing.getSnapshotSeq()) {
+            return DrawingStrokesResponse.builder().lastSeq(drawing.getLastSeq()).resync(true).build();
+        }
+        List<DrawingStrokesResponse.StrokeDTO> strokes = new ArrayList<>();
+        for (DrawingStrokeSegment segment : segmentRepository.findAfter(id, after)) {
+            long seq = segment.getFirstSeq();
+            for (StrokeCodec.Stroke stroke : StrokeCodec.decode(segment.getData())) {
+                if (seq > after) {
+                    strokes.add(new DrawingStrokesResponse.StrokeDTO(seq, colorOf(stroke.argb()),
+                            stroke.width(), stroke.points()));
+                }
+                seq++;
+            }
+        }
+        return DrawingStrokesResponse.builder()
+                .lastSeq(drawing.getLastSeq())
+                .strokes(strokes)
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Svg getSvg(Long id) {
+        validateOwnership(id);
+        Drawing drawing = drawingRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Drawing not found"));
+        if (drawing.getSnapshot() != null && drawing.getLastSeq().equals(drawing.getSnapshotSeq())) {
+            return new Svg(drawing.getLastSeq(), drawing.getSnapshot(), true);
+        }
+        String document = render(drawing);
+        return new Svg(drawing.getLastSeq(), document.getBytes(StandardCharsets.UTF_8), false);
+    }
+
+    /**
+     * 将未合并的笔画合并进快照，每个绘图在独立事务中处理
+     */
+    @Scheduled(fixedDelayString = "${drawings.compact-interval-ms:30000}")
+    public void compact() {
+        List<Long> ids = drawingRepository.findIdsToCompact(compactThreshold,
+                LocalDateTime.now().minusSeconds(compactIdleSeconds), PageRequest.of(0, COMPACT_BATCH_SIZE));
+        int compacted = 0;
+        for (Long id : ids) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> compact(id));
+                compacted++;
+            } catch (RuntimeException e) {
+                log.warn("Failed to compact drawing {}", id, e);
+            }
+        }
+        if (compacted > 0) {
+            log.info("Compacted {} drawings", compacted);
+        }
+    }
+
+    // 锁定绘图行，与追加笔画互斥；合并后 snapshotSeq 追上 lastSeq，旧笔画段随之删除
+    private void compact(Long id) {
+        Drawing drawing = drawingRepository.lockById(id).orElse(null);
+        if (drawing == null || drawing.getLastSeq() <= drawing.getSnapshotSeq()) {
+            return;
+        }
+        drawing.setSnapshot(DrawingSvg.gzip(render(drawing)));
+        drawing.setSvgData("");
+        drawing.setSnapshotSeq(drawing.getLastSeq());
+        segmentRepository.deleteUpTo(id, drawing.getLastSeq());
+    }
+
+    // 快照（或旧版 SVG 文本）加上所有未合并的笔画
+    private String render(Drawing drawing) {
+        String document;
+        if (drawing.getSnapshot() != null) {
+            document = DrawingSvg.gunzip(drawing.getSnapshot());
+        } else if (StringUtils.hasText(drawing.getSvgData())) {
+            document = drawing.getSvgData();
+        } else {
+            document = DrawingSvg.empty(sizeOf(drawing.getWidth()), sizeOf(drawing.getHeight()));
+        }
+        StringBuilder paths = new StringBuilder();
+        for (DrawingStrokeSegment segment : segmentRepository.findAfter(drawing.getId(), drawing.getSnapshotSeq())) {
+            long seq = segment.getFirstSeq();
+            List<StrokeCodec.Stroke> strokes = StrokeCodec.decode(segment.getData());
+            // 合并点之前的笔画已在快照中
+            int skip = (int) Math.max(0, drawing.getSnapshotSeq() - seq + 1);
+            if (skip < strokes.size()) {
+                paths.append(DrawingSvg.render(strokes.subList(skip, strokes.size()), seq + skip));
+            }
+        }
+        return DrawingSvg.append(document, paths.toString());
+    }
+
+    private String documentOf(DrawingRequest request) {
+        if (!StringUtils.hasText(request.getSvg())) {
+            return DrawingSvg.empty(request.getWidth(), request.getHeight());
+        }
+        String svg = request.getSvg();
+        if (svg.length() > maxSvgBytes || svg.getBytes(StandardCharsets.UTF_8).length > maxSvgBytes) {
+            throw new PayloadTooLargeException("Drawing exceeds " + maxSvgBytes + " bytes");
+        }
+        return svg;
+    }
+
+    private List<StrokeCodec.Stroke> toStrokes(List<DrawingStrokesRequest.Stroke> requested) {
+        if (requested.size() > maxStrokesPerRequest) {
+            throw new PayloadTooLargeException("At most " + maxStrokesPerRequest + " strokes per request");
+        }
+        List<StrokeCodec.Stroke> strokes = new ArrayList<>(requested.size());
+        for (DrawingStrokesRequest.Stroke stroke : requested) {
+            float[] points = stroke.getPoints();
+            if (points.length % 2 != 0) {
+                throw new IllegalArgumentException("Stroke points must be x, y pairs");
+            }
+            if (points.length / 2 > maxPointsPerStroke) {
+                throw new PayloadTooLargeException("At most " + maxPointsPerStroke + " points per stroke");
+            }
+            for (float point : points) {
+                if (!Float.isFinite(point) || Math.abs(point) > MAX_COORDINATE) {
+                    throw new IllegalArgumentException("Stroke coordinate out of range");
+                }
+            }
+            if (stroke.getWidth() > MAX_STROKE_WIDTH) {
+                throw new IllegalArgumentException("Stroke width exceeds " + MAX_STROKE_WIDTH);
+            }
+            strokes.add(new StrokeCodec.Stroke(argbOf(stroke.getColor()), stroke.getWidth(), points));
+        }
+        return strokes;
+    }
+
+    // #RRGGBB 或 #RRGGBBAA，格式已由请求校验保证
+    private static int argbOf(String color) {
+        int rgb = Integer.parseInt(color.substring(1, 7), 16);
+        int alpha = color.length() == 9 ? Integer.parseInt(color.substring(7, 9), 16) : 0xFF;
+        return alpha << 24 | rgb;
+    }
+
+    private static String colorOf(int argb) {
+        int alpha = argb >>> 24;
+        String rgb = String.format("#%06x", argb & 0xFFFFFF);
+        return alpha == 0xFF ? rgb : rgb + String.format("%02x", alpha);
+    }
+
+    // 旧版绘图没有记录画布尺寸
+    private static int sizeOf(Integer value) {
+        return value != null ? value : 0;
+    }
+
+    private void validateOwnership(Long id) {
+        Long ownerId = drawingRepository.findActiveOwnerId(id)
+                .orElseThrow(() -> new EntityNotFoundException("Drawing not found"));
+        if (!securityUtils.isCurrentUser(ownerId)) {
+            throw new IllegalStateException("You don't have permission to access this drawing");
+        }
+    }
+
+    // 只读取笔记的所有者ID，不加载可能很大的正文
+    private void validateNoteOwnership(Long noteId) {
+        Long ownerId = noteRepository.findActiveOwnerId(noteId)
+                .orElseThrow(() -> new EntityNotFoundException("Note not found"));
+        if (!securityUtils.isCurrentUser(ownerId)) {
+            throw new IllegalStateException("You don't have permission to access this note");
+        }
+    }
+
+    private DrawingResponse loadResponse(Long id) {
+        DrawingView view = drawingRepository.findViewById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Drawing not found"));
+        return toResponse(view);
+    }
+
+    private DrawingResponse toResponse(DrawingView view) {
+        return DrawingResponse.builder()
+                .id(view.getId())
+                .noteId(view.getNoteId())
+                .width(view.getWidth())
+                .height(view.getHeight())
+                .strokeCount(view.getStrokeCount())
+                .lastSeq(view.getLastSeq())
+                .createdAt(view.getCreatedAt())
+                .updatedAt(view.getUpdatedAt())
+                .build();
+    }
+
+    private DrawingResponse toResponse(Drawing drawing, Long noteId) {
+        return DrawingResponse.builder()
+                .id(drawing.getId())
+                .noteId(noteId)
+                .width(drawing.getWidth())
+                .height(drawing.getHeight())
+                .strokeCount(drawing.getStrokeCount())
+                .lastSeq(drawing.getLastSeq())
+                .createdAt(drawing.getCreatedAt())
+                .updatedAt(drawing.getUpdatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,43 @@
+package com.enote.service.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * 笔记列表游标
+ * 记录上一页最后一条笔记的 (updated_at, id)，对客户端以不透明的 Base64 字符串呈现
+ */
+public record NoteCursor(LocalDateTime updatedAt, Long id) {
+
+    /**
+     * 第一页使用的起始游标，排在所有笔记之前
+     */
+    public static final NoteCursor FIRST = new NoteCursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+
+    public String encode() {
+        String raw = updatedAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游标，为空时返回 FIRST
+     * @param token 客户端传入的游标
+     * @return 游标
+     * @throws IllegalArgumentException 游标格式不正确
+     */
+    public static NoteCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return FIRST;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new NoteCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.enote.service.impl;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * 自动保存草稿的本地追加日志
+ * 每条记录为 [长度][CRC32][内容]；崩溃时最后一条可能写了一半，重放时校验失败的尾部被截断。
+ * 日志只用于进程重启后恢复尚未写回数据库的草稿，写回后记录 CLEARED，并定期重写为只含未写回草稿的新文件
+ */
+final class NoteDraftJournal implements Closeable {
+
+    static final byte DRAFT = 1;
+    static final byte CLEARED = 2;
+
+    private static final int MAX_RECORD_BYTES = 16 * 1024 * 1024;
+    // 草稿标题和正文（UTF-8）的总长度上限，留出记录头和其他字段的空间
+    static final int MAX_DRAFT_BYTES = MAX_RECORD_BYTES - 1024;
+
+    /**
+     * 日志记录
+     * @param type DRAFT 或 CLEARED
+     * @param seq 全局递增序号，CLEARED 表示该笔记序号不大于 seq 的草稿均已处理
+     * @param baseVersion 草稿将覆盖的版本，-1 表示不校验版本
+     */
+    record Entry(byte type, long seq, long noteId, long ownerId, long baseVersion, String title, String content) {
+
+        static Entry cleared(long seq, long noteId) {
+            return new Entry(CLEARED, seq, noteId, 0L, -1L, null, null);
+        }
+    }
+
+    private final Path file;
+    private final boolean fsync;
+    // 追加时持锁落盘，使用 ReentrantLock 以免虚拟线程在 fsync 期间固定载体线程
+    private final ReentrantLock lock = new ReentrantLock();
+    private FileChannel channel;
+
+    NoteDraftJournal(Path file, boolean fsync) {
+        this.file = file;
+        this.fsync = fsync;
+    }
+
+    /**
+     * 读取全部有效记录并打开日志以便追加，校验失败的尾部被截断
+     */
+    List<Entry> open() throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        List<Entry> entries = new ArrayList<>();
+        long valid = 0;
+        if (Files.exists(file)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                while (true) {
+                    byte[] body = readRecord(in);
+                    Entry entry = body != null ? decode(body) : null;
+                    if (entry == null) {
+                        break;
+                    }
+                    entries.add(entry);
+                    valid += 8 + body.length;
+                }
+            }
+        }
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel.size() > valid) {
+            channel.truncate(valid);
+        }
+        channel.position(valid);
+        return entries;
+    }
+
+    void append(Entry entry) throws IOException {
+        lock.lock();
+        try {
+            ByteBuffer record = ByteBuffer.wrap(encode(entry));
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+            if (fsync) {
+                channel.force(false);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 以给定记录重写日志：先写入临时文件并落盘，再原子替换
+     */
+    void rewrite(Collection<Entry> live) throws IOException {
+        lock.lock();
+        try {
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                for (Entry entry : live) {
+                    ByteBuffer record = ByteBuffer.wrap(encode(entry));
+                    while (record.hasRemaining()) {
+                        out.write(record);
+                    }
+                }
+                out.force(true);
+            }
+            channel.close();
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            channel.position(channel.size());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long size() throws IOException {
+        lock.lock();
+        try {
+            return channel.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static byte[] encode(Entry entry) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(body);
+        out.writeByte(entry.type());
+        out.writeLong(entry.seq());
+        out.writeLong(entry.noteId());
+        if (entry.type() == DRAFT) {
+            out.writeLong(entry.ownerId());
+            out.writeLong(entry.baseVersion());
+            writeString(out, entry.title());
+            writeString(out, entry.content());
+        }
+        out.flush();
+        byte[] bytes = body.toByteArray();
+        // 超长记录在重放时会被当作损坏并截断其后的全部记录，因此拒绝写入
+        if (bytes.length > MAX_RECORD_BYTES) {
+            throw new IllegalArgumentException("Journal record of " + bytes.length + " bytes exceeds "
+                    + MAX_RECORD_BYTES);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        ByteBuffer record = ByteBuffer.allocate(8 + bytes.length);
+        record.putInt(bytes.length).putInt((int) crc.getValue()).put(bytes);
+        return record.array();
+    }
+
+    // 读到文件末尾、记录不完整或校验失败时返回 null，之后的内容全部视为无效
+    private static byte[] readRecord(DataInputStream in) throws IOException {
+        byte[] bytes;
+        int checksum;
+        try {
+            int length = in.readInt();
+            if (length <= 0 || length > MAX_RECORD_BYTES) {
+                return null;
+            }
+            checksum = in.readInt();
+            bytes = in.readNBytes(length);
+            if (bytes.length < length) {
+                return null;
+            }
+        } catch (EOFException e) {
+            return null;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return (int) crc.getValue() == checksum ? bytes : null;
+    }
+
+    private static Entry decode(byte[] bytes) throws IOException {
+        try (DataInputStream body = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            byte type = body.readByte();
+            long seq = body.readLong();
+            long noteId = body.readLong();
+            if (type == CLEARED) {
+                return Entry.cleared(seq, noteId);
+            }
+            if (type != DRAFT) {
+                return null;
+            }
+            long ownerId = body.readLong();
+            long baseVersion = body.readLong();
+            String title = readString(body);
+            String content = readString(body);
+            return new Entry(type, seq, noteId, ownerId, baseVersion, title, content);
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 字符串按 UTF-8 编码后的字节数（不分配编码结果）
+     */
+    static long utf8Length(String value) {
+        if (value == null) {
+            return 0;
+        }
+        long bytes = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                bytes += 1;
+            } else if (c < 0x800 || Character.isSurrogate(c)) {
+                // 代理对编码为 4 字节，按每个代理字符 2 字节计算
+                bytes += 2;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = in.readNBytes(length);
+        if (bytes.length < length) {
+            throw new EOFException();
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
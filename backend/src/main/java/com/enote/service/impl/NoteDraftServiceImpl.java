@@ -0,0 +1,462 @@
+package com.enote.service.impl;
+
+import com.enote.dto.NoteDraftResponse;
+import com.enote.dto.NoteRequest;
+import com.enote.entity.ChangeLogEntry.EntityType;
+import com.enote.entity.Note;
+import com.enote.entity.UserNotePermission.PermissionType;
+import com.enote.exception.PayloadTooLargeException;
+import com.enote.exception.PreconditionFailedException;
+import com.enote.repository.BlockRepository;
+import com.enote.repository.NoteRepository;
+import com.enote.repository.projection.NoteTextView;
+import com.enote.repository.projection.NoteVersionView;
+import com.enote.search.NoteSearchIndex;
+import com.enote.security.NotePermissionEvaluator;
+import com.enote.security.SecurityUtils;
+import com.enote.service.NoteDraftService;
+import com.enote.service.NoteRevisionService;
+import com.enote.service.SyncService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * 笔记自动保存服务实现类
+ * 每篇笔记在内存中只保留最新一份草稿，草稿先追加到本地日志再确认，进程崩溃后从日志恢复；
+ * 草稿空闲超过 idle-ms、距首次缓冲超过 max-delay-ms 或被显式提交时，以一条 UPDATE 写回 notes，
+ * 使编辑器每隔几秒一次的自动保存在数据库侧合并为少量写入
+ */
+@Slf4j
+@Service
+public class NoteDraftServiceImpl implements NoteDraftService {
+
+    private static final String JOURNAL_FILE = "drafts.journal";
+    private static final int FLUSH_LOCK_STRIPES = 64;
+
+    private final NoteRepository noteRepository;
+    private final BlockRepository blockRepository;
+    private final NoteRevisionService noteRevisionService;
+    private final SyncService syncService;
+    private final NoteSearchIndex noteSearchIndex;
+    private final NotePermissionEvaluator permissionEvaluator;
+    private final SecurityUtils securityUtils;
+    private final TransactionTemplate transactionTemplate;
+    private final NoteDraftJournal journal;
+    private final long idleMillis;
+    private final long maxDelayMillis;
+    private final int maxDrafts;
+    private final long journalCompactBytes;
+    private final long maxDraftBytes;
+
+    private final ConcurrentMap<Long, Draft> drafts = new ConcurrentHashMap<>();
+    private final AtomicLong seq = new AtomicLong();
+    // 追加日志与更新内存草稿在同一把锁内完成，重写日志时内存中的草稿与日志内容一致
+    private final ReentrantLock journalLock = new ReentrantLock();
+    // 同一笔记的写回串行执行
+    private final ReentrantLock[] flushLocks = new ReentrantLock[FLUSH_LOCK_STRIPES];
+
+    public NoteDraftServiceImpl(NoteRepository noteRepository, BlockRepository blockRepository,
+                                NoteRevisionService noteRevisionService, SyncService syncService,
+                                NoteSearchIndex noteSearchIndex, NotePermissionEvaluator permissionEvaluator,
+                                SecurityUtils securityUtils, TransactionTemplate transactionTemplate,
+                                @Value("${autosave.journal-dir:./autosave}") String journalDir,
+                                @Value("${autosave.journal-fsync:true}") boolean journalFsync,
+                                @Value("${autosave.idle-ms:3000}") long idleMillis,
+                                @Value("${autosave.max-delay-ms:30000}") long maxDelayMillis,
+                                @Value("${autosave.max-drafts:10000}") int maxDrafts,
+                                @Value("${autosave.journal-compact-bytes:8388608}") long journalCompactBytes,
+                                @Value("${autosave.max-draft-bytes:4194304}") long maxDraftBytes) {
+        this.noteRepository = noteRepository;
+        this.blockRepository = blockRepository;
+        this.noteRevisionService = noteRevisionService;
+        this.syncService = syncService;
+        this.noteSearchIndex = noteSearchIndex;
+        this.permissionEvaluator = permissionEvaluator;
+        this.securityUtils = securityUtils;
+        this.transactionTemplate = transactionTemplate;
+        this.journal = new NoteDraftJournal(Path.of(journalDir).resolve(JOURNAL_FILE), journalFsync);
+        this.idleMillis = idleMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.maxDrafts = maxDrafts;
+        this.journalCompactBytes = journalCompactBytes;
+        // 日志单条记录有长度上限，配置值不能超过它
+        this.maxDraftBytes = Math.min(maxDraftBytes, NoteDraftJournal.MAX_DRAFT_BYTES);
+        for (int i = 0; i < FLUSH_LOCK_STRIPES; i++) {
+            flushLocks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * 从日志恢复上次未写回的草稿，恢复的草稿在下一轮定时任务中立即写回
+     */
+    @PostConstruct
+    public void recover() {
+        List<NoteDraftJournal.Entry> entries;
+        try {
+            entries = journal.open();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open autosave journal", e);
+        }
+
+        Map<Long, NoteDraftJournal.Entry> latest = new HashMap<>();
+        Map<Long, Long> cleared = new HashMap<>();
+        long maxSeq = 0;
+        for (NoteDraftJournal.Entry entry : entries) {
+            maxSeq = Math.max(maxSeq, entry.seq());
+            if (entry.type() == NoteDraftJournal.DRAFT) {
+                latest.merge(entry.noteId(), entry, (a, b) -> b.seq() > a.seq() ? b : a);
+            } else {
+                cleared.merge(entry.noteId(), entry.seq(), Math::max);
+            }
+        }
+        seq.set(maxSeq);
+
+        long now = System.currentTimeMillis();
+        for (NoteDraftJournal.Entry entry : latest.values()) {
+            if (entry.seq() <= cleared.getOrDefault(entry.noteId(), 0L)) {
+                continue;
+            }
+            Long baseVersion = entry.baseVersion() >= 0 ? entry.baseVersion() : null;
+            drafts.put(entry.noteId(), new Draft(entry.noteId(), entry.ownerId(), baseVersion, entry.seq(),
+                    entry.title(), entry.content(), 0L, now, false));
+        }
+        if (!drafts.isEmpty()) {
+            log.info("Recovered {} autosave drafts from journal", drafts.size());
+        }
+        compactJournal(true);
+    }
+
+    @Override
+    public NoteDraftResponse saveDraft(Long noteId, NoteRequest request, Long expectedVersion) {
+        if (request.getTitle() == null || request.getTitle().isBlank()) {
+            throw new IllegalArgumentException("Title is required");
+        }
+        if (NoteDraftJournal.utf8Length(request.getTitle()) + NoteDraftJournal.utf8Length(request.getContent())
+                > maxDraftBytes) {
+            throw new PayloadTooLargeException("Draft exceeds " + maxDraftBytes + " bytes");
+        }
+        Long userId = securityUtils.getCurrentUserId();
+        Long ownerId;
+        Long baseVersion;
+        Draft current = drafts.get(noteId);
+        if (current != null) {
+            if (current.conflict()) {
+                throw new PreconditionFailedException("Draft conflicts with a newer version of the note");
+            }
+            permissionEvaluator.check(noteId, current.ownerId(), userId, PermissionType.EDIT);
+            ownerId = current.ownerId();
+            baseVersion = current.baseVersion();
+        } else {
+            NoteVersionView note = noteRepository.findActiveVersionById(noteId)
+                    .orElseThrow(() -> new EntityNotFoundException("Note not found"));
+            permissionEvaluator.check(noteId, note.getUserId(), userId, PermissionType.EDIT);
+            if (expectedVersion != null && !expectedVersion.equals(note.getVersion())) {
+                throw new PreconditionFailedException("Note has been modified");
+            }
+            ownerId = note.getUserId();
+            baseVersion = expectedVersion;
+        }
+
+        String title = request.getTitle();
+        String content = request.getContent();
+        Draft draft;
+        journalLock.lock();
+        try {
+            long next = seq.incrementAndGet();
+            journal.append(new NoteDraftJournal.Entry(NoteDraftJournal.DRAFT, next, noteId, ownerId,
+                    baseVersion != null ? baseVersion : -1L, title, content));
+            long now = System.currentTimeMillis();
+            draft = drafts.compute(noteId, (id, existing) -> existing == null
+                    ? new Draft(noteId, ownerId, baseVersion, next, title, content, now, now, false)
+                    : existing.update(next, title, content, now));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write autosave journal", e);
+        } finally {
+            journalLock.unlock();
+        }
+
+        // 缓冲的草稿过多时直接写回，内存占用不随在线编辑者数量无限增长
+        if (drafts.size() > maxDrafts) {
+            try {
+                flush(noteId);
+            } catch (RuntimeException e) {
+                log.warn("Failed to flush autosave draft of note {} over the buffer limit", noteId, e);
+            }
+        }
+        return toResponse(draft, false);
+    }
+
+    @Override
+    public NoteDraftResponse getDraft(Long noteId) {
+        Draft draft = drafts.get(noteId);
+        if (draft == null) {
+            throw new EntityNotFoundException("Draft not found");
+        }
+        permissionEvaluator.check(noteId, draft.ownerId(), securityUtils.getCurrentUserId(), PermissionType.EDIT);
+        return toResponse(draft, true);
+    }
+
+    @Override
+    public void commitDraft(Long noteId) {
+        Draft draft = drafts.get(noteId);
+        if (draft == null) {
+            return;
+        }
+        permissionEvaluator.check(noteId, draft.ownerId(), securityUtils.getCurrentUserId(), PermissionType.EDIT);
+        flush(noteId);
+        Draft remaining = drafts.get(noteId);
+        if (remaining != null && remaining.conflict()) {
+            throw new PreconditionFailedException("Draft conflicts with a newer version of the note");
+        }
+    }
+
+    @Override
+    public void discardDraft(Long noteId) {
+        Draft draft = drafts.get(noteId);
+        if (draft == null) {
+            return;
+        }
+        permissionEvaluator.check(noteId, draft.ownerId(), securityUtils.getCurrentUserId(), PermissionType.EDIT);
+        discardPending(noteId);
+    }
+
+    @Override
+    public void flushPending(Long noteId) {
+        Draft draft = drafts.get(noteId);
+        // 无权读取该笔记的调用方不触发写回，随后的读取会按笔记权限拒绝
+        if (draft == null
+                || permissionEvaluator.resolve(noteId, draft.ownerId(), securityUtils.getCurrentUserId()).isEmpty()) {
+            return;
+        }
+        try {
+            flush(noteId);
+        } catch (RuntimeException e) {
+            log.warn("Failed to flush autosave draft of note {} before read", noteId, e);
+        }
+    }
+
+    @Override
+    public void discardPending(Long noteId) {
+        ReentrantLock lock = flushLock(noteId);
+        lock.lock();
+        try {
+            Draft removed = drafts.remove(noteId);
+            if (removed != null) {
+                clear(removed);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 写回空闲或等待过久的草稿，随后按需重写日志
+     */
+    @Scheduled(fixedDelayString = "${autosave.flush-interval-ms:1000}")
+    public void flushDue() {
+        long now = System.currentTimeMillis();
+        for (Draft draft : drafts.values()) {
+            if (draft.conflict()
+                    || (now - draft.updatedAt() < idleMillis && now - draft.firstAt() < maxDelayMillis)) {
+                continue;
+            }
+            try {
+                flush(draft.noteId());
+            } catch (RuntimeException e) {
+                log.warn("Failed to flush autosave draft of note {}", draft.noteId(), e);
+            }
+        }
+        compactJournal(false);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Long noteId : List.copyOf(drafts.keySet())) {
+            try {
+                flush(noteId);
+            } catch (RuntimeException e) {
+                log.warn("Failed to flush autosave draft of note {} on shutdown, kept in journal", noteId, e);
+            }
+        }
+        compactJournal(true);
+        try {
+            journal.close();
+        } catch (IOException e) {
+            log.warn("Failed to close autosave journal", e);
+        }
+    }
+
+    private void flush(Long noteId) {
+        ReentrantLock lock = flushLock(noteId);
+        lock.lock();
+        try {
+            Draft draft = drafts.get(noteId);
+            if (draft == null || draft.conflict()) {
+                return;
+            }
+            Long version = write(draft);
+            if (version != null) {
+                // 写回期间又有新的草稿时保留，并以新版本作为它的基准
+                long now = System.currentTimeMillis();
+                complete(draft, cur -> cur.seq() == draft.seq() ? null : cur.rebase(version, now));
+                noteSearchIndex.index(draft.ownerId(), noteId, draft.title(), draft.content());
+                return;
+            }
+            resolveRejected(draft);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 返回写回后的版本号；笔记已删除或版本不一致时返回 null
+    private Long write(Draft draft) {
+        Long noteId = draft.noteId();
+        String content = draft.content();
+        LocalDateTime now = LocalDateTime.now();
+        return transactionTemplate.execute(status -> {
+            int updated = noteRepository.applyDraft(noteId, draft.baseVersion(), draft.title(), content,
+                    Note.excerptOf(content), content != null ? content.length() : 0, now);
+            if (updated == 0) {
+                return null;
+            }
+            // 与整篇保存一致：正文重新成为唯一数据源，丢弃已有区块
+            blockRepository.deleteByNoteId(noteId);
+            noteRevisionService.record(noteId, draft.title(), content);
+            syncService.recordChange(draft.ownerId(), EntityType.NOTE, noteId, false);
+            return noteRepository.findActiveVersionById(noteId).map(NoteVersionView::getVersion).orElse(null);
+        });
+    }
+
+    /**
+     * 回写被拒绝：笔记已删除时丢弃草稿；内容与当前笔记相同（上次写回后未及记录日志即崩溃）时视为已写回；
+     * 否则标记冲突，草稿保留在内存和日志中，由客户端取回后处理
+     */
+    private void resolveRejected(Draft draft) {
+        Long noteId = draft.noteId();
+        Optional<NoteVersionView> current = noteRepository.findActiveVersionById(noteId);
+        if (current.isEmpty()) {
+            log.info("Dropping autosave draft of deleted note {}", noteId);
+            complete(draft, cur -> null);
+            return;
+        }
+        Optional<NoteTextView> text = noteRepository.findTextById(noteId);
+        if (text.isPresent() && Objects.equals(text.get().getTitle(), draft.title())
+                && Objects.equals(text.get().getContent(), draft.content())) {
+            Long version = current.get().getVersion();
+            long now = System.currentTimeMillis();
+            complete(draft, cur -> cur.seq() == draft.seq() ? null : cur.rebase(version, now));
+            return;
+        }
+        log.info("Autosave draft of note {} conflicts with version newer than {}", noteId, draft.baseVersion());
+        drafts.computeIfPresent(noteId, (id, cur) -> cur.withConflict());
+    }
+
+    private void complete(Draft draft, UnaryOperator<Draft> next) {
+        journalLock.lock();
+        try {
+            Draft remaining = drafts.computeIfPresent(draft.noteId(), (id, cur) -> next.apply(cur));
+            if (remaining == null) {
+                clear(draft);
+            }
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    // CLEARED 记录也需要落盘：否则崩溃后已丢弃的草稿会被恢复并覆盖之后的整篇保存
+    private void clear(Draft draft) {
+        journalLock.lock();
+        try {
+            journal.append(NoteDraftJournal.Entry.cleared(draft.seq(), draft.noteId()));
+        } catch (IOException e) {
+            log.warn("Failed to record cleared autosave draft of note {}", draft.noteId(), e);
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    /**
+     * 日志超过阈值，或草稿已全部写回而日志仍有内容时，重写为只包含未写回草稿的新文件
+     */
+    private void compactJournal(boolean force) {
+        journalLock.lock();
+        try {
+            long size = journal.size();
+            if (!force && size < journalCompactBytes && !(drafts.isEmpty() && size > 0)) {
+                return;
+            }
+            journal.rewrite(drafts.values().stream()
+                    .map(draft -> new NoteDraftJournal.Entry(NoteDraftJournal.DRAFT, draft.seq(), draft.noteId(),
+                            draft.ownerId(), draft.baseVersion() != null ? draft.baseVersion() : -1L,
+                            draft.title(), draft.content()))
+                    .collect(Collectors.toList()));
+        } catch (IOException e) {
+            log.warn("Failed to compact autosave journal", e);
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    private ReentrantLock flushLock(Long noteId) {
+        return flushLocks[Math.floorMod(noteId.hashCode(), FLUSH_LOCK_STRIPES)];
+    }
+
+    private NoteDraftResponse toResponse(Draft draft, boolean withText) {
+        return NoteDraftResponse.builder()
+                .noteId(draft.noteId())
+                .seq(draft.seq())
+                .baseVersion(draft.baseVersion())
+                .conflict(draft.conflict())
+                .updatedAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(draft.updatedAt()), ZoneId.systemDefault()))
+                .title(withText ? draft.title() : null)
+                .content(withText ? draft.content() : null)
+                .build();
+    }
+
+    /**
+     * 缓冲中的草稿，不可变，每次修改替换为新对象
+     * @param baseVersion 写回时校验的版本，null 表示不校验
+     * @param firstAt 上次写回后第一份草稿的时间，用于最长延迟
+     * @param updatedAt 最近一份草稿的时间，用于空闲判断
+     */
+    private record Draft(Long noteId, Long ownerId, Long baseVersion, long seq, String title, String content,
+                         long firstAt, long updatedAt, boolean conflict) {
+
+        Draft update(long seq, String title, String content, long now) {
+            return new Draft(noteId, ownerId, baseVersion, seq, title, content, firstAt, now, conflict);
+        }
+
+        Draft rebase(Long version, long now) {
+            return new Draft(noteId, ownerId, baseVersion != null ? version : null, seq, title, content,
+                    now, updatedAt, conflict);
+        }
+
+        Draft withConflict() {
+            return new Draft(noteId, ownerId, baseVersion, seq, title, content, firstAt, updatedAt, true);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.enote.service.impl;
+
+import com.enote.dto.NoteResponse;
+import com.enote.dto.NoteSummaryResponse;
+import com.enote.entity.Note;
+import com.enote.repository.BlockRepository;
+import com.enote.repository.NoteRepository;
+import com.enote.repository.projection.BlockContentView;
+import com.enote.repository.projection.NoteSummaryView;
+import com.enote.repository.projection.NoteTagView;
+import com.enote.service.NoteETags;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 笔记响应组装器
+ * 列表场景下一页笔记的标签通过一次查询批量读取，分类和作者由列表查询的实体图预先抓取；
+ * 区块编辑尚未合并回正文的笔记，正文、摘要和长度按区块拼接的最新内容返回，与详情接口一致
+ */
+@Component
+@RequiredArgsConstructor
+public class NoteResponseAssembler {
+
+    private final NoteRepository noteRepository;
+    private final BlockRepository blockRepository;
+
+    /**
+     * 转换单篇笔记
+     * @param note 笔记实体
+     * @return 笔记响应对象
+     */
+    public NoteResponse toResponse(Note note) {
+        Set<NoteResponse.TagDTO> tags = note.getTags().stream()
+                .map(tag -> new NoteResponse.TagDTO(tag.getId(), tag.getName()))
+                .collect(Collectors.toSet());
+        return toResponse(note, tags);
+    }
+
+    /**
+     * 转换一页笔记，标签只额外查询一次
+     * @param notes 笔记分页
+     * @return 笔记响应分页
+     */
+    public Page<NoteResponse> toResponses(Page<Note> notes) {
+        Map<Long, Set<NoteResponse.TagDTO>> tagsByNote = loadTags(notes.getContent());
+        Map<Long, String> stitched = loadStitchedContents(notes.getContent().stream()
+                .filter(note -> Boolean.TRUE.equals(note.getContentStale()))
+                .map(Note::getId)
+                .collect(Collectors.toList()));
+        return notes.map(note -> {
+            NoteResponse response = toResponse(note, tagsByNote.getOrDefault(note.getId(), new HashSet<>()));
+            if (stitched.containsKey(note.getId())) {
+                response.setContent(stitched.get(note.getId()));
+            }
+            return response;
+        });
+    }
+
+    /**
+     * 转换一页笔记摘要，标签ID只额外查询一次
+     * @param summaries 摘要分页
+     * @return 摘要响应分页
+     */
+    public Page<NoteSummaryResponse> toSummaries(Page<NoteSummaryView> summaries) {
+        Map<Long, Set<Long>> tagIdsByNote = loadTagIds(summaries.getContent());
+        Map<Long, String> stitched = loadStitchedContents(staleIds(summaries.getContent()));
+        return summaries.map(summary -> toSummary(summary, tagIdsByNote, stitched));
+    }
+
+    /**
+     * 转换摘要列表，标签ID只额外查询一次
+     * @param summaries 摘要列表
+     * @return 摘要响应列表
+     */
+    public List<NoteSummaryResponse> toSummaries(List<NoteSummaryView> summaries) {
+        Map<Long, Set<Long>> tagIdsByNote = loadTagIds(summaries);
+        Map<Long, String> stitched = loadStitchedContents(staleIds(summaries));
+        return summaries.stream()
+                .map(summary -> toSummary(summary, tagIdsByNote, stitched))
+                .collect(Collectors.toList());
+    }
+
+    private Map<Long, Set<Long>> loadTagIds(List<NoteSummaryView> summaries) {
+        Map<Long, Set<Long>> tagIdsByNote = new HashMap<>();
+        if (summaries.isEmpty()) {
+            return tagIdsByNote;
+        }
+        List<Long> noteIds = summaries.stream().map(NoteSummaryView::getId).collect(Collectors.toList());
+        for (NoteTagView view : noteRepository.findTagsByNoteIds(noteIds)) {
+            tagIdsByNote.computeIfAbsent(view.getNoteId(), id -> new HashSet<>()).add(view.getTagId());
+        }
+        return tagIdsByNote;
+    }
+
+    private static List<Long> staleIds(List<NoteSummaryView> summaries) {
+        return summaries.stream()
+                .filter(summary -> Boolean.TRUE.equals(summary.getContentStale()))
+                .map(NoteSummaryView::getId)
+                .collect(Collectors.toList());
+    }
+
+    private NoteSummaryResponse toSummary(NoteSummaryView summary, Map<Long, Set<Long>> tagIdsByNote,
+                                          Map<Long, String> stitched) {
+        String content = stitched.get(summary.getId());
+        return NoteSummaryResponse.builder()
+                .id(summary.getId())
+                .title(summary.getTitle())
+                .excerpt(content != null ? Note.excerptOf(content) : summary.getExcerpt())
+                .contentLength(content != null ? Integer.valueOf(content.length()) : summary.getContentLength())
+                .categoryId(summary.getCategoryId())
+                .tagIds(tagIdsByNote.getOrDefault(summary.getId(), new HashSet<>()))
+                .createdAt(summary.getCreatedAt())
+                .updatedAt(summary.getUpdatedAt())
+                .version(summary.getVersion())
+                .etag(NoteETags.of(summary.getId(), summary.getVersion()))
+                .build();
+    }
+
+    /**
+     * 批量读取笔记的标签
+     * @param notes 笔记列表
+     * @return 笔记ID到标签集合的映射
+     */
+    public Map<Long, Set<NoteResponse.TagDTO>> loadTags(List<Note> notes) {
+        Map<Long, Set<NoteResponse.TagDTO>> tagsByNote = new HashMap<>();
+        if (notes.isEmpty()) {
+            return tagsByNote;
+        }
+        List<Long> noteIds = notes.stream().map(Note::getId).collect(Collectors.toList());
+        for (NoteTagView view : noteRepository.findTagsByNoteIds(noteIds)) {
+            tagsByNote.computeIfAbsent(view.getNoteId(), id -> new HashSet<>())
+                    .add(new NoteResponse.TagDTO(view.getTagId(), view.getTagName()));
+        }
+        return tagsByNote;
+    }
+
+    /**
+     * 按区块顺序拼接区块编辑尚未合并回正文的笔记，多篇笔记的区块只查询一次
+     * @param staleNoteIds 正文待合并的笔记ID，通常为空
+     * @return 笔记ID到拼接后正文的映射
+     */
+    public Map<Long, String> loadStitchedContents(Collection<Long> staleNoteIds) {
+        Map<Long, String> stitched = new HashMap<>();
+        if (staleNoteIds.isEmpty()) {
+            return stitched;
+        }
+        Map<Long, List<String>> blocksByNote = new HashMap<>();
+        for (Long noteId : staleNoteIds) {
+            blocksByNote.put(noteId, new ArrayList<>());
+        }
+        for (BlockContentView block : blockRepository.findContentsByNoteIds(staleNoteIds)) {
+            blocksByNote.get(block.getNoteId()).add(block.getContent());
+        }
+        blocksByNote.forEach((noteId, contents) -> stitched.put(noteId, BlockContent.join(contents)));
+        return stitched;
+    }
+
+    private NoteResponse toResponse(Note note, Set<NoteResponse.TagDTO> tags) {
+        return NoteResponse.builder()
+                .id(note.getId())
+                .title(note.getTitle())
+                .content(note.getContent())
+                .category(note.getCategory() != null ?
+                    new NoteResponse.CategoryDTO(note.getCategory().getId(), note.getCategory().getName()) : null)
+                .tags(tags)
+                .createdAt(note.getCreatedAt())
+                .updatedAt(note.getUpdatedAt())
+                .createdBy(note.getUser().getUsername())
+                .version(note.getVersion())
+                .build();
+    }
+}
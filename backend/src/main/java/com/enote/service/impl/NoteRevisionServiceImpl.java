@@ -0,0 +1,365 @@
+package com.enote.service.impl;
+
+import com.enote.dto.NoteRevisionDiffResponse;
+import com.enote.dto.NoteRevisionResponse;
+import com.enote.entity.NoteRevision;
+import com.enote.entity.UserNotePermission.PermissionType;
+import com.enote.repository.NoteRepository;
+import com.enote.repository.NoteRevisionRepository;
+import com.enote.repository.projection.NoteRevisionView;
+import com.enote.revision.DeltaCodec;
+import com.enote.revision.LineDiff;
+import com.enote.security.NotePermissionEvaluator;
+import com.enote.security.SecurityUtils;
+import com.enote.service.NoteRevisionService;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 笔记修订历史服务实现类
+ * 每 snapshotInterval 个版本保存一次完整快照，其余版本保存相对最近快照的差量；
+ * 同一版本在 coalesceSeconds 内的连续保存（如自动保存）合并为一个版本
+ */
+@Slf4j
+@Service
+public class NoteRevisionServiceImpl implements NoteRevisionService {
+
+    private static final int DIFF_CONTEXT_LINES = 3;
+    // 差量小于该字节数时直接采用，不再计算快照大小做比较
+    private static final int SMALL_DELTA_BYTES = 1024;
+
+    private final NoteRevisionRepository noteRevisionRepository;
+    private final NoteRepository noteRepository;
+    private final SecurityUtils securityUtils;
+    private final NotePermissionEvaluator permissionEvaluator;
+    private final TransactionTemplate transactionTemplate;
+    private final int snapshotInterval;
+    private final long coalesceSeconds;
+    private final long keepAllDays;
+    private final long maxDays;
+
+    public NoteRevisionServiceImpl(NoteRevisionRepository noteRevisionRepository, NoteRepository noteRepository,
+                                   SecurityUtils securityUtils, NotePermissionEvaluator permissionEvaluator,
+                                   TransactionTemplate transactionTemplate,
+                                   @Value("${revisions.snapshot-interval:20}") int snapshotInterval,
+                                   @Value("${revisions.coalesce-seconds:60}") long coalesceSeconds,
+                                   @Value("${revisions.retention.keep-all-days:7}") long keepAllDays,
+                                   @Value("${revisions.retention.max-days:180}") long maxDays) {
+        this.noteRevisionRepository = noteRevisionRepository;
+        this.noteRepository = noteRepository;
+        this.securityUtils = securityUtils;
+        this.permissionEvaluator = permissionEvaluator;
+        this.transactionTemplate = transactionTemplate;
+        this.snapshotInterval = snapshotInterval;
+        this.coalesceSeconds = coalesceSeconds;
+        this.keepAllDays = keepAllDays;
+        this.maxDays = maxDays;
+    }
+
+    @Override
+    @Transactional
+    public void record(Long noteId, String title, String content) {
+        String text = content != null ? content : "";
+        LocalDateTime now = LocalDateTime.now();
+        NoteRevision latest = noteRevisionRepository.findFirstByNoteIdOrderByRevisionNumberDesc(noteId).orElse(null);
+        if (latest == null) {
+            NoteRevision first = new NoteRevision();
+            first.setNote(noteRepository.getReferenceById(noteId));
+            first.setRevisionNumber(1);
+            first.setCreatedAt(now);
+            writeSnapshot(first, title, text, now);
+            noteRevisionRepository.save(first);
+            return;
+        }
+
+        NoteRevision base = Boolean.TRUE.equals(latest.getSnapshot()) ? latest
+                : requireRevision(noteId, latest.getBaseRevision());
+        String baseContent = DeltaCodec.decodeSnapshot(base.getData());
+        String latestContent = base == latest ? baseContent : DeltaCodec.applyDelta(baseContent, latest.getData());
+        if (Objects.equals(latest.getTitle(), title) && latestContent.equals(text)) {
+            return;
+        }
+
+        boolean coalesce = latest.getCreatedAt().isAfter(now.minusSeconds(coalesceSeconds));
+        if (coalesce && base == latest) {
+            // 最新版本本身是快照，没有差量依赖它，直接覆盖
+            writeSnapshot(latest, title, text, now);
+            return;
+        }
+
+        NoteRevision revision = latest;
+        if (!coalesce) {
+            revision = new NoteRevision();
+            revision.setNote(noteRepository.getReferenceById(noteId));
+            revision.setRevisionNumber(latest.getRevisionNumber() + 1);
+            revision.setCreatedAt(now);
+        }
+        writeAgainst(revision, base, baseContent, title, text, now);
+        noteRevisionRepository.save(revision);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<NoteRevisionResponse> getRevisions(Long noteId) {
+        validateReadAccess(noteId);
+        return noteRevisionRepository.findViewsByNoteId(noteId).stream()
+                .map(this::toResponse)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public NoteRevisionResponse getRevision(Long noteId, Integer revisionNumber) {
+        validateReadAccess(noteId);
+        NoteRevision revision = requireRevision(noteId, revisionNumber);
+        return NoteRevisionResponse.builder()
+                .revision(revision.getRevisionNumber())
+                .title(revision.getTitle())
+                .content(contentOf(revision))
+                .contentLength(revision.getContentLength())
+                .storedSize(revision.getStoredSize())
+                .snapshot(revision.getSnapshot())
+                .createdAt(revision.getCreatedAt())
+                .updatedAt(revision.getUpdatedAt())
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public NoteRevisionDiffResponse diff(Long noteId, Integer from, Integer to) {
+        validateReadAccess(noteId);
+        NoteRevision fromRevision = requireRevision(noteId, from);
+        NoteRevision toRevision = requireRevision(noteId, to);
+        List<LineDiff.Line> lines = LineDiff.diff(contentOf(fromRevision), contentOf(toRevision));
+        return NoteRevisionDiffResponse.builder()
+                .from(from)
+                .to(to)
+                .fromTitle(fromRevision.getTitle())
+                .toTitle(toRevision.getTitle())
+                .lines(collapse(lines))
+                .build();
+    }
+
+    /**
+     * 保留策略：keepAllDays 内的版本全部保留；更早的版本每天只保留最后一个；
+     * 超过 maxDays 的版本删除，但始终保留最新版本。被删除快照上的差量会改写到保留的快照上
+     */
+    @Scheduled(cron = "${revisions.retention.cron:0 30 3 * * *}")
+    public void applyRetention() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime thinBefore = now.minusDays(keepAllDays);
+        LocalDateTime expireBefore = now.minusDays(maxDays);
+        Set<Long> noteIds = new LinkedHashSet<>(noteRevisionRepository.findNoteIdsToThin(thinBefore));
+        noteIds.addAll(noteRevisionRepository.findNoteIdsToExpire(expireBefore));
+
+        int removed = 0;
+        for (Long noteId : noteIds) {
+            try {
+                Integer count = transactionTemplate.execute(status -> compactNote(noteId, thinBefore, expireBefore));
+                removed += count != null ? count : 0;
+            } catch (RuntimeException e) {
+                log.warn("Failed to compact revisions of note {}", noteId, e);
+            }
+        }
+        if (removed > 0) {
+            log.info("Removed {} note revisions by retention policy", removed);
+        }
+    }
+
+    private int compactNote(Long noteId, LocalDateTime thinBefore, LocalDateTime expireBefore) {
+        List<NoteRevision> revisions = noteRevisionRepository.findByNoteIdOrderByRevisionNumber(noteId);
+        if (revisions.isEmpty()) {
+            return 0;
+        }
+        Map<Integer, NoteRevision> byNumber = new HashMap<>();
+        revisions.forEach(revision -> byNumber.put(revision.getRevisionNumber(), revision));
+
+        List<NoteRevision> kept = new ArrayList<>();
+        List<NoteRevision> dropped = new ArrayList<>();
+        for (int i = 0; i < revisions.size(); i++) {
+            NoteRevision revision = revisions.get(i);
+            LocalDateTime createdAt = revision.getCreatedAt();
+            boolean last = i == revisions.size() - 1;
+            boolean keep;
+            if (last || !createdAt.isBefore(thinBefore)) {
+                keep = true;
+            } else if (createdAt.isBefore(expireBefore)) {
+                keep = false;
+            } else {
+                // 当天的最后一个版本
+                keep = !revisions.get(i + 1).getCreatedAt().toLocalDate().equals(createdAt.toLocalDate());
+            }
+            (keep ? kept : dropped).add(revision);
+        }
+
+        // 修改任何数据前先还原所有保留版本的正文
+        Map<Integer, String> contents = new HashMap<>();
+        for (NoteRevision revision : kept) {
+            contents.put(revision.getRevisionNumber(), contentOf(revision, byNumber));
+        }
+        Set<Integer> keptNumbers = kept.stream().map(NoteRevision::getRevisionNumber).collect(Collectors.toSet());
+
+        LocalDateTime now = LocalDateTime.now();
+        NoteRevision currentBase = null;
+        for (NoteRevision revision : kept) {
+            if (revision.getCreatedAt().isBefore(thinBefore)) {
+                revision.setCompacted(true);
+            }
+            if (Boolean.TRUE.equals(revision.getSnapshot())) {
+                currentBase = revision;
+                continue;
+            }
+            if (keptNumbers.contains(revision.getBaseRevision())) {
+                continue;
+            }
+            String content = contents.get(revision.getRevisionNumber());
+            if (currentBase == null) {
+                writeSnapshot(revision, revision.getTitle(), content, now);
+                currentBase = revision;
+            } else {
+                writeAgainst(revision, currentBase, contents.get(currentBase.getRevisionNumber()),
+                        revision.getTitle(), content, now);
+                if (Boolean.TRUE.equals(revision.getSnapshot())) {
+                    currentBase = revision;
+                }
+            }
+        }
+        noteRevisionRepository.deleteAll(dropped);
+        return dropped.size();
+    }
+
+    /**
+     * 写入相对 base 快照的差量；距离快照过远或差量不比快照小多少时改存快照
+     */
+    private void writeAgainst(NoteRevision revision, NoteRevision base, String baseContent,
+                              String title, String content, LocalDateTime now) {
+        if (revision.getRevisionNumber() - base.getRevisionNumber() >= snapshotInterval) {
+            writeSnapshot(revision, title, content, now);
+            return;
+        }
+        byte[] delta = DeltaCodec.encodeDelta(baseContent, content);
+        if (delta.length > SMALL_DELTA_BYTES) {
+            byte[] snapshot = DeltaCodec.encodeSnapshot(content);
+            if (delta.length * 2 > snapshot.length) {
+                fill(revision, title, content, now, true, revision.getRevisionNumber(), snapshot);
+                return;
+            }
+        }
+        fill(revision, title, content, now, false, base.getRevisionNumber(), delta);
+    }
+
+    private void writeSnapshot(NoteRevision revision, String title, String content, LocalDateTime now) {
+        fill(revision, title, content, now, true, revision.getRevisionNumber(), DeltaCodec.encodeSnapshot(content));
+    }
+
+    private void fill(NoteRevision revision, String title, String content, LocalDateTime now,
+                      boolean snapshot, Integer baseRevision, byte[] data) {
+        revision.setTitle(title);
+        revision.setContentLength(content.length());
+        revision.setSnapshot(snapshot);
+        revision.setBaseRevision(baseRevision);
+        revision.setData(data);
+        revision.setStoredSize(data.length);
+        revision.setUpdatedAt(now);
+    }
+
+    private String contentOf(NoteRevision revision) {
+        if (Boolean.TRUE.equals(revision.getSnapshot())) {
+            return DeltaCodec.decodeSnapshot(revision.getData());
+        }
+        NoteRevision base = requireRevision(revision.getNote().getId(), revision.getBaseRevision());
+        return DeltaCodec.applyDelta(DeltaCodec.decodeSnapshot(base.getData()), revision.getData());
+    }
+
+    private String contentOf(NoteRevision revision, Map<Integer, NoteRevision> byNumber) {
+        if (Boolean.TRUE.equals(revision.getSnapshot())) {
+            return DeltaCodec.decodeSnapshot(revision.getData());
+        }
+        NoteRevision base = byNumber.get(revision.getBaseRevision());
+        if (base == null) {
+            throw new IllegalStateException("Missing base revision " + revision.getBaseRevision());
+        }
+        return DeltaCodec.applyDelta(DeltaCodec.decodeSnapshot(base.getData()), revision.getData());
+    }
+
+    private NoteRevision requireRevision(Long noteId, Integer revisionNumber) {
+        return noteRevisionRepository.findByNoteIdAndRevisionNumber(noteId, revisionNumber)
+                .orElseThrow(() -> new EntityNotFoundException("Revision not found"));
+    }
+
+    private List<NoteRevisionDiffResponse.DiffLine> collapse(List<LineDiff.Line> lines) {
+        List<NoteRevisionDiffResponse.DiffLine> result = new ArrayList<>();
+        int i = 0;
+        while (i < lines.size()) {
+            if (lines.get(i).op() != LineDiff.Op.EQUAL) {
+                result.add(toDiffLine(lines.get(i++)));
+                continue;
+            }
+            int end = i;
+            while (end < lines.size() && lines.get(end).op() == LineDiff.Op.EQUAL) {
+                end++;
+            }
+            int head = i == 0 ? 0 : DIFF_CONTEXT_LINES;
+            int tail = end == lines.size() ? 0 : DIFF_CONTEXT_LINES;
+            if (end - i > head + tail + 1) {
+                for (int j = i; j < i + head; j++) {
+                    result.add(toDiffLine(lines.get(j)));
+                }
+                result.add(NoteRevisionDiffResponse.DiffLine.builder()
+                        .type(NoteRevisionDiffResponse.DiffType.SKIP)
+                        .skipped(end - i - head - tail)
+                        .build());
+                for (int j = end - tail; j < end; j++) {
+                    result.add(toDiffLine(lines.get(j)));
+                }
+            } else {
+                for (int j = i; j < end; j++) {
+                    result.add(toDiffLine(lines.get(j)));
+                }
+            }
+            i = end;
+        }
+        return result;
+    }
+
+    private NoteRevisionDiffResponse.DiffLine toDiffLine(LineDiff.Line line) {
+        return NoteRevisionDiffResponse.DiffLine.builder()
+                .type(NoteRevisionDiffResponse.DiffType.valueOf(line.op().name()))
+                .text(line.text())
+                .build();
+    }
+
+    private NoteRevisionResponse toResponse(NoteRevisionView view) {
+        return NoteRevisionResponse.builder()
+                .revision(view.getRevisionNumber())
+                .title(view.getTitle())
+                .contentLength(view.getContentLength())
+                .storedSize(view.getStoredSize())
+                .snapshot(view.getSnapshot())
+                .createdAt(view.getCreatedAt())
+                .updatedAt(view.getUpdatedAt())
+                .build();
+    }
+
+    // 修订历史与笔记正文同等可见：所有者和获得只读或编辑授权的用户均可查看
+    private void validateReadAccess(Long noteId) {
+        Long ownerId = noteRepository.findActiveOwnerId(noteId)
+                .orElseThrow(() -> new EntityNotFoundException("Note not found"));
+        permissionEvaluator.check(noteId, ownerId, securityUtils.getCurrentUserId(), PermissionType.READ);
+    }
+}
@@ -0,0 +1,163 @@
+package com.enote.service.impl;
+
+import com.enote.dto.NoteSearchResponse;
+import com.enote.entity.ChangeLogEntry;
+import com.enote.entity.ChangeLogEntry.EntityType;
+import com.enote.entity.Note;
+import com.enote.repository.BlockRepository;
+import com.enote.repository.ChangeLogRepository;
+import com.enote.repository.NoteRepository;
+import com.enote.repository.projection.NoteTextView;
+import com.enote.search.NoteSearchIndex;
+import com.enote.search.SnippetBuilder;
+import com.enote.search.Tokenizer;
+import com.enote.security.SecurityUtils;
+import com.enote.service.NoteSearchService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 笔记全文检索服务实现类
+ * 检索只走内存倒排索引，数据库仅用于读取当前页命中笔记的内容以生成摘要，
+ * 以及按变更记录追平索引加载后其他实例写入的笔记
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class NoteSearchServiceImpl implements NoteSearchService {
+
+    // 单次检索最多追平的变更数，落后更多时整体重建该用户的索引
+    private static final int MAX_CATCH_UP_CHANGES = 500;
+
+    private final NoteRepository noteRepository;
+    private final BlockRepository blockRepository;
+    private final ChangeLogRepository changeLogRepository;
+    private final NoteSearchIndex noteSearchIndex;
+    private final SecurityUtils securityUtils;
+
+    @Override
+    public Page<NoteSearchResponse> search(String query, Pageable pageable) {
+        List<String> terms = Tokenizer.tokenizeQuery(query);
+        if (terms.isEmpty()) {
+            return Page.empty(pageable);
+        }
+
+        Long userId = securityUtils.getCurrentUserId();
+        NoteSearchIndex.UserIndex index = noteSearchIndex.getOrLoad(userId, userIndex -> load(userId, userIndex));
+        if (!catchUp(userId, index)) {
+            index = noteSearchIndex.reload(userId, index, userIndex -> load(userId, userIndex));
+        }
+
+        NoteSearchIndex.Result result = index.search(terms, (int) pageable.getOffset(), pageable.getPageSize());
+        if (result.hits().isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, result.total());
+        }
+
+        List<Long> ids = result.hits().stream().map(NoteSearchIndex.Hit::noteId).collect(Collectors.toList());
+        Map<Long, Note> notes = noteRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Note::getId, Function.identity()));
+
+        List<NoteSearchResponse> content = new ArrayList<>();
+        for (NoteSearchIndex.Hit hit : result.hits()) {
+            Note note = notes.get(hit.noteId());
+            if (note == null || Boolean.TRUE.equals(note.getIsDeleted())) {
+                continue;
+            }
+            content.add(NoteSearchResponse.builder()
+                    .id(note.getId())
+                    .title(note.getTitle())
+                    .snippet(SnippetBuilder.build(currentContent(note), terms))
+                    .score(hit.score())
+                    .updatedAt(note.getUpdatedAt())
+                    .build());
+        }
+        return new PageImpl<>(content, pageable, result.total());
+    }
+
+    /**
+     * 先记录变更序号再读取笔记，两者处于同一事务快照中，追平时从该序号之后开始；
+     * 序号之前的区块编辑视为已应用，因此尚未合并回正文的笔记必须在这里按区块拼接。
+     * 流式读取期间连接不能执行其他查询，拼接内容在读取前预先取出；这类笔记只在合并周期内存在，数量很少
+     */
+    private void load(Long userId, NoteSearchIndex.UserIndex userIndex) {
+        Long seq = changeLogRepository.findLatestSeq(userId);
+        userIndex.syncedTo(seq != null ? seq : 0L);
+        Map<Long, String> staleContents = new HashMap<>();
+        for (Long noteId : noteRepository.findContentStaleIdsByUserId(userId)) {
+            staleContents.put(noteId, stitchedContent(noteId));
+        }
+        try (Stream<NoteTextView> notes = noteRepository.streamActiveNoteTextByUserId(userId)) {
+            notes.forEach(note -> userIndex.load(note.getId(), note.getTitle(),
+                    staleContents.getOrDefault(note.getId(), note.getContent())));
+        }
+    }
+
+    // 区块编辑尚未合并回正文的笔记按区块顺序拼接最新内容
+    private String currentContent(Note note) {
+        return Boolean.TRUE.equals(note.getContentStale()) ? stitchedContent(note.getId()) : note.getContent();
+    }
+
+    private String stitchedContent(Long noteId) {
+        return BlockContent.join(blockRepository.findContentsByNoteId(noteId));
+    }
+
+    /**
+     * 将索引序号之后的笔记变更（包括其他实例的写入）应用到索引；本实例的写入已增量更新过，重复应用结果不变
+     * @return false 表示落后过多，需要重建索引
+     */
+    private boolean catchUp(Long userId, NoteSearchIndex.UserIndex index) {
+        if (!index.tryBeginSync()) {
+            return true;
+        }
+        try {
+            List<ChangeLogEntry> changes = changeLogRepository.findChangesSince(
+                    userId, index.getSyncedSeq(), PageRequest.of(0, MAX_CATCH_UP_CHANGES + 1));
+            if (changes.isEmpty()) {
+                return true;
+            }
+            if (changes.size() > MAX_CATCH_UP_CHANGES) {
+                return false;
+            }
+
+            Set<Long> changed = new HashSet<>();
+            for (ChangeLogEntry change : changes) {
+                if (change.getEntityType() == EntityType.NOTE) {
+                    changed.add(change.getEntityId());
+                }
+            }
+            if (!changed.isEmpty()) {
+                Set<Long> stale = new HashSet<>(noteRepository.findContentStaleIdsByUserId(userId));
+                Set<Long> active = new HashSet<>();
+                for (NoteTextView note : noteRepository.findActiveTextByIds(changed)) {
+                    String content = stale.contains(note.getId()) ? stitchedContent(note.getId()) : note.getContent();
+                    noteSearchIndex.index(userId, note.getId(), note.getTitle(), content);
+                    active.add(note.getId());
+                }
+                for (Long noteId : changed) {
+                    if (!active.contains(noteId)) {
+                        noteSearchIndex.remove(userId, noteId);
+                    }
+                }
+            }
+            index.syncedTo(changes.get(changes.size() - 1).getSeq());
+            return true;
+        } finally {
+            index.endSync();
+        }
+    }
+}
@@ -1,26 +1,47 @@
 package com.enote.service.impl;
 
+import com.enote.dto.CursorPage;
 import com.enote.dto.NoteRequest;
 import com.enote.dto.NoteResponse;
+import com.enote.dto.NoteSummaryResponse;
 import com.enote.entity.Category;
+import com.enote.entity.ChangeLogEntry.EntityType;
 import com.enote.entity.Note;
 import com.enote.entity.Tag;
 import com.enote.entity.User;
+import com.enote.entity.UserNotePermission.PermissionType;
+import com.enote.exception.PreconditionFailedException;
+import com.enote.repository.BlockRepository;
 import com.enote.repository.CategoryRepository;
 import com.enote.repository.NoteRepository;
 import com.enote.repository.TagRepository;
-import com.enote.repository.UserRepository;
+import com.enote.repository.projection.NoteSummaryView;
+import com.enote.repository.projection.NoteTagView;
+import com.enote.repository.projection.NoteVersionView;
+import com.enote.search.NoteSearchIndex;
+import com.enote.security.NotePermissionEvaluator;
+import com.enote.security.SecurityUtils;
+import com.enote.service.NoteDraftService;
+import com.enote.service.NoteETags;
+import com.enote.service.NoteRevisionService;
 import com.enote.service.NoteService;
+import com.enote.service.SyncService;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.LongSupplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,10 +49,19 @@ import java.util.stream.Collectors;
 @Transactional
 public class NoteServiceImpl implements NoteService {
 
+    private static final int MAX_SCROLL_SIZE = 100;
+
     private final NoteRepository noteRepository;
     private final CategoryRepository categoryRepository;
     private final TagRepository tagRepository;
-    private final UserRepository userRepository;
+    private final SecurityUtils securityUtils;
+    private final NoteSearchIndex noteSearchIndex;
+    private final NoteResponseAssembler noteResponseAssembler;
+    private final BlockRepository blockRepository;
+    private final NoteRevisionService noteRevisionService;
+    private final SyncService syncService;
+    private final NotePermissionEvaluator permissionEvaluator;
+    private final NoteDraftService noteDraftService;
 
     @Override
     public NoteResponse createNote(NoteRequest request) {
@@ -40,16 +70,43 @@ public class NoteServiceImpl implements NoteService {
         updateNoteFromRequest(note, request);
         note.setUser(currentUser);
         note = noteRepository.save(note);
+        noteRevisionService.record(note.getId(), note.getTitle(), note.getContent());
+        syncService.recordChange(currentUser.getId(), EntityType.NOTE, note.getId(), false);
+        reindexAfterCommit(note);
         return convertToResponse(note);
     }
 
     @Override
     public NoteResponse updateNote(Long id, NoteRequest request) {
+        return updateNote(id, request, null);
+    }
+
+    @Override
+    public NoteResponse updateNote(Long id, NoteRequest request, Long expectedVersion) {
         Note note = noteRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Note not found"));
-        validateNoteOwnership(note);
-        updateNoteFromRequest(note, request);
-        note = noteRepository.save(note);
+        validateNoteAccess(note, PermissionType.EDIT);
+        if (expectedVersion != null && !expectedVersion.equals(note.getVersion())) {
+            throw new PreconditionFailedException("Note has been modified");
+        }
+        // 整篇保存的内容比缓冲中的自动保存草稿更新，提交后丢弃草稿以免之后的写回覆盖本次保存；
+        // 保存失败或回滚时草稿仍然保留
+        afterCommit(() -> noteDraftService.discardPending(id));
+        if (securityUtils.isCurrentUser(note.getUser().getId())) {
+            updateNoteFromRequest(note, request);
+        } else {
+            // 分类和标签属于所有者，共享编辑者只能修改标题和正文
+            note.setTitle(request.getTitle());
+            note.setContent(request.getContent());
+        }
+        // 整篇保存时正文重新成为唯一数据源，丢弃已有区块，下次通过区块接口访问时重新拆分
+        blockRepository.deleteByNoteId(id);
+        note.setContentStale(false);
+        // 立即刷新以完成版本校验并取得递增后的版本号；并发修改在此抛出乐观锁异常
+        note = noteRepository.saveAndFlush(note);
+        noteRevisionService.record(note.getId(), note.getTitle(), note.getContent());
+        syncService.recordChange(note.getUser().getId(), EntityType.NOTE, note.getId(), false);
+        reindexAfterCommit(note);
         return convertToResponse(note);
     }
 
@@ -58,8 +115,11 @@ public class NoteServiceImpl implements NoteService {
         Note note = noteRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Note not found"));
         validateNoteOwnership(note);
+        afterCommit(() -> noteDraftService.discardPending(id));
         note.setIsDeleted(true);
         noteRepository.save(note);
+        syncService.recordChange(note.getUser().getId(), EntityType.NOTE, note.getId(), true);
+        reindexAfterCommit(note);
     }
 
     @Override
@@ -67,32 +127,170 @@ public class NoteServiceImpl implements NoteService {
     public NoteResponse getNoteById(Long id) {
         Note note = noteRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Note not found"));
-        validateNoteOwnership(note);
-        return convertToResponse(note);
+        validateNoteAccess(note, PermissionType.READ);
+        NoteResponse response = convertToResponse(note);
+        // 区块编辑尚未合并回正文时，按区块顺序拼接返回最新内容
+        if (Boolean.TRUE.equals(note.getContentStale())) {
+            response.setContent(BlockContent.join(blockRepository.findContentsByNoteId(id)));
+        }
+        return response;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public String getNoteETag(Long id) {
+        NoteVersionView view = noteRepository.findActiveVersionById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Note not found"));
+        permissionEvaluator.check(id, view.getUserId(), securityUtils.getCurrentUserId(), PermissionType.READ);
+        return NoteETags.of(id, view.getVersion(), referencesOf(List.of(view)).get(id));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public String getNotesVersionTag(Pageable pageable, boolean withReferences) {
+        return versionTag(noteRepository.findActiveNoteVersionsByUserId(securityUtils.getCurrentUserId(), pageable),
+                withReferences);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public String getNotesByCategoryVersionTag(Long categoryId, Pageable pageable, boolean withReferences) {
+        validateCategoryOwnership(categoryId);
+        return versionTag(noteRepository.findVersionsByCategoryId(categoryId, pageable), withReferences);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public String getNotesByTagVersionTag(Long tagId, Pageable pageable, boolean withReferences) {
+        validateTagOwnership(tagId);
+        return versionTag(noteRepository.findVersionsByTagId(tagId, pageable), withReferences);
+    }
+
+    private String versionTag(Page<NoteVersionView> versions, boolean withReferences) {
+        if (!withReferences) {
+            return NoteETags.pageToken(versions, NoteVersionView::getId, NoteVersionView::getVersion);
+        }
+        Map<Long, Long> references = referencesOf(versions.getContent());
+        return NoteETags.pageToken(versions, NoteVersionView::getId, NoteVersionView::getVersion,
+                view -> references.get(view.getId()));
+    }
+
+    /**
+     * 计算笔记的引用签名，与完整表示中的分类、标签一致；标签名通过一次查询批量读取
+     */
+    private Map<Long, Long> referencesOf(List<NoteVersionView> views) {
+        Map<Long, Long> references = new HashMap<>();
+        if (views.isEmpty()) {
+            return references;
+        }
+        Map<Long, Map<Long, String>> tagNames = new HashMap<>();
+        List<Long> noteIds = views.stream().map(NoteVersionView::getId).collect(Collectors.toList());
+        for (NoteTagView tag : noteRepository.findTagsByNoteIds(noteIds)) {
+            tagNames.computeIfAbsent(tag.getNoteId(), id -> new HashMap<>())
+                    .put(tag.getTagId(), tag.getTagName());
+        }
+        for (NoteVersionView view : views) {
+            references.put(view.getId(), NoteETags.references(view.getCategoryId(), view.getCategoryName(),
+                    tagNames.getOrDefault(view.getId(), Map.of())));
+        }
+        return references;
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<NoteResponse> getNotes(Pageable pageable) {
-        User currentUser = getCurrentUser();
-        return noteRepository.findActiveNotesByUserId(currentUser.getId(), pageable)
-                .map(this::convertToResponse);
+        return noteResponseAssembler.toResponses(
+                noteRepository.findActiveNotesByUserId(securityUtils.getCurrentUserId(), pageable));
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<NoteResponse> getNotesByCategory(Long categoryId, Pageable pageable) {
         validateCategoryOwnership(categoryId);
-        return noteRepository.findByCategoryId(categoryId, pageable)
-                .map(this::convertToResponse);
+        return noteResponseAssembler.toResponses(noteRepository.findByCategoryId(categoryId, pageable));
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<NoteResponse> getNotesByTag(Long tagId, Pageable pageable) {
         validateTagOwnership(tagId);
-        return noteRepository.findByTagId(tagId, pageable)
-                .map(this::convertToResponse);
+        return noteResponseAssembler.toResponses(noteRepository.findByTagId(tagId, pageable));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<NoteSummaryResponse> getNoteSummaries(Pageable pageable) {
+        return noteResponseAssembler.toSummaries(
+                noteRepository.findActiveNoteSummariesByUserId(securityUtils.getCurrentUserId(), pageable));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<NoteSummaryResponse> getNoteSummariesByCategory(Long categoryId, Pageable pageable) {
+        validateCategoryOwnership(categoryId);
+        return noteResponseAssembler.toSummaries(noteRepository.findSummariesByCategoryId(categoryId, pageable));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<NoteSummaryResponse> getNoteSummariesByTag(Long tagId, Pageable pageable) {
+        validateTagOwnership(tagId);
+        return noteResponseAssembler.toSummaries(noteRepository.findSummariesByTagId(tagId, pageable));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<NoteSummaryResponse> scrollNotes(String cursor, int size, boolean withTotal) {
+        Long userId = securityUtils.getCurrentUserId();
+        NoteCursor after = NoteCursor.decode(cursor);
+        int limit = clampScrollSize(size);
+        List<NoteSummaryView> rows = noteRepository.findActiveNoteSummariesAfter(
+                userId, after.updatedAt(), after.id(), PageRequest.of(0, limit + 1));
+        return toCursorPage(rows, limit, withTotal ? () -> noteRepository.countActiveByUserId(userId) : null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<NoteSummaryResponse> scrollNotesByCategory(Long categoryId, String cursor, int size,
+                                                                 boolean withTotal) {
+        validateCategoryOwnership(categoryId);
+        NoteCursor after = NoteCursor.decode(cursor);
+        int limit = clampScrollSize(size);
+        List<NoteSummaryView> rows = noteRepository.findSummariesByCategoryIdAfter(
+                categoryId, after.updatedAt(), after.id(), PageRequest.of(0, limit + 1));
+        return toCursorPage(rows, limit, withTotal ? () -> noteRepository.countByCategoryId(categoryId) : null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<NoteSummaryResponse> scrollNotesByTag(Long tagId, String cursor, int size, boolean withTotal) {
+        validateTagOwnership(tagId);
+        NoteCursor after = NoteCursor.decode(cursor);
+        int limit = clampScrollSize(size);
+        List<NoteSummaryView> rows = noteRepository.findSummariesByTagIdAfter(
+                tagId, after.updatedAt(), after.id(), PageRequest.of(0, limit + 1));
+        return toCursorPage(rows, limit, withTotal ? () -> noteRepository.countByTagId(tagId) : null);
+    }
+
+    private int clampScrollSize(int size) {
+        return Math.max(1, Math.min(size, MAX_SCROLL_SIZE));
+    }
+
+    // 多读一条用于判断是否还有下一页
+    private CursorPage<NoteSummaryResponse> toCursorPage(List<NoteSummaryView> rows, int limit, LongSupplier total) {
+        boolean hasMore = rows.size() > limit;
+        List<NoteSummaryView> page = hasMore ? rows.subList(0, limit) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            NoteSummaryView last = page.get(page.size() - 1);
+            nextCursor = new NoteCursor(last.getUpdatedAt(), last.getId()).encode();
+        }
+        return CursorPage.<NoteSummaryResponse>builder()
+                .items(noteResponseAssembler.toSummaries(page))
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .totalElements(total != null ? total.getAsLong() : null)
+                .build();
     }
 
     private void updateNoteFromRequest(Note note, NoteRequest request) {
@@ -107,49 +305,89 @@ public class NoteServiceImpl implements NoteService {
         }
 
         if (request.getTagIds() != null && !request.getTagIds().isEmpty()) {
-            Set<Tag> tags = new HashSet<>();
-            for (Long tagId : request.getTagIds()) {
-                Tag tag = tagRepository.findById(tagId)
-                        .orElseThrow(() -> new EntityNotFoundException("Tag not found"));
-                validateTagOwnership(tag);
-                tags.add(tag);
+            syncTags(note, request.getTagIds());
+        }
+    }
+
+    /**
+     * 一次查询解析并校验全部标签，然后在原集合上做增量修改，
+     * Hibernate 只会为新增/移除的关联生成 note_tags 的 INSERT/DELETE（按 jdbc.batch_size 批量执行）
+     */
+    private void syncTags(Note note, Set<Long> tagIds) {
+        Set<Long> requested = new HashSet<>(tagIds);
+        Set<Tag> tags = tagRepository.findByIdIn(requested);
+        if (tags.size() != requested.size()) {
+            throw new EntityNotFoundException("Tag not found");
+        }
+        tags.forEach(this::validateTagOwnership);
+
+        Set<Tag> current = note.getTags();
+        current.removeIf(tag -> !requested.contains(tag.getId()));
+        Set<Long> currentIds = current.stream().map(Tag::getId).collect(Collectors.toSet());
+        for (Tag tag : tags) {
+            if (!currentIds.contains(tag.getId())) {
+                current.add(tag);
             }
-            note.setTags(tags);
         }
     }
 
     private NoteResponse convertToResponse(Note note) {
-        return NoteResponse.builder()
-                .id(note.getId())
-                .title(note.getTitle())
-                .content(note.getContent())
-                .category(note.getCategory() != null ? 
-                    new NoteResponse.CategoryDTO(note.getCategory().getId(), note.getCategory().getName()) : null)
-                .tags(note.getTags().stream()
-                        .map(tag -> new NoteResponse.TagDTO(tag.getId(), tag.getName()))
-                        .collect(Collectors.toSet()))
-                .createdAt(note.getCreatedAt())
-                .updatedAt(note.getUpdatedAt())
-                .createdBy(note.getUser().getUsername())
-                .build();
+        return noteResponseAssembler.toResponse(note);
+    }
+
+    private void reindexAfterCommit(Note note) {
+        Long userId = note.getUser().getId();
+        Long noteId = note.getId();
+        String title = note.getTitle();
+        String content = note.getContent();
+        boolean deleted = Boolean.TRUE.equals(note.getIsDeleted());
+        Runnable reindex = () -> {
+            if (deleted) {
+                noteSearchIndex.remove(userId, noteId);
+            } else {
+                noteSearchIndex.index(userId, noteId, title, content);
+            }
+        };
+
+        // 索引只在事务提交后更新，避免回滚的写入出现在检索结果中
+        afterCommit(reindex);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
     }
 
     private User getCurrentUser() {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        return userRepository.findByUsername(username)
-                .orElseThrow(() -> new EntityNotFoundException("User not found"));
+        return securityUtils.getCurrentUser();
     }
 
+    // 所有权校验只比较ID：当前用户ID来自认证主体，关联实体的ID无需初始化代理即可读取
     private void validateNoteOwnership(Note note) {
-        User currentUser = getCurrentUser();
-        if (!note.getUser().getId().equals(currentUser.getId())) {
+        if (!securityUtils.isCurrentUser(note.getUser().getId())) {
             throw new IllegalStateException("You don't have permission to access this note");
         }
     }
 
+    // 所有者之外的用户按共享授权判定；已删除的笔记只有所有者可见
+    private void validateNoteAccess(Note note, PermissionType required) {
+        if (Boolean.TRUE.equals(note.getIsDeleted())) {
+            validateNoteOwnership(note);
+            return;
+        }
+        permissionEvaluator.check(note.getId(), note.getUser().getId(), securityUtils.getCurrentUserId(), required);
+    }
+
     private void validateCategoryOwnership(Category category) {
-        User currentUser = getCurrentUser();
-        if (!category.getUser().getId().equals(currentUser.getId())) {
+        if (!securityUtils.isCurrentUser(category.getUser().getId())) {
             throw new IllegalStateException("You don't have permission to access this category");
         }
     }
@@ -161,8 +399,7 @@ public class NoteServiceImpl implements NoteService {
     }
 
     private void validateTagOwnership(Tag tag) {
-        User currentUser = getCurrentUser();
-        if (!tag.getUser().getId().equals(currentUser.getId())) {
+        if (!securityUtils.isCurrentUser(tag.getUser().getId())) {
             throw new IllegalStateException("You don't have permission to access this tag");
         }
     }
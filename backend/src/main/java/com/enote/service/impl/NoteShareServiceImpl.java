@@ -0,0 +1,158 @@
+package com.enote.service.impl;
+
+import com.enote.dto.NoteShareRequest;
+import com.enote.dto.NoteShareResponse;
+import com.enote.dto.SharedNoteResponse;
+import com.enote.entity.Note;
+import com.enote.entity.User;
+import com.enote.entity.UserNotePermission;
+import com.enote.repository.NoteRepository;
+import com.enote.repository.UserNotePermissionRepository;
+import com.enote.repository.UserRepository;
+import com.enote.repository.projection.SharedNoteView;
+import com.enote.security.NotePermissionEvaluator;
+import com.enote.security.SecurityUtils;
+import com.enote.service.NoteETags;
+import com.enote.service.NoteShareService;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 笔记共享服务实现类
+ * 授权变更提交后移除被授权用户的权限缓存
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class NoteShareServiceImpl implements NoteShareService {
+
+    private final UserNotePermissionRepository userNotePermissionRepository;
+    private final NoteRepository noteRepository;
+    private final UserRepository userRepository;
+    private final NotePermissionEvaluator permissionEvaluator;
+    private final SecurityUtils securityUtils;
+    private final NoteResponseAssembler noteResponseAssembler;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<NoteShareResponse> getShares(Long noteId) {
+        validateNoteOwnership(noteId);
+        return userNotePermissionRepository.findSharesByNoteId(noteId).stream()
+                .map(view -> NoteShareResponse.builder()
+                        .noteId(noteId)
+                        .userId(view.getUserId())
+                        .username(view.getUsername())
+                        .permission(view.getPermissionType())
+                        .grantedAt(view.getGrantedAt())
+                        .grantedBy(view.getGrantedBy())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public NoteShareResponse share(Long noteId, NoteShareRequest request) {
+        Long ownerId = validateNoteOwnership(noteId);
+        User user = userRepository.findByUsername(request.getUsername())
+                .orElseThrow(() -> new EntityNotFoundException("User not found"));
+        if (user.getId().equals(ownerId)) {
+            throw new IllegalArgumentException("Cannot share a note with its owner");
+        }
+
+        UserNotePermission permission = userNotePermissionRepository.findByNoteIdAndUserId(noteId, user.getId())
+                .orElseGet(() -> {
+                    UserNotePermission created = new UserNotePermission();
+                    created.setNote(noteRepository.getReferenceById(noteId));
+                    created.setUser(user);
+                    created.setGrantedBy(securityUtils.getCurrentUser());
+                    return created;
+                });
+        permission.setPermissionType(request.getPermission());
+        permission = userNotePermissionRepository.save(permission);
+        evictAfterCommit(user.getId());
+
+        return NoteShareResponse.builder()
+                .noteId(noteId)
+                .userId(user.getId())
+                .username(user.getUsername())
+                .permission(permission.getPermissionType())
+                .grantedAt(permission.getGrantedAt())
+                .grantedBy(securityUtils.getCurrentUsername())
+                .build();
+    }
+
+    @Override
+    public void revoke(Long noteId, Long userId) {
+        if (!securityUtils.isCurrentUser(userId)) {
+            validateNoteOwnership(noteId);
+        }
+        if (userNotePermissionRepository.deleteByNoteIdAndUserId(noteId, userId) == 0) {
+            throw new EntityNotFoundException("Share not found");
+        }
+        evictAfterCommit(userId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<SharedNoteResponse> getSharedWithMe(Pageable pageable) {
+        // 排序固定为共享时间倒序，与 (user_id, granted_at) 索引一致
+        Pageable page = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+        Page<SharedNoteView> shared =
+                userNotePermissionRepository.findSharedWithUser(securityUtils.getCurrentUserId(), page);
+        Map<Long, String> stitched = noteResponseAssembler.loadStitchedContents(shared.getContent().stream()
+                .filter(view -> Boolean.TRUE.equals(view.getContentStale()))
+                .map(SharedNoteView::getId)
+                .collect(Collectors.toList()));
+        return shared.map(view -> toSharedResponse(view, stitched.get(view.getId())));
+    }
+
+    // 区块编辑尚未合并回正文时，摘要和长度按拼接后的正文计算
+    private SharedNoteResponse toSharedResponse(SharedNoteView view, String stitchedContent) {
+        return SharedNoteResponse.builder()
+                .id(view.getId())
+                .title(view.getTitle())
+                .excerpt(stitchedContent != null ? Note.excerptOf(stitchedContent) : view.getExcerpt())
+                .contentLength(stitchedContent != null ? Integer.valueOf(stitchedContent.length())
+                        : view.getContentLength())
+                .updatedAt(view.getUpdatedAt())
+                .version(view.getVersion())
+                .etag(NoteETags.of(view.getId(), view.getVersion()))
+                .owner(view.getOwnerUsername())
+                .permission(view.getPermissionType())
+                .sharedAt(view.getGrantedAt())
+                .build();
+    }
+
+    private void evictAfterCommit(Long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    permissionEvaluator.evict(userId);
+                }
+            });
+        } else {
+            permissionEvaluator.evict(userId);
+        }
+    }
+
+    // 只读取笔记的所有者ID，不加载可能很大的正文
+    private Long validateNoteOwnership(Long noteId) {
+        Long ownerId = noteRepository.findActiveOwnerId(noteId)
+                .orElseThrow(() -> new EntityNotFoundException("Note not found"));
+        if (!securityUtils.isCurrentUser(ownerId)) {
+            throw new IllegalStateException("You don't have permission to access this note");
+        }
+        return ownerId;
+    }
+}
@@ -0,0 +1,51 @@
+package com.enote.service.impl;
+
+import com.enote.entity.Note;
+import com.enote.repository.NoteRepository;
+import com.enote.repository.projection.NoteTextView;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * 启动时为历史笔记补齐摘要字段
+ * 分批处理，每批一个事务，已补齐的笔记不会被再次读取
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NoteSummaryBackfillRunner implements ApplicationRunner {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final NoteRepository noteRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int total = 0;
+        int updated;
+        do {
+            updated = transactionTemplate.execute(status -> {
+                List<NoteTextView> batch = noteRepository.findWithoutSummary(PageRequest.of(0, BATCH_SIZE));
+                for (NoteTextView note : batch) {
+                    String content = note.getContent();
+                    noteRepository.updateSummary(note.getId(), Note.excerptOf(content),
+                            content != null ? content.length() : 0);
+                }
+                return batch.size();
+            });
+            total += updated;
+        } while (updated == BATCH_SIZE);
+
+        if (total > 0) {
+            log.info("Backfilled summaries for {} notes", total);
+        }
+    }
+}
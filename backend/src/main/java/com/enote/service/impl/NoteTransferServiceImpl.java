@@ -0,0 +1,396 @@
+package com.enote.service.impl;
+
+import com.enote.dto.NoteImportResult;
+import com.enote.dto.NoteTransferRecord;
+import com.enote.entity.Category;
+import com.enote.entity.ChangeLogEntry.EntityType;
+import com.enote.entity.Note;
+import com.enote.entity.Tag;
+import com.enote.entity.User;
+import com.enote.repository.BlockRepository;
+import com.enote.repository.CategoryRepository;
+import com.enote.repository.NoteRepository;
+import com.enote.repository.TagRepository;
+import com.enote.search.NoteSearchIndex;
+import com.enote.security.SecurityUtils;
+import com.enote.service.NoteTransferService;
+import com.enote.service.SyncService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 笔记批量导入导出服务实现类
+ * 导出使用只进游标逐行读取并直接写出；导入按块（每块一个事务）以 JDBC 批量插入
+ */
+@Slf4j
+@Service
+public class NoteTransferServiceImpl implements NoteTransferService {
+
+    private static final int CHUNK_SIZE = 500;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final int MAX_TITLE_LENGTH = 255;
+    private static final int MAX_CATEGORY_NAME_LENGTH = 50;
+    private static final int MAX_TAG_NAME_LENGTH = 30;
+
+    private static final String EXPORT_SQL =
+            "SELECT n.id, n.title, n.content, n.category_id, n.created_at, n.updated_at, " +
+            "(SELECT GROUP_CONCAT(nt.tag_id) FROM note_tags nt WHERE nt.note_id = n.id) AS tag_ids " +
+            "FROM notes n WHERE n.user_id = ? AND n.is_deleted = 0 ORDER BY n.id";
+
+    private static final String INSERT_NOTE_SQL =
+            "INSERT INTO notes (title, content, excerpt, content_length, category_id, user_id, " +
+            "created_at, updated_at, is_deleted, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    private static final String INSERT_NOTE_TAG_SQL = "INSERT INTO note_tags (note_id, tag_id) VALUES (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final CategoryRepository categoryRepository;
+    private final TagRepository tagRepository;
+    private final NoteRepository noteRepository;
+    private final BlockRepository blockRepository;
+    private final SecurityUtils securityUtils;
+    private final NoteSearchIndex noteSearchIndex;
+    private final SyncService syncService;
+
+    public NoteTransferServiceImpl(DataSource dataSource, JdbcTemplate jdbcTemplate,
+                                   TransactionTemplate transactionTemplate, ObjectMapper objectMapper,
+                                   CategoryRepository categoryRepository, TagRepository tagRepository,
+                                   NoteRepository noteRepository, BlockRepository blockRepository,
+                                   SecurityUtils securityUtils, NoteSearchIndex noteSearchIndex,
+                                   SyncService syncService) {
+        this.jdbcTemplate = jdbcTemplate;
+        // MySQL 驱动在 fetchSize 为 Integer.MIN_VALUE 时逐行返回结果，不会把整个结果集读入内存
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.categoryRepository = categoryRepository;
+        this.tagRepository = tagRepository;
+        this.noteRepository = noteRepository;
+        this.blockRepository = blockRepository;
+        this.securityUtils = securityUtils;
+        this.noteSearchIndex = noteSearchIndex;
+        this.syncService = syncService;
+    }
+
+    @Override
+    public void exportNotes(OutputStream out) throws IOException {
+        Long userId = securityUtils.getCurrentUserId();
+        Map<Long, String> categoryNames = categoryRepository.findByUserId(userId).stream()
+                .collect(Collectors.toMap(Category::getId, Category::getName));
+        Map<Long, String> tagNames = tagRepository.findByUserId(userId).stream()
+                .collect(Collectors.toMap(Tag::getId, Tag::getName));
+        // 区块编辑尚未合并回正文的笔记，按区块顺序拼接最新内容；这类笔记只在合并周期内存在，数量很少
+        Map<Long, String> staleContents = new HashMap<>();
+        for (Long noteId : noteRepository.findContentStaleIdsByUserId(userId)) {
+            staleContents.put(noteId, BlockContent.join(blockRepository.findContentsByNoteId(noteId)));
+        }
+
+        try (SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(out)) {
+            streamingJdbcTemplate.query(EXPORT_SQL, (RowCallbackHandler) rs -> {
+                long id = rs.getLong("id");
+                Long categoryId = rs.getObject("category_id", Long.class);
+                String content = rs.getString("content");
+                NoteTransferRecord record = NoteTransferRecord.builder()
+                        .id(id)
+                        .title(rs.getString("title"))
+                        .content(staleContents.getOrDefault(id, content))
+                        .category(categoryId != null ? categoryNames.get(categoryId) : null)
+                        .tags(parseTagNames(rs.getString("tag_ids"), tagNames))
+                        .createdAt(rs.getObject("created_at", LocalDateTime.class))
+                        .updatedAt(rs.getObject("updated_at", LocalDateTime.class))
+                        .build();
+                try {
+                    writer.write(record);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, userId);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private List<String> parseTagNames(String tagIds, Map<Long, String> tagNames) {
+        List<String> names = new ArrayList<>();
+        if (tagIds == null || tagIds.isEmpty()) {
+            return names;
+        }
+        for (String tagId : tagIds.split(",")) {
+            String name = tagNames.get(Long.valueOf(tagId));
+            if (name != null) {
+                names.add(name);
+            }
+        }
+        return names;
+    }
+
+    @Override
+    public NoteImportResult importNotes(InputStream in) throws IOException {
+        Long userId = securityUtils.getCurrentUserId();
+        ImportContext context = new ImportContext(userId,
+                indexByName(categoryRepository.findByUserId(userId), Category::getName, Category::getId),
+                indexByName(tagRepository.findByUserId(userId), Tag::getName, Tag::getId));
+        NoteImportResult result = new NoteImportResult();
+
+        List<PendingRecord> chunk = new ArrayList<>(CHUNK_SIZE);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        long lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                NoteTransferRecord record = objectMapper.readValue(line, NoteTransferRecord.class);
+                validate(record);
+                chunk.add(new PendingRecord(lineNumber, record));
+            } catch (JsonProcessingException e) {
+                recordError(result, lineNumber, "Malformed JSON: " + e.getOriginalMessage());
+            } catch (IllegalArgumentException e) {
+                recordError(result, lineNumber, e.getMessage());
+            }
+
+            if (chunk.size() == CHUNK_SIZE) {
+                importChunk(context, chunk, result);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(context, chunk, result);
+        }
+        return result;
+    }
+
+    private void validate(NoteTransferRecord record) {
+        if (record.getTitle() == null || record.getTitle().isBlank()) {
+            throw new IllegalArgumentException("Title is required");
+        }
+        if (record.getTitle().length() > MAX_TITLE_LENGTH) {
+            throw new IllegalArgumentException("Title exceeds " + MAX_TITLE_LENGTH + " characters");
+        }
+        if (record.getCategory() != null && record.getCategory().strip().length() > MAX_CATEGORY_NAME_LENGTH) {
+            throw new IllegalArgumentException("Category name exceeds " + MAX_CATEGORY_NAME_LENGTH + " characters");
+        }
+        if (record.getTags() != null) {
+            for (String tag : record.getTags()) {
+                if (tag != null && tag.strip().length() > MAX_TAG_NAME_LENGTH) {
+                    throw new IllegalArgumentException("Tag name exceeds " + MAX_TAG_NAME_LENGTH + " characters");
+                }
+            }
+        }
+    }
+
+    /**
+     * 在一个事务中导入一块记录；失败时整块回滚，再逐条在各自的事务中重试，
+     * 有效记录仍被导入，只有出错的行记录错误。新建的分类/标签只在提交后才加入缓存
+     */
+    private void importChunk(ImportContext context, List<PendingRecord> chunk, NoteImportResult result) {
+        try {
+            commitChunk(context, chunk, result);
+        } catch (RuntimeException e) {
+            if (chunk.size() == 1) {
+                recordError(result, chunk.get(0).line(), "Import failed: " + failureMessage(e));
+                return;
+            }
+            log.warn("Note import chunk failed for user {}, retrying its records one by one", context.userId(), e);
+            for (PendingRecord pending : chunk) {
+                try {
+                    commitChunk(context, List.of(pending), result);
+                } catch (RuntimeException single) {
+                    recordError(result, pending.line(), "Import failed: " + failureMessage(single));
+                }
+            }
+        }
+    }
+
+    private void commitChunk(ImportContext context, List<PendingRecord> chunk, NoteImportResult result) {
+        Map<String, Long> createdCategories = new HashMap<>();
+        Map<String, Long> createdTags = new HashMap<>();
+        List<Long> noteIds = transactionTemplate.execute(status ->
+                insertChunk(context, chunk, createdCategories, createdTags));
+
+        context.categoryIds().putAll(createdCategories);
+        context.tagIds().putAll(createdTags);
+        result.setImported(result.getImported() + chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            NoteTransferRecord record = chunk.get(i).record();
+            noteSearchIndex.index(context.userId(), noteIds.get(i), record.getTitle(), record.getContent());
+        }
+    }
+
+    // 数据访问异常的外层消息包含整条 SQL，报告中只保留最内层原因
+    private static String failureMessage(RuntimeException e) {
+        return NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+    }
+
+    private List<Long> insertChunk(ImportContext context, List<PendingRecord> chunk,
+                                   Map<String, Long> createdCategories, Map<String, Long> createdTags) {
+        User owner = securityUtils.getCurrentUser();
+        LocalDateTime now = LocalDateTime.now();
+
+        List<Long> categoryIds = new ArrayList<>(chunk.size());
+        List<Set<Long>> tagIds = new ArrayList<>(chunk.size());
+        for (PendingRecord pending : chunk) {
+            NoteTransferRecord record = pending.record();
+            categoryIds.add(resolveCategory(record.getCategory(), owner, context, createdCategories));
+            Set<Long> ids = new LinkedHashSet<>();
+            if (record.getTags() != null) {
+                for (String tag : record.getTags()) {
+                    Long tagId = resolveTag(tag, owner, context, createdTags);
+                    if (tagId != null) {
+                        ids.add(tagId);
+                    }
+                }
+            }
+            tagIds.add(ids);
+        }
+
+        List<Long> noteIds = jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+            List<Long> keys = new ArrayList<>(chunk.size());
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_NOTE_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    NoteTransferRecord record = chunk.get(i).record();
+                    String content = record.getContent();
+                    ps.setString(1, record.getTitle());
+                    ps.setString(2, content);
+                    ps.setString(3, Note.excerptOf(content));
+                    ps.setInt(4, content != null ? content.length() : 0);
+                    if (categoryIds.get(i) != null) {
+                        ps.setLong(5, categoryIds.get(i));
+                    } else {
+                        ps.setNull(5, Types.BIGINT);
+                    }
+                    ps.setLong(6, context.userId());
+                    ps.setObject(7, record.getCreatedAt() != null ? record.getCreatedAt() : now);
+                    ps.setObject(8, record.getUpdatedAt() != null ? record.getUpdatedAt() : now);
+                    ps.setBoolean(9, false);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                try (ResultSet generated = ps.getGeneratedKeys()) {
+                    while (generated.next()) {
+                        keys.add(generated.getLong(1));
+                    }
+                }
+            }
+            return keys;
+        });
+        if (noteIds == null || noteIds.size() != chunk.size()) {
+            throw new IllegalStateException("Generated keys do not match inserted notes");
+        }
+
+        List<Object[]> noteTags = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            for (Long tagId : tagIds.get(i)) {
+                noteTags.add(new Object[]{noteIds.get(i), tagId});
+            }
+        }
+        if (!noteTags.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_NOTE_TAG_SQL, noteTags);
+        }
+        syncService.recordChanges(context.userId(), EntityType.CATEGORY, createdCategories.values());
+        syncService.recordChanges(context.userId(), EntityType.TAG, createdTags.values());
+        syncService.recordChanges(context.userId(), EntityType.NOTE, noteIds);
+        return noteIds;
+    }
+
+    private Long resolveCategory(String name, User owner, ImportContext context, Map<String, Long> created) {
+        if (name == null || name.isBlank()) {
+            return null;
+        }
+        String key = nameKey(name);
+        Long id = context.categoryIds().get(key);
+        if (id == null) {
+            id = created.get(key);
+        }
+        if (id == null) {
+            Category category = new Category();
+            category.setName(name.strip());
+            category.setUser(owner);
+            id = categoryRepository.save(category).getId();
+            created.put(key, id);
+        }
+        return id;
+    }
+
+    private Long resolveTag(String name, User owner, ImportContext context, Map<String, Long> created) {
+        if (name == null || name.isBlank()) {
+            return null;
+        }
+        String key = nameKey(name);
+        Long id = context.tagIds().get(key);
+        if (id == null) {
+            id = created.get(key);
+        }
+        if (id == null) {
+            Tag tag = new Tag();
+            tag.setName(name.strip());
+            tag.setUser(owner);
+            id = tagRepository.save(tag).getId();
+            created.put(key, id);
+        }
+        return id;
+    }
+
+    private void recordError(NoteImportResult result, long line, String message) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+            result.getErrors().add(new NoteImportResult.RecordError(line, message));
+        }
+    }
+
+    // 数据库排序规则不区分大小写，名称匹配同样忽略大小写
+    private static String nameKey(String name) {
+        return name.strip().toLowerCase(Locale.ROOT);
+    }
+
+    private static <T> Map<String, Long> indexByName(List<T> items, Function<T, String> name, Function<T, Long> id) {
+        Map<String, Long> index = new HashMap<>();
+        for (T item : items) {
+            index.putIfAbsent(nameKey(name.apply(item)), id.apply(item));
+        }
+        return index;
+    }
+
+    private record ImportContext(Long userId, Map<String, Long> categoryIds, Map<String, Long> tagIds) {
+    }
+
+    private record PendingRecord(long line, NoteTransferRecord record) {
+    }
+}
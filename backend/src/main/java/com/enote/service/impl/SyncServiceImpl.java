@@ -0,0 +1,194 @@
+package com.enote.service.impl;
+
+import com.enote.dto.SyncResponse;
+import com.enote.entity.Category;
+import com.enote.entity.ChangeLogEntry;
+import com.enote.entity.ChangeLogEntry.EntityType;
+import com.enote.entity.Note;
+import com.enote.entity.Tag;
+import com.enote.repository.BlockRepository;
+import com.enote.repository.CategoryRepository;
+import com.enote.repository.ChangeLogRepository;
+import com.enote.repository.NoteRepository;
+import com.enote.repository.TagRepository;
+import com.enote.repository.projection.NoteTagView;
+import com.enote.security.SecurityUtils;
+import com.enote.service.SyncService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 增量同步服务实现类
+ * 变更记录按 (用户, 实体) 去重：同一实体多次修改只保留最新序号，客户端离线再久也只拉取每个实体一次
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class SyncServiceImpl implements SyncService {
+
+    static final int DEFAULT_LIMIT = 500;
+    static final int MAX_LIMIT = 1000;
+
+    private static final String ALLOCATE_SQL =
+            "INSERT INTO change_sequences (user_id, seq) VALUES (?, ?) ON DUPLICATE KEY UPDATE seq = seq + ?";
+    private static final String CURRENT_SEQ_SQL = "SELECT seq FROM change_sequences WHERE user_id = ?";
+    private static final String UPSERT_CHANGE_SQL =
+            "INSERT INTO change_log (user_id, entity_type, entity_id, seq, deleted, changed_at) VALUES (?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE seq = VALUES(seq), deleted = VALUES(deleted), changed_at = VALUES(changed_at)";
+
+    private final ChangeLogRepository changeLogRepository;
+    private final NoteRepository noteRepository;
+    private final CategoryRepository categoryRepository;
+    private final TagRepository tagRepository;
+    private final BlockRepository blockRepository;
+    private final SecurityUtils securityUtils;
+    private final JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void recordChange(Long userId, EntityType type, Long entityId, boolean deleted) {
+        long seq = allocate(userId, 1);
+        jdbcTemplate.update(UPSERT_CHANGE_SQL, userId, type.name(), entityId, seq, deleted,
+                Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    @Override
+    public void recordChanges(Long userId, EntityType type, Collection<Long> entityIds) {
+        if (entityIds.isEmpty()) {
+            return;
+        }
+        long seq = allocate(userId, entityIds.size()) - entityIds.size();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(entityIds.size());
+        for (Long entityId : entityIds) {
+            rows.add(new Object[]{userId, type.name(), entityId, ++seq, false, now});
+        }
+        jdbcTemplate.batchUpdate(UPSERT_CHANGE_SQL, rows);
+    }
+
+    /**
+     * 为用户分配 count 个连续序号，返回其中最大的一个
+     * 先刷新待写入的实体变更，使序号行总是事务中最后加锁的行，避免与实体行的锁顺序相反而死锁
+     */
+    private long allocate(Long userId, int count) {
+        entityManager.flush();
+        jdbcTemplate.update(ALLOCATE_SQL, userId, count, count);
+        Long seq = jdbcTemplate.queryForObject(CURRENT_SEQ_SQL, Long.class, userId);
+        if (seq == null) {
+            throw new IllegalStateException("Change sequence missing for user " + userId);
+        }
+        return seq;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public SyncResponse pull(long since, int limit) {
+        if (since < 0) {
+            throw new IllegalArgumentException("Invalid sync cursor");
+        }
+        int size = limit > 0 ? Math.min(limit, MAX_LIMIT) : DEFAULT_LIMIT;
+        Long userId = securityUtils.getCurrentUserId();
+
+        // 多读一条用于判断是否还有下一批
+        List<ChangeLogEntry> changes = changeLogRepository.findChangesSince(userId, since, PageRequest.of(0, size + 1));
+        boolean hasMore = changes.size() > size;
+        if (hasMore) {
+            changes = changes.subList(0, size);
+        }
+
+        Map<EntityType, List<Long>> changed = new EnumMap<>(EntityType.class);
+        Map<EntityType, List<Long>> deleted = new EnumMap<>(EntityType.class);
+        for (EntityType type : EntityType.values()) {
+            changed.put(type, new ArrayList<>());
+            deleted.put(type, new ArrayList<>());
+        }
+        for (ChangeLogEntry change : changes) {
+            (Boolean.TRUE.equals(change.getDeleted()) ? deleted : changed)
+                    .get(change.getEntityType()).add(change.getEntityId());
+        }
+
+        List<SyncResponse.NoteDTO> notes = loadNotes(userId, changed.get(EntityType.NOTE), deleted.get(EntityType.NOTE));
+        List<SyncResponse.CategoryDTO> categories = new ArrayList<>();
+        for (Category category : categoryRepository.findAllById(changed.get(EntityType.CATEGORY))) {
+            if (userId.equals(category.getUser().getId())) {
+                categories.add(new SyncResponse.CategoryDTO(category.getId(), category.getName(), category.getDescription()));
+            }
+        }
+        List<SyncResponse.TagDTO> tags = new ArrayList<>();
+        for (Tag tag : tagRepository.findAllById(changed.get(EntityType.TAG))) {
+            if (userId.equals(tag.getUser().getId())) {
+                tags.add(new SyncResponse.TagDTO(tag.getId(), tag.getName()));
+            }
+        }
+
+        return SyncResponse.builder()
+                .cursor(changes.isEmpty() ? since : changes.get(changes.size() - 1).getSeq())
+                .hasMore(hasMore)
+                .notes(notes)
+                .categories(categories)
+                .tags(tags)
+                .deletedNoteIds(deleted.get(EntityType.NOTE))
+                .deletedCategoryIds(deleted.get(EntityType.CATEGORY))
+                .deletedTagIds(deleted.get(EntityType.TAG))
+                .build();
+    }
+
+    /**
+     * 读取变更过的笔记，标签ID一次查询批量读取；变更记录之后才被删除的笔记按删除返回
+     */
+    private List<SyncResponse.NoteDTO> loadNotes(Long userId, List<Long> ids, List<Long> deletedIds) {
+        List<SyncResponse.NoteDTO> notes = new ArrayList<>();
+        if (ids.isEmpty()) {
+            return notes;
+        }
+        Map<Long, Set<Long>> tagIdsByNote = new HashMap<>();
+        for (NoteTagView view : noteRepository.findTagsByNoteIds(ids)) {
+            tagIdsByNote.computeIfAbsent(view.getNoteId(), id -> new HashSet<>()).add(view.getTagId());
+        }
+        Set<Long> found = new HashSet<>();
+        for (Note note : noteRepository.findAllById(ids)) {
+            if (!userId.equals(note.getUser().getId()) || Boolean.TRUE.equals(note.getIsDeleted())) {
+                continue;
+            }
+            found.add(note.getId());
+            // 区块编辑尚未合并回正文时，按区块顺序拼接最新内容
+            String content = Boolean.TRUE.equals(note.getContentStale())
+                    ? BlockContent.join(blockRepository.findContentsByNoteId(note.getId()))
+                    : note.getContent();
+            notes.add(SyncResponse.NoteDTO.builder()
+                    .id(note.getId())
+                    .version(note.getVersion())
+                    .title(note.getTitle())
+                    .content(content)
+                    .categoryId(note.getCategory() != null ? note.getCategory().getId() : null)
+                    .tagIds(tagIdsByNote.getOrDefault(note.getId(), new HashSet<>()))
+                    .createdAt(note.getCreatedAt())
+                    .updatedAt(note.getUpdatedAt())
+                    .build());
+        }
+        for (Long id : ids) {
+            if (!found.contains(id)) {
+                deletedIds.add(id);
+            }
+        }
+        return notes;
+    }
+}
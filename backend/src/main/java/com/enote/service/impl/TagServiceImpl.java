@@ -2,10 +2,13 @@ package com.enote.service.impl;
 
 import com.enote.dto.TagRequest;
 import com.enote.dto.TagResponse;
+import com.enote.entity.ChangeLogEntry.EntityType;
 import com.enote.entity.Tag;
 import com.enote.entity.User;
 import com.enote.repository.TagRepository;
+import com.enote.repository.projection.NoteCountView;
 import com.enote.security.SecurityUtils;
+import com.enote.service.SyncService;
 import com.enote.service.TagService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -13,7 +16,10 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -28,6 +34,7 @@ public class TagServiceImpl implements TagService {
 
     private final TagRepository tagRepository;
     private final SecurityUtils securityUtils;
+    private final SyncService syncService;
 
     /**
      * 创建新标签
@@ -46,9 +53,10 @@ public class TagServiceImpl implements TagService {
 
         // 保存标签
         Tag savedTag = tagRepository.save(tag);
+        syncService.recordChange(currentUser.getId(), EntityType.TAG, savedTag.getId(), false);
 
-        // 转换为响应对象并返回
-        return convertToResponse(savedTag);
+        // 新标签尚未关联任何笔记
+        return convertToResponse(savedTag, 0);
     }
 
     /**
@@ -68,9 +76,10 @@ public class TagServiceImpl implements TagService {
         
         // 保存更新后的标签
         Tag updatedTag = tagRepository.save(tag);
+        syncService.recordChange(updatedTag.getUser().getId(), EntityType.TAG, updatedTag.getId(), false);
         
         // 转换为响应对象并返回
-        return convertToResponse(updatedTag);
+        return convertToResponse(updatedTag, countNotes(updatedTag.getId()));
     }
 
     /**
@@ -83,8 +92,9 @@ public class TagServiceImpl implements TagService {
         // 获取标签（同时验证所有权）
         Tag tag = getOwnedTagById(id);
         
-        // 删除标签
+        // 删除标签并登记删除
         tagRepository.delete(tag);
+        syncService.recordChange(tag.getUser().getId(), EntityType.TAG, id, true);
     }
 
     /**
@@ -97,7 +107,7 @@ public class TagServiceImpl implements TagService {
     @Transactional(readOnly = true)
     public TagResponse getTagById(Long id) {
         Tag tag = getOwnedTagById(id);
-        return convertToResponse(tag);
+        return convertToResponse(tag, countNotes(id));
     }
 
     /**
@@ -107,10 +117,11 @@ public class TagServiceImpl implements TagService {
     @Override
     @Transactional(readOnly = true)
     public List<TagResponse> getAllTags() {
-        User currentUser = securityUtils.getCurrentUser();
-        List<Tag> tags = tagRepository.findByUserId(currentUser.getId());
+        Long userId = securityUtils.getCurrentUserId();
+        List<Tag> tags = tagRepository.findByUserId(userId);
+        Map<Long, Integer> counts = toCountMap(tagRepository.countNotesByUserId(userId));
         return tags.stream()
-                .map(this::convertToResponse)
+                .map(tag -> convertToResponse(tag, counts.getOrDefault(tag.getId(), 0)))
                 .collect(Collectors.toList());
     }
 
@@ -122,12 +133,10 @@ public class TagServiceImpl implements TagService {
     @Override
     @Transactional(readOnly = true)
     public Page<TagResponse> getTagsByPage(Pageable pageable) {
-        User currentUser = securityUtils.getCurrentUser();
-        // 这里假设 TagRepository 中有一个 findByUserIdPageable 方法
-        // 实际上可能需要添加这个方法到 TagRepository 中
-        Page<Tag> tagsPage = tagRepository.findAll(pageable);
-        
-        return tagsPage.map(this::convertToResponse);
+        Page<Tag> tagsPage = tagRepository.findByUserId(securityUtils.getCurrentUserId(), pageable);
+        Map<Long, Integer> counts = countNotes(tagsPage.map(Tag::getId).getContent());
+
+        return tagsPage.map(tag -> convertToResponse(tag, counts.getOrDefault(tag.getId(), 0)));
     }
 
     /**
@@ -138,13 +147,15 @@ public class TagServiceImpl implements TagService {
     @Override
     @Transactional(readOnly = true)
     public List<TagResponse> getTagsByIds(Set<Long> tagIds) {
-        User currentUser = securityUtils.getCurrentUser();
         Set<Tag> tags = tagRepository.findByIdIn(tagIds);
         
         // 过滤出属于当前用户的标签
-        return tags.stream()
-                .filter(tag -> tag.getUser().getId().equals(currentUser.getId()))
-                .map(this::convertToResponse)
+        List<Tag> owned = tags.stream()
+                .filter(tag -> securityUtils.isCurrentUser(tag.getUser().getId()))
+                .collect(Collectors.toList());
+        Map<Long, Integer> counts = countNotes(owned.stream().map(Tag::getId).collect(Collectors.toList()));
+        return owned.stream()
+                .map(tag -> convertToResponse(tag, counts.getOrDefault(tag.getId(), 0)))
                 .collect(Collectors.toList());
     }
 
@@ -155,30 +166,54 @@ public class TagServiceImpl implements TagService {
      * @throws IllegalArgumentException 如果标签不存在或不属于当前用户
      */
     private Tag getOwnedTagById(Long id) {
-        User currentUser = securityUtils.getCurrentUser();
-        
         // 获取标签
         Tag tag = tagRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("标签不存在"));
         
         // 验证标签所有权
-        if (!tag.getUser().getId().equals(currentUser.getId())) {
+        if (!securityUtils.isCurrentUser(tag.getUser().getId())) {
             throw new IllegalArgumentException("没有权限操作该标签");
         }
         
         return tag;
     }
 
+    /**
+     * 统计一批标签的笔记数（一条分组查询）
+     * @param tagIds 标签ID集合
+     * @return 标签ID到笔记数的映射，没有笔记的标签不在其中
+     */
+    private Map<Long, Integer> countNotes(Collection<Long> tagIds) {
+        if (tagIds.isEmpty()) {
+            return Map.of();
+        }
+        return toCountMap(tagRepository.countNotesByTagIds(tagIds));
+    }
+
+    private int countNotes(Long tagId) {
+        return countNotes(List.of(tagId)).getOrDefault(tagId, 0);
+    }
+
+    private static Map<Long, Integer> toCountMap(List<NoteCountView> views) {
+        Map<Long, Integer> counts = new HashMap<>();
+        for (NoteCountView view : views) {
+            counts.put(view.getId(), view.getNoteCount().intValue());
+        }
+        return counts;
+    }
+
     /**
      * 将标签实体转换为响应对象
+     * 笔记数由调用方批量统计后传入，不初始化 Tag.notes 集合
      * @param tag 标签实体
+     * @param noteCount 未删除笔记数
      * @return 标签响应对象
      */
-    private TagResponse convertToResponse(Tag tag) {
+    private TagResponse convertToResponse(Tag tag, int noteCount) {
         return TagResponse.builder()
                 .id(tag.getId())
                 .name(tag.getName())
-                .noteCount(tag.getNotes() != null ? tag.getNotes().size() : 0)
+                .noteCount(noteCount)
                 .build();
     }
 }
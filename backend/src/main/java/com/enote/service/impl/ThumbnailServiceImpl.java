@@ -0,0 +1,322 @@
+package com.enote.service.impl;
+
+import com.enote.exception.UnsupportedMediaTypeException;
+import com.enote.service.ThumbnailService;
+import com.enote.storage.BlobStore;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 缩略图服务实现类
+ * 生成任务在固定大小、有界队列的线程池中执行，队列满时拒绝而不是在请求线程中生成；
+ * 进行中的任务按 (摘要, 尺寸) 登记，并发请求同一个缺失的缩略图时共享同一个任务
+ */
+@Slf4j
+@Service
+public class ThumbnailServiceImpl implements ThumbnailService {
+
+    private static final String JPEG = "jpg";
+    private static final String PNG = "png";
+    private static final float JPEG_QUALITY = 0.85f;
+
+    private final BlobStore blobStore;
+    private final Path derivedRoot;
+    private final int[] sizes;
+    private final long maxSourcePixels;
+    private final long waitTimeoutMs;
+    private final ThreadPoolExecutor executor;
+    private final ConcurrentHashMap<String, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+
+    public ThumbnailServiceImpl(BlobStore blobStore,
+                                @Value("${file.upload-dir:./uploads}") String uploadDir,
+                                @Value("${thumbnails.sizes:128,512,1024}") int[] sizes,
+                                @Value("${thumbnails.workers:2}") int workers,
+                                @Value("${thumbnails.queue-capacity:64}") int queueCapacity,
+                                @Value("${thumbnails.max-source-pixels:50000000}") long maxSourcePixels,
+                                @Value("${thumbnails.wait-timeout-ms:10000}") long waitTimeoutMs) throws IOException {
+        this.blobStore = blobStore;
+        this.derivedRoot = Files.createDirectories(Paths.get(uploadDir).toAbsolutePath().normalize().resolve("derived"));
+        this.sizes = Arrays.stream(sizes).filter(size -> size > 0).sorted().distinct().toArray();
+        if (this.sizes.length == 0) {
+            throw new IllegalArgumentException("thumbnails.sizes must contain at least one positive size");
+        }
+        this.maxSourcePixels = maxSourcePixels;
+        this.waitTimeoutMs = waitTimeoutMs;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "thumbnail-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public boolean supports(String fileType) {
+        if (fileType == null) {
+            return false;
+        }
+        String type = fileType.toLowerCase(Locale.ROOT);
+        return type.startsWith("image/") && !type.startsWith("image/svg");
+    }
+
+    @Override
+    public int normalizeSize(int requested) {
+        for (int size : sizes) {
+            if (size >= requested) {
+                return size;
+            }
+        }
+        return sizes[sizes.length - 1];
+    }
+
+    @Override
+    public Thumbnail getThumbnail(String hash, int size) throws IOException {
+        Optional<Path> cached = findCached(hash, size);
+        Path path;
+        if (cached.isPresent()) {
+            path = cached.get();
+        } else {
+            path = await(submit(hash, size));
+        }
+        return new Thumbnail(path, path.getFileName().toString().endsWith(PNG) ? "image/png" : "image/jpeg",
+                Files.size(path));
+    }
+
+    @Override
+    public void pregenerate(String hash) {
+        for (int size : sizes) {
+            if (findCached(hash, size).isEmpty()) {
+                submit(hash, size);
+            }
+        }
+    }
+
+    @Override
+    public void evict(String hash) {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(derivedDir(hash), hash + "-*")) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        } catch (NoSuchFileException e) {
+            // 没有生成过缩略图
+        } catch (IOException e) {
+            log.warn("Failed to evict thumbnails of {}", hash, e);
+        }
+    }
+
+    /**
+     * 提交生成任务；同一缩略图已在生成中时返回进行中的任务。队列已满时返回以 RejectedExecutionException 失败的任务
+     */
+    private CompletableFuture<Path> submit(String hash, int size) {
+        String key = hash + "-" + size;
+        CompletableFuture<Path> created = new CompletableFuture<>();
+        CompletableFuture<Path> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    created.complete(render(hash, size));
+                } catch (Throwable e) {
+                    created.completeExceptionally(e);
+                } finally {
+                    inFlight.remove(key, created);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key, created);
+            created.completeExceptionally(e);
+        }
+        return created;
+    }
+
+    private Path await(CompletableFuture<Path> future) throws IOException {
+        try {
+            return future.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // 任务继续在后台执行，客户端稍后重试即可命中缓存
+            throw new RejectedExecutionException("Thumbnail generation timed out");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for thumbnail", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (cause instanceof UncheckedIOException uncheckedIOException) {
+                throw uncheckedIOException.getCause();
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Thumbnail generation failed", cause);
+        }
+    }
+
+    private Path render(String hash, int size) throws IOException {
+        // 排队期间可能已由之前的任务生成
+        Optional<Path> cached = findCached(hash, size);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        BufferedImage scaled = scale(decode(hash, size), size);
+        boolean alpha = scaled.getColorModel().hasAlpha();
+        String format = alpha ? PNG : JPEG;
+        Path target = derivedDir(hash).resolve(hash + "-" + size + "." + format);
+        Files.createDirectories(target.getParent());
+        // 先写临时文件再原子替换，读取方不会看到写了一半的缩略图
+        Path temp = Files.createTempFile(target.getParent(), hash, ".tmp");
+        try {
+            write(scaled, format, temp);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return target;
+    }
+
+    /**
+     * 先读取图片尺寸再解码；大图按目标尺寸隔行采样解码，避免整幅原图占用内存
+     */
+    private BufferedImage decode(String hash, int size) throws IOException {
+        Optional<Path> local = blobStore.localPath(hash);
+        try (InputStream in = local.isPresent() ? null : blobStore.openStream(hash);
+             ImageInputStream input = local.isPresent()
+                     ? ImageIO.createImageInputStream(local.get().toFile())
+                     : ImageIO.createImageInputStream(in)) {
+            if (input == null) {
+                throw new UnsupportedMediaTypeException("Unsupported image format");
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new UnsupportedMediaTypeException("Unsupported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxSourcePixels) {
+                    throw new UnsupportedMediaTypeException("Image is too large to process");
+                }
+                // 保留目标尺寸两倍以上的分辨率，再经过缩放得到平滑的结果
+                int step = Math.max(1, Math.max(width, height) / (size * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // 逐级减半缩小到接近目标尺寸，再做一次双线性缩放，避免一次大比例缩放产生的锯齿
+    private static BufferedImage scale(BufferedImage source, int size) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        double ratio = Math.min(1.0, (double) size / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * ratio));
+        int targetHeight = Math.max(1, (int) Math.round(height * ratio));
+        int type = source.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+
+        BufferedImage current = source;
+        int currentWidth = width;
+        int currentHeight = height;
+        while (currentWidth / 2 >= targetWidth && currentHeight / 2 >= targetHeight) {
+            currentWidth /= 2;
+            currentHeight /= 2;
+            current = draw(current, currentWidth, currentHeight, type);
+        }
+        if (current == source || currentWidth != targetWidth || currentHeight != targetHeight) {
+            current = draw(current, targetWidth, targetHeight, type);
+        }
+        return current;
+    }
+
+    private static BufferedImage draw(BufferedImage source, int width, int height, int type) {
+        BufferedImage target = new BufferedImage(width, height, type);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private static void write(BufferedImage image, String format, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersBySuffix(format).next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(target.toFile())) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (JPEG.equals(format)) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(JPEG_QUALITY);
+            }
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private Optional<Path> findCached(String hash, int size) {
+        Path dir = derivedDir(hash);
+        for (String format : new String[]{JPEG, PNG}) {
+            Path path = dir.resolve(hash + "-" + size + "." + format);
+            if (Files.exists(path)) {
+                return Optional.of(path);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private Path derivedDir(String hash) {
+        return derivedRoot.resolve(hash.substring(0, 2));
+    }
+}
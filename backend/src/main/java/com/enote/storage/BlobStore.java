@@ -0,0 +1,87 @@
+package com.enote.storage;
+
+import com.enote.exception.PayloadTooLargeException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * 内容寻址的二进制存储
+ * 上传先写入暂存区，计算 SHA-256 后以摘要为键发布；相同内容只保存一份，引用计数由调用方在数据库中维护
+ */
+public interface BlobStore {
+
+    /**
+     * 创建一个空的暂存区，用于分块续传
+     * @return 暂存区ID
+     */
+    String createStaging() throws IOException;
+
+    /**
+     * 暂存区当前已写入的字节数，即续传的起始偏移
+     */
+    long stagedSize(String stagingId) throws IOException;
+
+    /**
+     * 从指定偏移开始向暂存区追加数据，边读边写，不在堆内缓存整个请求体
+     * @param stagingId 暂存区ID
+     * @param offset 写入偏移，必须等于当前已写入的字节数
+     * @param in 数据流
+     * @param maxBytes 本次最多写入的字节数，超出时抛出 {@link PayloadTooLargeException}
+     * @return 写入后的暂存区大小
+     */
+    long append(String stagingId, long offset, InputStream in, long maxBytes) throws IOException;
+
+    /**
+     * 一次性写入暂存区并在写入过程中计算摘要
+     * @param in 数据流
+     * @param maxBytes 最大字节数，超出时抛出 {@link PayloadTooLargeException}
+     * @return 暂存结果
+     */
+    StagedBlob stage(InputStream in, long maxBytes) throws IOException;
+
+    /**
+     * 计算暂存区内容的 SHA-256
+     */
+    String digest(String stagingId) throws IOException;
+
+    /**
+     * 以摘要为键发布暂存内容，暂存区保持不变，由调用方在事务提交后丢弃
+     * @return 本次新建了内容时返回 true，调用方回滚时据此删除；已存在相同内容时返回 false
+     */
+    boolean publish(String stagingId, String hash) throws IOException;
+
+    void discard(String stagingId) throws IOException;
+
+    boolean exists(String hash);
+
+    /**
+     * 打开内容的输入流，调用方负责关闭
+     */
+    InputStream openStream(String hash) throws IOException;
+
+    /**
+     * 本地文件路径，可用于容器的 sendfile 零拷贝输出；非本地存储返回空
+     */
+    Optional<Path> localPath(String hash);
+
+    /**
+     * 将指定区间写入目标通道
+     * @return 实际写入的字节数
+     */
+    long transferTo(String hash, long position, long count, WritableByteChannel target) throws IOException;
+
+    void delete(String hash) throws IOException;
+
+    /**
+     * 暂存结果
+     * @param stagingId 暂存区ID
+     * @param hash 内容的 SHA-256（小写十六进制）
+     * @param size 字节数
+     */
+    record StagedBlob(String stagingId, String hash, long size) {
+    }
+}
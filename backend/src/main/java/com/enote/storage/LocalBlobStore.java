@@ -0,0 +1,226 @@
+package com.enote.storage;
+
+import com.enote.exception.PayloadTooLargeException;
+import com.enote.exception.UploadOffsetMismatchException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * 本地文件系统存储
+ * 内容按摘要前两级目录分散存放：blobs/ab/cd/abcd...；暂存区位于 staging/ 下，
+ * 发布时以硬链接（不支持时复制后原子改名）建立内容路径，暂存文件保留到调用方丢弃
+ */
+@Component
+@ConditionalOnProperty(name = "storage.backend", havingValue = "local", matchIfMissing = true)
+public class LocalBlobStore implements BlobStore {
+
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+    private static final int DIGEST_BUFFER_SIZE = 64 * 1024;
+
+    private final Path blobRoot;
+    private final Path stagingRoot;
+
+    public LocalBlobStore(@Value("${file.upload-dir:./uploads}") String uploadDir) throws IOException {
+        Path root = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.blobRoot = Files.createDirectories(root.resolve("blobs"));
+        this.stagingRoot = Files.createDirectories(root.resolve("staging"));
+    }
+
+    @Override
+    public String createStaging() throws IOException {
+        String stagingId = UUID.randomUUID().toString();
+        Files.createFile(stagingPath(stagingId));
+        return stagingId;
+    }
+
+    @Override
+    public long stagedSize(String stagingId) throws IOException {
+        return Files.size(stagingPath(stagingId));
+    }
+
+    @Override
+    public long append(String stagingId, long offset, InputStream in, long maxBytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(stagingPath(stagingId), StandardOpenOption.WRITE)) {
+            // 同一暂存区同时只允许一个写入者，并发续传的请求直接按偏移冲突处理
+            try (FileLock lock = lockForWrite(channel)) {
+                long size = channel.size();
+                if (size != offset) {
+                    throw new UploadOffsetMismatchException("Upload offset " + offset + " does not match " + size);
+                }
+                // transferFrom 通过固定大小的缓冲区从请求流写入文件，不会在堆中保留整个请求体
+                ReadableByteChannel source = Channels.newChannel(in);
+                long limit = offset + maxBytes;
+                long position = offset;
+                while (position < limit) {
+                    long written = channel.transferFrom(source, position, limit - position);
+                    if (written <= 0) {
+                        break;
+                    }
+                    position += written;
+                }
+                if (position == limit && in.read() != -1) {
+                    // 拒绝本次写入，截断已写入的部分，续传偏移保持不变
+                    channel.truncate(offset);
+                    throw new PayloadTooLargeException("Upload exceeds " + maxBytes + " bytes");
+                }
+                return position;
+            }
+        }
+    }
+
+    @Override
+    public StagedBlob stage(InputStream in, long maxBytes) throws IOException {
+        String stagingId = createStaging();
+        try {
+            MessageDigest digest = sha256();
+            long size = append(stagingId, 0, new DigestInputStream(in, digest), maxBytes);
+            return new StagedBlob(stagingId, HexFormat.of().formatHex(digest.digest()), size);
+        } catch (IOException | RuntimeException e) {
+            discard(stagingId);
+            throw e;
+        }
+    }
+
+    @Override
+    public String digest(String stagingId) throws IOException {
+        MessageDigest digest = sha256();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(DIGEST_BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(stagingPath(stagingId), StandardOpenOption.READ)) {
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    @Override
+    public boolean publish(String stagingId, String hash) throws IOException {
+        Path staged = stagingPath(stagingId);
+        Path target = blobPath(hash);
+        if (Files.exists(target)) {
+            return false;
+        }
+        Files.createDirectories(target.getParent());
+        try {
+            Files.createLink(target, staged);
+            return true;
+        } catch (FileAlreadyExistsException e) {
+            // 并发发布了相同内容，保留先到的一份
+            return false;
+        } catch (UnsupportedOperationException | FileSystemException e) {
+            Path tmp = target.resolveSibling(hash + "." + UUID.randomUUID() + ".tmp");
+            Files.copy(staged, tmp);
+            try {
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException moveFailure) {
+                Files.deleteIfExists(tmp);
+                throw moveFailure;
+            }
+            return true;
+        }
+    }
+
+    @Override
+    public void discard(String stagingId) throws IOException {
+        Files.deleteIfExists(stagingPath(stagingId));
+    }
+
+    @Override
+    public boolean exists(String hash) {
+        return Files.exists(blobPath(hash));
+    }
+
+    @Override
+    public InputStream openStream(String hash) throws IOException {
+        return Files.newInputStream(blobPath(hash));
+    }
+
+    @Override
+    public Optional<Path> localPath(String hash) {
+        return Optional.of(blobPath(hash));
+    }
+
+    @Override
+    public long transferTo(String hash, long position, long count, WritableByteChannel target) throws IOException {
+        try (FileChannel channel = FileChannel.open(blobPath(hash), StandardOpenOption.READ)) {
+            long transferred = 0;
+            while (transferred < count) {
+                long n = channel.transferTo(position + transferred, count - transferred, target);
+                if (n <= 0) {
+                    break;
+                }
+                transferred += n;
+            }
+            return transferred;
+        }
+    }
+
+    @Override
+    public void delete(String hash) throws IOException {
+        Files.deleteIfExists(blobPath(hash));
+    }
+
+    private Path blobPath(String hash) {
+        if (hash == null || !HASH.matcher(hash).matches()) {
+            throw new IllegalArgumentException("Invalid blob hash");
+        }
+        return blobRoot.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    // 暂存区ID必须是服务端生成的 UUID，防止通过ID构造路径访问暂存目录以外的文件
+    private Path stagingPath(String stagingId) {
+        try {
+            return stagingRoot.resolve(UUID.fromString(stagingId).toString());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid staging id");
+        }
+    }
+
+    private static FileLock lockForWrite(FileChannel channel) throws IOException {
+        FileLock lock;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            throw new UploadOffsetMismatchException("Upload is being written by another request");
+        }
+        return lock;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.enote.metrics;
+
+import com.enote.entity.Note;
+import com.enote.entity.User;
+import com.enote.repository.NoteRepository;
+import com.enote.repository.UserRepository;
+import com.enote.security.AuthenticatedUser;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 严格模式下的查询预算
+ * /notes/{id} 使用 application.properties 中配置的预算，应在预算内完成；
+ * /notes 的预算在这里压到 1 条语句，超出时请求直接失败
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:enote_sql_budget;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "sql-profiler.enforce=true",
+        "sql-profiler.budgets[/notes]=1"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SqlProfilerBudgetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private NoteRepository noteRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Authentication owner;
+    private Long noteId;
+
+    @BeforeAll
+    void seed() {
+        transactionTemplate.executeWithoutResult(status -> {
+            User user = new User();
+            user.setUsername("sql-budget");
+            user.setPasswordHash("{noop}secret");
+            user.setEmail("sql-budget@example.com");
+            user = userRepository.save(user);
+
+            for (int i = 0; i < 3; i++) {
+                Note note = new Note();
+                note.setTitle("Note " + i);
+                note.setContent("content " + i);
+                note.setUser(user);
+                noteId = noteRepository.save(note).getId();
+            }
+
+            AuthenticatedUser principal = new AuthenticatedUser(user.getId(), user.getUsername(), null,
+                    List.of(new SimpleGrantedAuthority("ROLE_USER")));
+            owner = new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+        });
+    }
+
+    @Test
+    void routeWithinBudgetSucceeds() throws Exception {
+        mockMvc.perform(get("/notes/{id}", noteId).with(authentication(owner)))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(SqlProfilingFilter.HEADER));
+    }
+
+    @Test
+    void routeOverBudgetFails() {
+        assertThatThrownBy(() -> mockMvc.perform(get("/notes").with(authentication(owner))))
+                .hasRootCauseInstanceOf(QueryBudgetExceededException.class);
+    }
+}
@@ -0,0 +1,22 @@
+package com.enote.metrics;
+
+/**
+ * 测试用语句计数
+ * 在当前线程上开启一次 SqlProfile，统计动作执行期间本线程获取的连接上执行的语句数；
+ * 只计入本线程的语句，不受后台定时任务影响。调用方不能处于已持有连接的测试事务中
+ */
+public final class SqlStatementCounter {
+
+    private SqlStatementCounter() {
+    }
+
+    public static int count(Runnable action) {
+        SqlProfile profile = SqlProfile.begin(() -> Integer.MAX_VALUE, false);
+        try {
+            action.run();
+        } finally {
+            SqlProfile.end();
+        }
+        return profile.getStatements();
+    }
+}
@@ -0,0 +1,149 @@
+package com.enote.service;
+
+import com.enote.entity.Category;
+import com.enote.entity.Note;
+import com.enote.entity.Tag;
+import com.enote.entity.User;
+import com.enote.metrics.SqlStatementCounter;
+import com.enote.repository.CategoryRepository;
+import com.enote.repository.NoteRepository;
+import com.enote.repository.TagRepository;
+import com.enote.repository.UserRepository;
+import com.enote.security.AuthenticatedUser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 笔记列表的查询次数
+ * 列表页的语句数（分页查询、总数查询、标签批量查询和所有权校验）不随页大小增长，
+ * 即 convertToResponse 不再逐条懒加载分类、标签和作者
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class NoteListQueryCountTest {
+
+    private static final int NOTE_COUNT = 60;
+    private static final int SMALL_PAGE = 5;
+    private static final int LARGE_PAGE = 25;
+    private static final int MAX_STATEMENTS = 4;
+
+    @Autowired
+    private NoteService noteService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private TagRepository tagRepository;
+    @Autowired
+    private NoteRepository noteRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private User user;
+    private Category category;
+    private Tag tag;
+
+    @BeforeAll
+    void seed() {
+        transactionTemplate.executeWithoutResult(status -> {
+            User u = new User();
+            u.setUsername("list-query-count");
+            u.setPasswordHash("{noop}secret");
+            u.setEmail("list-query-count@example.com");
+            user = userRepository.save(u);
+
+            List<Category> categories = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                Category c = new Category();
+                c.setName("category-" + i);
+                c.setUser(user);
+                categories.add(categoryRepository.save(c));
+            }
+            List<Tag> tags = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                Tag t = new Tag();
+                t.setName("tag-" + i);
+                t.setUser(user);
+                tags.add(tagRepository.save(t));
+            }
+            category = categories.get(0);
+            tag = tags.get(0);
+
+            // 每个分类 30 篇、首个标签覆盖全部笔记，两种页大小下都是满页，总数查询都会执行
+            List<Note> notes = new ArrayList<>();
+            for (int i = 0; i < NOTE_COUNT; i++) {
+                Note note = new Note();
+                note.setTitle("Note " + i);
+                note.setContent("content " + i);
+                note.setUser(user);
+                note.setCategory(categories.get(i % categories.size()));
+                note.getTags().add(tags.get(0));
+                note.getTags().add(tags.get(1 + i % 2));
+                notes.add(note);
+            }
+            noteRepository.saveAll(notes);
+        });
+    }
+
+    @BeforeEach
+    void authenticate() {
+        AuthenticatedUser principal = new AuthenticatedUser(user.getId(), user.getUsername(), null,
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void getNotesIssuesConstantStatements() {
+        assertConstantStatements(pageable -> noteService.getNotes(pageable).getContent());
+    }
+
+    @Test
+    void getNotesByCategoryIssuesConstantStatements() {
+        assertConstantStatements(pageable -> noteService.getNotesByCategory(category.getId(), pageable).getContent());
+    }
+
+    @Test
+    void getNotesByTagIssuesConstantStatements() {
+        assertConstantStatements(pageable -> noteService.getNotesByTag(tag.getId(), pageable).getContent());
+    }
+
+    private void assertConstantStatements(Function<Pageable, List<?>> listPage) {
+        // 先各执行一次，使二级缓存中的分类、标签处于稳定状态
+        listPage.apply(PageRequest.of(0, SMALL_PAGE));
+        listPage.apply(PageRequest.of(0, LARGE_PAGE));
+
+        int small = SqlStatementCounter.count(() ->
+                assertThat(listPage.apply(PageRequest.of(0, SMALL_PAGE))).hasSize(SMALL_PAGE));
+        int large = SqlStatementCounter.count(() ->
+                assertThat(listPage.apply(PageRequest.of(0, LARGE_PAGE))).hasSize(LARGE_PAGE));
+
+        assertThat(large).isEqualTo(small);
+        assertThat(large).isLessThanOrEqualTo(MAX_STATEMENTS);
+    }
+}
@@ -0,0 +1,39 @@
+package com.enote.benchmark;
+
+import com.enote.ENoteApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * 基准测试共用的应用上下文
+ * 每个 trial 启动一次应用并写入一次测试数据，trial 结束时由基准类的 @TearDown 关闭，
+ * 同一 fork 中按参数依次执行的多个 trial 不会遗留连接池和后台线程
+ */
+public final class BenchmarkContext {
+
+    private static ConfigurableApplicationContext context;
+
+    private BenchmarkContext() {
+    }
+
+    public static synchronized ConfigurableApplicationContext get() {
+        if (context == null) {
+            context = new SpringApplicationBuilder(ENoteApplication.class)
+                    .profiles("bench")
+                    .run();
+            DataSeeder.seed(context);
+        }
+        return context;
+    }
+
+    public static synchronized void close() {
+        if (context != null) {
+            context.close();
+            context = null;
+        }
+    }
+
+    public static <T> T bean(Class<T> type) {
+        return get().getBean(type);
+    }
+}
@@ -0,0 +1,130 @@
+package com.enote.benchmark;
+
+import com.enote.entity.Category;
+import com.enote.entity.Note;
+import com.enote.entity.Tag;
+import com.enote.entity.User;
+import com.enote.repository.CategoryRepository;
+import com.enote.repository.NoteRepository;
+import com.enote.repository.TagRepository;
+import com.enote.repository.UserRepository;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 测试数据生成器
+ * 单用户 5,000 篇笔记（常见规模为 1,000 篇以上，此处适当放大），随机种子固定以保证结果可重复
+ */
+public final class DataSeeder {
+
+    public static final String USERNAME = "bench";
+    public static final String PASSWORD = "bench-password";
+    public static final int NOTE_COUNT = 5_000;
+    public static final int CATEGORY_COUNT = 20;
+    public static final int TAG_COUNT = 40;
+    public static final int TAGS_PER_NOTE = 3;
+    public static final int CONTENT_LENGTH = 2_000;
+
+    private static final int BATCH_SIZE = 500;
+    private static final long SEED = 42L;
+
+    private static Long userId;
+
+    private DataSeeder() {
+    }
+
+    public static Long userId() {
+        return userId;
+    }
+
+    static void seed(ApplicationContext context) {
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        CategoryRepository categoryRepository = context.getBean(CategoryRepository.class);
+        TagRepository tagRepository = context.getBean(TagRepository.class);
+        NoteRepository noteRepository = context.getBean(NoteRepository.class);
+        PasswordEncoder passwordEncoder = context.getBean(PasswordEncoder.class);
+        TransactionTemplate tx = context.getBean(TransactionTemplate.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        Random random = new Random(SEED);
+
+        User user = tx.execute(status -> {
+            User u = new User();
+            u.setUsername(USERNAME);
+            u.setPasswordHash(passwordEncoder.encode(PASSWORD));
+            u.setEmail(USERNAME + "@example.com");
+            u.setRole(User.UserRole.USER);
+            u.setStatus(User.UserStatus.ACTIVE);
+            return userRepository.save(u);
+        });
+        userId = user.getId();
+
+        List<Category> categories = tx.execute(status -> {
+            List<Category> list = new ArrayList<>();
+            for (int i = 0; i < CATEGORY_COUNT; i++) {
+                Category category = new Category();
+                category.setName("category-" + i);
+                category.setUser(user);
+                list.add(category);
+            }
+            return categoryRepository.saveAll(list);
+        });
+        List<Tag> tags = tx.execute(status -> {
+            List<Tag> list = new ArrayList<>();
+            for (int i = 0; i < TAG_COUNT; i++) {
+                Tag tag = new Tag();
+                tag.setName("tag-" + i);
+                tag.setUser(user);
+                list.add(tag);
+            }
+            return tagRepository.saveAll(list);
+        });
+
+        for (int start = 0; start < NOTE_COUNT; start += BATCH_SIZE) {
+            int end = Math.min(NOTE_COUNT, start + BATCH_SIZE);
+            int from = start;
+            tx.executeWithoutResult(status -> {
+                List<Note> notes = new ArrayList<>();
+                for (int i = from; i < end; i++) {
+                    Note note = new Note();
+                    note.setTitle("Note " + i);
+                    note.setContent(randomContent(random));
+                    note.setUser(user);
+                    note.setCategory(categories.get(random.nextInt(categories.size())));
+                    while (note.getTags().size() < TAGS_PER_NOTE) {
+                        note.getTags().add(tags.get(random.nextInt(tags.size())));
+                    }
+                    notes.add(note);
+                }
+                noteRepository.saveAll(notes);
+            });
+        }
+
+        // 生成分散的更新时间，使排序与游标分页接近真实分布
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> updates = new ArrayList<>();
+        for (Long noteId : jdbcTemplate.queryForList("SELECT id FROM notes", Long.class)) {
+            updates.add(new Object[]{Timestamp.valueOf(now.minusMinutes(random.nextInt(60 * 24 * 365))), noteId});
+        }
+        jdbcTemplate.batchUpdate("UPDATE notes SET updated_at = ? WHERE id = ?", updates);
+    }
+
+    static String randomContent(Random random) {
+        StringBuilder content = new StringBuilder(CONTENT_LENGTH + 16);
+        while (content.length() < CONTENT_LENGTH) {
+            int wordLength = 2 + random.nextInt(9);
+            for (int i = 0; i < wordLength; i++) {
+                content.append((char) ('a' + random.nextInt(26)));
+            }
+            content.append(random.nextInt(12) == 0 ? "\n\n" : " ");
+        }
+        return content.toString();
+    }
+}
@@ -0,0 +1,48 @@
+package com.enote.benchmark;
+
+import com.enote.security.JwtTokenUtil;
+import com.enote.security.VerifiedToken;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT 令牌签发与校验
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    private JwtTokenUtil jwtTokenUtil;
+    private UserDetails userDetails;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        jwtTokenUtil = BenchmarkContext.bean(JwtTokenUtil.class);
+        userDetails = new User(DataSeeder.USERNAME, "", List.of());
+        token = jwtTokenUtil.generateToken(userDetails);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkContext.close();
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtTokenUtil.generateToken(userDetails);
+    }
+
+    @Benchmark
+    public VerifiedToken verifyToken() {
+        return jwtTokenUtil.verify(token);
+    }
+}
@@ -0,0 +1,88 @@
+package com.enote.benchmark;
+
+import com.enote.dto.NoteResponse;
+import com.enote.dto.NoteSummaryResponse;
+import com.enote.repository.NoteRepository;
+import com.enote.repository.projection.NoteSummaryView;
+import com.enote.service.impl.NoteResponseAssembler;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 笔记列表查询：完整视图、摘要视图、深分页与游标分页对比
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NoteRepositoryBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    private NoteRepository noteRepository;
+    private NoteResponseAssembler assembler;
+    private TransactionTemplate readOnlyTx;
+    private Long userId;
+    private Pageable firstPage;
+    private Pageable deepPage;
+    private LocalDateTime cursorUpdatedAt;
+    private Long cursorId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        noteRepository = BenchmarkContext.bean(NoteRepository.class);
+        assembler = BenchmarkContext.bean(NoteResponseAssembler.class);
+        readOnlyTx = new TransactionTemplate(BenchmarkContext.bean(TransactionTemplate.class).getTransactionManager());
+        readOnlyTx.setReadOnly(true);
+        userId = DataSeeder.userId();
+
+        Sort sort = Sort.by(Sort.Order.desc("updatedAt"), Sort.Order.desc("id"));
+        firstPage = PageRequest.of(0, PAGE_SIZE, sort);
+        deepPage = PageRequest.of(DataSeeder.NOTE_COUNT / PAGE_SIZE / 2, PAGE_SIZE, sort);
+
+        // 游标取深分页前一行，使两种分页读取同一批数据
+        NoteSummaryView before = noteRepository.findActiveNoteSummariesByUserId(
+                userId, PageRequest.of((int) deepPage.getOffset() - 1, 1, sort)).getContent().get(0);
+        cursorUpdatedAt = before.getUpdatedAt();
+        cursorId = before.getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkContext.close();
+    }
+
+    @Benchmark
+    public Page<NoteResponse> fullFirstPage() {
+        return readOnlyTx.execute(status ->
+                assembler.toResponses(noteRepository.findActiveNotesByUserId(userId, firstPage)));
+    }
+
+    @Benchmark
+    public Page<NoteSummaryResponse> summaryFirstPage() {
+        return readOnlyTx.execute(status ->
+                assembler.toSummaries(noteRepository.findActiveNoteSummariesByUserId(userId, firstPage)));
+    }
+
+    @Benchmark
+    public Page<NoteSummaryResponse> summaryDeepOffsetPage() {
+        return readOnlyTx.execute(status ->
+                assembler.toSummaries(noteRepository.findActiveNoteSummariesByUserId(userId, deepPage)));
+    }
+
+    @Benchmark
+    public List<NoteSummaryResponse> summaryDeepKeysetPage() {
+        return readOnlyTx.execute(status -> assembler.toSummaries(noteRepository.findActiveNoteSummariesAfter(
+                userId, cursorUpdatedAt, cursorId, PageRequest.of(0, PAGE_SIZE))));
+    }
+}
@@ -0,0 +1,98 @@
+package com.enote.benchmark;
+
+import com.enote.dto.NoteResponse;
+import com.enote.entity.Category;
+import com.enote.entity.Note;
+import com.enote.entity.Tag;
+import com.enote.entity.User;
+import com.enote.service.impl.NoteResponseAssembler;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 笔记实体到响应对象的转换，以及分页响应的 JSON 序列化（不访问数据库）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NoteResponseBenchmark {
+
+    @Param({"20", "100"})
+    public int pageSize;
+
+    private NoteResponseAssembler assembler;
+    private ObjectMapper objectMapper;
+    private List<Note> notes;
+    private Page<NoteResponse> page;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        assembler = BenchmarkContext.bean(NoteResponseAssembler.class);
+        objectMapper = BenchmarkContext.bean(ObjectMapper.class);
+
+        Random random = new Random(42L);
+        User user = new User();
+        user.setId(1L);
+        user.setUsername(DataSeeder.USERNAME);
+        Category category = new Category();
+        category.setId(1L);
+        category.setName("category-1");
+
+        notes = new ArrayList<>();
+        for (int i = 0; i < pageSize; i++) {
+            Note note = new Note();
+            note.setId((long) i + 1);
+            note.setTitle("Note " + i);
+            note.setContent(DataSeeder.randomContent(random));
+            note.setUser(user);
+            note.setCategory(category);
+            note.setCreatedAt(LocalDateTime.now());
+            note.setUpdatedAt(LocalDateTime.now());
+            for (int t = 0; t < DataSeeder.TAGS_PER_NOTE; t++) {
+                Tag tag = new Tag();
+                tag.setId((long) t + 1);
+                tag.setName("tag-" + t);
+                note.getTags().add(tag);
+            }
+            notes.add(note);
+        }
+
+        List<NoteResponse> responses = new ArrayList<>();
+        for (Note note : notes) {
+            responses.add(assembler.toResponse(note));
+        }
+        page = new PageImpl<>(responses, PageRequest.of(0, pageSize), DataSeeder.NOTE_COUNT);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkContext.close();
+    }
+
+    @Benchmark
+    public List<NoteResponse> convertToResponse() {
+        List<NoteResponse> responses = new ArrayList<>(notes.size());
+        for (Note note : notes) {
+            responses.add(assembler.toResponse(note));
+        }
+        return responses;
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
@@ -0,0 +1,75 @@
+import api from './api';
+
+// 超过该大小的文件使用分块续传（与后端 multipart 上限一致）
+const SINGLE_UPLOAD_LIMIT = 10 * 1024 * 1024;
+const CHUNK_SIZE = 5 * 1024 * 1024;
+
+// 附件服务
+const attachmentService = {
+  // 获取笔记的附件列表
+  getAttachments: async (noteId) => {
+    try {
+      const response = await api.get(`/notes/${noteId}/attachments`);
+      return Array.isArray(response.data) ? response.data : [];
+    } catch (error) {
+      console.error(`获取笔记 ${noteId} 的附件失败:`, error);
+      return [];
+    }
+  },
+
+  // 上传附件：小文件一次上传，大文件分块上传，中断后从服务端记录的偏移续传
+  uploadAttachment: async (noteId, file, onProgress) => {
+    try {
+      if (file.size <= SINGLE_UPLOAD_LIMIT) {
+        const form = new FormData();
+        form.append('file', file);
+        const response = await api.post(`/notes/${noteId}/attachments`, form, {
+          headers: { 'Content-Type': 'multipart/form-data' }
+        });
+        onProgress?.(file.size, file.size);
+        return response.data;
+      }
+
+      const { data: upload } = await api.post(`/notes/${noteId}/attachments/uploads`, {
+        fileName: file.name,
+        fileType: file.type || undefined,
+        size: file.size
+      });
+      let offset = upload.offset;
+      while (offset < file.size) {
+        try {
+          const response = await api.patch(`/attachments/uploads/${upload.uploadId}`,
+            file.slice(offset, offset + CHUNK_SIZE), {
+              headers: { 'Content-Type': 'application/offset+octet-stream', 'Upload-Offset': offset }
+            });
+          offset = response.data.offset;
+        } catch (error) {
+          // 偏移冲突或网络中断时查询服务端已接收的字节数后续传
+          const { data: progress } = await api.get(`/attachments/uploads/${upload.uploadId}`);
+          if (progress.offset === offset) {
+            throw error;
+          }
+          offset = progress.offset;
+        }
+        onProgress?.(offset, file.size);
+      }
+      const response = await api.post(`/attachments/uploads/${upload.uploadId}/complete`);
+      return response.data;
+    } catch (error) {
+      console.error('上传附件失败:', error);
+      throw error;
+    }
+  },
+
+  // 删除附件
+  deleteAttachment: async (id) => {
+    try {
+      await api.delete(`/attachments/${id}`);
+    } catch (error) {
+      console.error(`删除ID为 ${id} 的附件失败:`, error);
+      throw error;
+    }
+  }
+};
+
+export default attachmentService;
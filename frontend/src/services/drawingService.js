@@ -0,0 +1,61 @@
+import api from './api';
+
+// 绘图服务
+const drawingService = {
+  // 获取笔记的绘图列表（仅元数据）
+  getDrawings: async (noteId) => {
+    try {
+      const response = await api.get(`/notes/${noteId}/drawings`);
+      return Array.isArray(response.data) ? response.data : [];
+    } catch (error) {
+      console.error(`获取笔记 ${noteId} 的绘图失败:`, error);
+      return [];
+    }
+  },
+
+  // 创建绘图，svg 为空时创建空白画布
+  createDrawing: async (noteId, { width, height, svg }) => {
+    const response = await api.post(`/notes/${noteId}/drawings`, { width, height, svg });
+    return response.data;
+  },
+
+  // 读取整篇 SVG 文本
+  getSvg: async (id) => {
+    const response = await api.get(`/drawings/${id}/svg`, { responseType: 'text' });
+    return response.data;
+  },
+
+  // 落笔后只追加新增的笔画：[{ color: '#RRGGBB', width, points: [x0, y0, x1, y1, ...] }]
+  appendStrokes: async (id, strokes) => {
+    try {
+      const response = await api.post(`/drawings/${id}/strokes`, { strokes });
+      return response.data;
+    } catch (error) {
+      console.error(`追加绘图 ${id} 的笔画失败:`, error);
+      throw error;
+    }
+  },
+
+  // 拉取 after 之后的笔画；resync 为 true 时需要重新读取整篇 SVG
+  getStrokes: async (id, after = 0) => {
+    const response = await api.get(`/drawings/${id}/strokes`, { params: { after } });
+    const data = response.data || {};
+    return {
+      lastSeq: data.lastSeq ?? after,
+      resync: Boolean(data.resync),
+      strokes: Array.isArray(data.strokes) ? data.strokes : []
+    };
+  },
+
+  // 整体替换绘图内容
+  replaceDrawing: async (id, { width, height, svg }) => {
+    const response = await api.put(`/drawings/${id}`, { width, height, svg });
+    return response.data;
+  },
+
+  deleteDrawing: async (id) => {
+    await api.delete(`/drawings/${id}`);
+  }
+};
+
+export default drawingService;
@@ -93,6 +93,18 @@ const noteService = {
     }
   },
   
+  // 自动保存草稿：只提交标题和正文，服务端合并连续的草稿后再写入数据库
+  saveDraft: async (id, { title, content }) => {
+    const response = await api.put(`/notes/${id}/draft`, { title, content });
+    return response.data;
+  },
+
+  // 立即写回草稿（如离开编辑页时），返回最新的笔记
+  commitDraft: async (id) => {
+    const response = await api.post(`/notes/${id}/draft/commit`);
+    return response.data;
+  },
+
   // 删除笔记
   deleteNote: async (id) => {
     try {
@@ -104,6 +116,45 @@ const noteService = {
     }
   },
   
+  // 游标分页获取笔记摘要（无限滚动），cursor 为空时获取第一页
+  scrollNotes: async (cursor, size = 20) => {
+    try {
+      const response = await api.get('/notes/scroll', {
+        params: { ...(cursor && { cursor }), size }
+      });
+      return {
+        items: Array.isArray(response.data?.items) ? response.data.items : [],
+        nextCursor: response.data?.nextCursor || null,
+        hasMore: Boolean(response.data?.hasMore)
+      };
+    } catch (error) {
+      console.error('滚动加载笔记失败:', error);
+      throw error;
+    }
+  },
+
+  // 获取笔记的区块列表（首次访问时服务端按段落拆分）
+  getBlocks: async (noteId) => {
+    try {
+      const response = await api.get(`/notes/${noteId}/blocks`);
+      return Array.isArray(response.data) ? response.data : [];
+    } catch (error) {
+      console.error(`获取笔记 ${noteId} 的区块失败:`, error);
+      throw error;
+    }
+  },
+
+  // 增量保存区块：ops 为 INSERT/UPDATE/MOVE/DELETE 操作列表，只写入变更的区块
+  patchBlocks: async (noteId, ops) => {
+    try {
+      const response = await api.patch(`/notes/${noteId}/blocks`, { ops });
+      return response.data;
+    } catch (error) {
+      console.error(`保存笔记 ${noteId} 的区块失败:`, error);
+      throw error;
+    }
+  },
+
   // 根据分类获取笔记
   getNotesByCategory: async (categoryId) => {
     try {
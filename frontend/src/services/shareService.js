@@ -0,0 +1,34 @@
+import api from './api';
+
+// 笔记共享服务
+const shareService = {
+  // 共享给我的笔记（按共享时间倒序分页）
+  getSharedWithMe: async (page = 0, size = 20) => {
+    try {
+      const response = await api.get('/notes/shared', { params: { page, size } });
+      return response.data;
+    } catch (error) {
+      console.error('获取共享笔记失败:', error);
+      throw error;
+    }
+  },
+
+  // 笔记的授权列表（仅所有者）
+  getShares: async (noteId) => {
+    const response = await api.get(`/notes/${noteId}/shares`);
+    return Array.isArray(response.data) ? response.data : [];
+  },
+
+  // 共享笔记；permission 为 READ 或 EDIT，已共享时更新权限
+  shareNote: async (noteId, username, permission = 'READ') => {
+    const response = await api.put(`/notes/${noteId}/shares`, { username, permission });
+    return response.data;
+  },
+
+  // 撤销授权；被授权用户传入自己的ID即退出共享
+  revokeShare: async (noteId, userId) => {
+    await api.delete(`/notes/${noteId}/shares/${userId}`);
+  }
+};
+
+export default shareService;
@@ -0,0 +1,27 @@
+import api from './api';
+
+// 增量同步服务
+const syncService = {
+  // 拉取游标之后的变更：首次同步 since 传 0，之后传上次返回的 cursor；hasMore 为 true 时应继续拉取
+  pullChanges: async (since = 0, limit = 500) => {
+    try {
+      const response = await api.get('/sync', { params: { since, limit } });
+      const data = response.data || {};
+      return {
+        cursor: data.cursor ?? since,
+        hasMore: Boolean(data.hasMore),
+        notes: Array.isArray(data.notes) ? data.notes : [],
+        categories: Array.isArray(data.categories) ? data.categories : [],
+        tags: Array.isArray(data.tags) ? data.tags : [],
+        deletedNoteIds: Array.isArray(data.deletedNoteIds) ? data.deletedNoteIds : [],
+        deletedCategoryIds: Array.isArray(data.deletedCategoryIds) ? data.deletedCategoryIds : [],
+        deletedTagIds: Array.isArray(data.deletedTagIds) ? data.deletedTagIds : []
+      };
+    } catch (error) {
+      console.error('增量同步失败:', error);
+      throw error;
+    }
+  }
+};
+
+export default syncService;